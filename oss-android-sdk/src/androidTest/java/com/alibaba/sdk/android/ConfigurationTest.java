@@ -1,21 +1,47 @@
 package com.alibaba.sdk.android;
 
+import android.net.SSLSessionCache;
 import android.test.AndroidTestCase;
+import android.text.TextUtils;
 
 import com.alibaba.sdk.android.oss.ClientConfiguration;
 import com.alibaba.sdk.android.oss.OSS;
 import com.alibaba.sdk.android.oss.OSSClient;
+import com.alibaba.sdk.android.oss.OSSTransport;
+import com.alibaba.sdk.android.oss.ServiceException;
 import com.alibaba.sdk.android.oss.common.OSSLog;
+import com.alibaba.sdk.android.oss.common.utils.HttpdnsMini;
+import com.alibaba.sdk.android.oss.common.utils.IOUtils;
+import com.alibaba.sdk.android.oss.internal.OSSAsyncTask;
+import com.alibaba.sdk.android.oss.model.DeleteObjectRequest;
 import com.alibaba.sdk.android.oss.model.GetObjectRequest;
 import com.alibaba.sdk.android.oss.model.GetObjectResult;
 import com.alibaba.sdk.android.oss.model.HeadObjectRequest;
 import com.alibaba.sdk.android.oss.model.HeadObjectResult;
 import com.alibaba.sdk.android.oss.model.PutObjectRequest;
 import com.alibaba.sdk.android.oss.model.PutObjectResult;
-
+import com.alibaba.sdk.android.oss.network.ConnectionPoolStats;
+import com.alibaba.sdk.android.oss.network.HedgingPolicy;
+import com.alibaba.sdk.android.oss.network.ObjectCache;
+import com.alibaba.sdk.android.oss.network.RequestCoalescer;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import javax.net.ssl.SSLSocket;
+
+import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -167,6 +193,300 @@ public class ConfigurationTest extends AndroidTestCase {
         assertEquals(200, getResult.getStatusCode());
     }
 
+    public void testHttpDnsWithLocalServer() throws Exception {
+        final ServerSocket server = new ServerSocket(0, 10, InetAddress.getByName("127.0.0.1"));
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Socket socket = server.accept();
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+                    while (!TextUtils.isEmpty(reader.readLine())) {
+                    }
+                    String body = "{\"host\":\"httpdns-test.aliyuncs.com\",\"ips\":[\"10.0.0.1\",\"10.0.0.2\"],"
+                            + "\"ipsv6\":[\"2001:db8::1\"],\"ttl\":60}";
+                    OutputStream output = socket.getOutputStream();
+                    output.write(("HTTP/1.1 200 OK\r\nContent-Length: " + body.length()
+                            + "\r\nConnection: close\r\n\r\n" + body).getBytes("UTF-8"));
+                    output.flush();
+                    socket.close();
+                    server.close();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }).start();
+
+        File cacheFile = new File(getContext().getCacheDir(), "oss_httpdns_test_cache");
+        cacheFile.delete();
+        HttpdnsMini httpDns = HttpdnsMini.getInstance("127.0.0.1:" + server.getLocalPort());
+        httpDns.setCacheFile(cacheFile);
+        String host = "httpdns-test.aliyuncs.com";
+        List<InetAddress> addresses = httpDns.getAddressesByHostAsync(host);
+        for (int i = 0; i < 50 && addresses == null; i++) {
+            Thread.sleep(100);
+            addresses = httpDns.getAddressesByHostAsync(host);
+        }
+        assertNotNull(addresses);
+        assertEquals(3, addresses.size());
+        assertEquals("10.0.0.1", addresses.get(0).getHostAddress());
+        assertTrue(addresses.get(1) instanceof Inet6Address);
+        assertEquals("10.0.0.2", addresses.get(2).getHostAddress());
+        assertEquals(host, addresses.get(0).getHostName());
+        assertEquals(addresses, httpDns.lookup(host));
+
+        // another resolver restores the persisted result without querying its (unreachable) server
+        for (int i = 0; i < 50 && !cacheFile.exists(); i++) {
+            Thread.sleep(100);
+        }
+        HttpdnsMini restoredDns = HttpdnsMini.getInstance("127.0.0.1:1");
+        restoredDns.setCacheFile(cacheFile);
+        assertEquals(addresses, restoredDns.getAddressesByHostAsync(host));
+    }
+
+    public void testWarmUp() throws Exception {
+        List<String> buckets = new ArrayList<String>();
+        buckets.add(OSSTestConfig.ANDROID_TEST_BUCKET);
+        // a new client has no connection yet
+        OSS warmOss = new OSSClient(getContext(), OSSTestConfig.ENDPOINT, OSSTestConfig.credentialProvider,
+                new ClientConfiguration());
+        assertEquals(0, warmOss.getConnectionPoolStats().getOpenedConnectionCount());
+
+        warmOss.warmUp(buckets, 2);
+        // the warm-up requests run in the background, the connections are idle once they complete
+        for (int i = 0; i < 100 && warmOss.getConnectionPoolStats().getIdleConnectionCount() < 2; i++) {
+            Thread.sleep(100);
+        }
+        ConnectionPoolStats stats = warmOss.getConnectionPoolStats();
+        assertEquals(2, stats.getOpenedConnectionCount());
+        assertTrue(stats.getIdleConnectionCount() >= 2);
+
+        GetObjectRequest get = new GetObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, "file1m");
+        GetObjectResult getResult = warmOss.getObject(get);
+        getResult.getObjectContent().close();
+        assertEquals(200, getResult.getStatusCode());
+        // the request reuses a warmed connection
+        assertEquals(2, warmOss.getConnectionPoolStats().getOpenedConnectionCount());
+    }
+
+    public void testSSLSessionCache() throws Exception {
+        SSLSessionCache sessionCache = new SSLSessionCache(new File(getContext().getCacheDir(), "oss_test_ssl_sessions"));
+        String httpsEndpoint = OSSTestConfig.ENDPOINT.replace("http://", "https://");
+
+        OSSTransport transport = new OSSTransport(getContext(), new ClientConfiguration());
+        final List<byte[]> sessionIds = Collections.synchronizedList(new ArrayList<byte[]>());
+        transport.addNetworkInterceptor(new Interceptor() {
+            @Override
+            public Response intercept(Chain chain) throws IOException {
+                sessionIds.add(((SSLSocket) chain.connection().socket()).getSession().getId());
+                return chain.proceed(chain.request());
+            }
+        });
+
+        for (int i = 0; i < 2; i++) {
+            ClientConfiguration conf = new ClientConfiguration();
+            conf.setTransport(transport);
+            conf.setSSLSessionCache(sessionCache);
+            OSS sslOss = new OSSClient(getContext(), httpsEndpoint, OSSTestConfig.credentialProvider, conf);
+            HeadObjectResult result = sslOss.headObject(new HeadObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, "file1m"));
+            assertEquals(200, result.getStatusCode());
+            // the next client handshakes on a new connection, which can only resume the session by the cache
+            transport.newClientBuilder().build().connectionPool().evictAll();
+        }
+
+        assertTrue(sessionIds.size() >= 2);
+        byte[] firstSession = sessionIds.get(0);
+        byte[] lastSession = sessionIds.get(sessionIds.size() - 1);
+        assertTrue(firstSession.length > 0);
+        assertTrue(Arrays.equals(firstSession, lastSession));
+    }
+
+    public void testConnectionPoolConfiguration() throws Exception {
+        ClientConfiguration conf = new ClientConfiguration();
+        conf.setMaxConcurrentRequest(10);
+        conf.setMaxConcurrentRequestPerHost(8);
+        conf.setMaxIdleConnections(3);
+        conf.setKeepAliveDuration(60 * 1000);
+        assertEquals(8, conf.getMaxConcurrentRequestPerHost());
+        oss = new OSSClient(getContext(), OSSTestConfig.ENDPOINT, OSSTestConfig.credentialProvider, conf);
+
+        GetObjectResult getResult = oss.getObject(new GetObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, "file1m"));
+        getResult.getObjectContent().close();
+        assertEquals(200, getResult.getStatusCode());
+
+        ConnectionPoolStats stats = oss.getConnectionPoolStats();
+        OSSLog.logDebug("[testConnectionPoolConfiguration] - " + stats);
+        assertTrue(stats.getOpenedConnectionCount() >= 1);
+        assertTrue(stats.getIdleConnectionCount() >= 1);
+        assertTrue(stats.getIdleConnectionCount() <= 3);
+        assertEquals(0, stats.getQueuedCallCount());
+    }
+
+    public void testSharedTransport() throws Exception {
+        OSSTransport transport = new OSSTransport(getContext(), new ClientConfiguration());
+        ClientConfiguration conf1 = new ClientConfiguration();
+        conf1.setTransport(transport);
+        ClientConfiguration conf2 = new ClientConfiguration();
+        conf2.setTransport(transport);
+        conf2.setSocketTimeout(30 * 1000);
+        OSS oss1 = new OSSClient(getContext(), OSSTestConfig.ENDPOINT, OSSTestConfig.credentialProvider, conf1);
+        OSS oss2 = new OSSClient(getContext(), OSSTestConfig.ENDPOINT, OSSTestConfig.credentialProvider, conf2);
+
+        HeadObjectResult result = oss1.headObject(new HeadObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, "file1m"));
+        assertEquals(200, result.getStatusCode());
+        long opened = oss1.getConnectionPoolStats().getOpenedConnectionCount();
+
+        // the second client reuses the connection opened by the first one
+        result = oss2.headObject(new HeadObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, "file1m"));
+        assertEquals(200, result.getStatusCode());
+        assertEquals(opened, oss2.getConnectionPoolStats().getOpenedConnectionCount());
+    }
+
+    public void testAlternativeEndpoints() throws Exception {
+        ClientConfiguration conf = new ClientConfiguration();
+        conf.setMaxErrorRetry(5);
+        conf.setHttpDnsEnable(false);
+        List<String> endpoints = new ArrayList<String>();
+        endpoints.add(OSSTestConfig.ENDPOINT);
+        conf.setAlternativeEndpoints(endpoints);
+        // the primary endpoint does not resolve, its circuit opens after the first failed attempts
+        oss = new OSSClient(getContext(), "http://oss-cn-unreachable.aliyuncs.com", OSSTestConfig.credentialProvider, conf);
+        Thread.sleep(2000); // waits for the probe of the alternative endpoint
+
+        HeadObjectResult result = oss.headObject(new HeadObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, "file1m"));
+        assertEquals(200, result.getStatusCode());
+
+        result = oss.headObject(new HeadObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, "file1m"));
+        assertEquals(200, result.getStatusCode());
+    }
+
+    public void testBucketEndpointDiscovery() throws Exception {
+        ClientConfiguration conf = new ClientConfiguration();
+        conf.setBucketEndpointCachePersistent(true);
+        // the test bucket is in beijing, the first request is redirected by the server
+        oss = new OSSClient(getContext(), "http://oss-cn-hangzhou.aliyuncs.com", OSSTestConfig.credentialProvider, conf);
+
+        GetObjectResult getResult = oss.getObject(new GetObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, "file1m"));
+        assertEquals(200, getResult.getStatusCode());
+        getResult.getObjectContent().close();
+
+        // the error of a HEAD request has no body, it goes to the discovered endpoint directly
+        HeadObjectResult result = oss.headObject(new HeadObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, "file1m"));
+        assertEquals(200, result.getStatusCode());
+
+        // a HEAD request is redirected too when it's the first request of the bucket
+        ClientConfiguration headConf = new ClientConfiguration();
+        OSS headOss = new OSSClient(getContext(), "http://oss-cn-hangzhou.aliyuncs.com", OSSTestConfig.credentialProvider, headConf);
+        result = headOss.headObject(new HeadObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, "file1m"));
+        assertEquals(200, result.getStatusCode());
+
+        conf.setBucketEndpointDiscoveryEnable(false);
+        oss = new OSSClient(getContext(), "http://oss-cn-hangzhou.aliyuncs.com", OSSTestConfig.credentialProvider, conf);
+        try {
+            oss.getObject(new GetObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, "file1m"));
+            fail("the request to another region should fail");
+        } catch (ServiceException e) {
+            assertEquals(OSSTestConfig.ENDPOINT.substring("http://".length()), e.getEndpoint());
+        }
+    }
+
+    public void testHedgedRequests() throws Exception {
+        ClientConfiguration conf = new ClientConfiguration();
+        conf.setHedgedRequestEnable(true);
+        conf.setHedgedRequestPercentile(50);
+        conf.setHedgedRequestBudget(10);
+        oss = new OSSClient(getContext(), OSSTestConfig.ENDPOINT, OSSTestConfig.credentialProvider, conf);
+        HedgingPolicy policy = oss.getHedgingPolicy();
+        assertNotNull(policy);
+
+        // half of the reads are slower than the median, some of them are hedged
+        int requestCount = 60;
+        for (int i = 0; i < requestCount; i++) {
+            HeadObjectResult result = oss.headObject(new HeadObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, "file1m"));
+            assertEquals(200, result.getStatusCode());
+        }
+        GetObjectResult getResult = oss.getObject(new GetObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, "file1m"));
+        assertEquals(200, getResult.getStatusCode());
+        assertEquals(1024 * 1000, getResult.getContentLength());
+        getResult.getObjectContent().close();
+        requestCount++;
+
+        OSSLog.logDebug("[testHedgedRequests] - hedged: " + policy.getHedgedCount() + ", won: " + policy.getHedgeWonCount());
+        assertTrue(policy.getHedgedCount() >= 1);
+        // the budget allows a burst of 10 hedges, then 10% of the requests
+        assertTrue(policy.getHedgedCount() <= 10 + requestCount * 10 / 100);
+        assertTrue(policy.getHedgeWonCount() <= policy.getHedgedCount());
+
+        ClientConfiguration plainConf = new ClientConfiguration();
+        assertNull(new OSSClient(getContext(), OSSTestConfig.ENDPOINT, OSSTestConfig.credentialProvider, plainConf)
+                .getHedgingPolicy());
+    }
+
+    public void testRequestCoalescing() throws Exception {
+        ClientConfiguration conf = new ClientConfiguration();
+        conf.setRequestCoalescingEnable(true);
+        oss = new OSSClient(getContext(), OSSTestConfig.ENDPOINT, OSSTestConfig.credentialProvider, conf);
+
+        List<OSSAsyncTask<GetObjectResult>> tasks = new ArrayList<OSSAsyncTask<GetObjectResult>>();
+        for (int i = 0; i < 5; i++) {
+            tasks.add(oss.asyncGetObject(new GetObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, "file1m"), null));
+        }
+        // a waiter dropping out, even the one which started the call, does not cancel the shared call
+        tasks.get(0).cancel();
+        for (int i = 1; i < tasks.size(); i++) {
+            GetObjectResult result = tasks.get(i).getResult();
+            assertEquals(200, result.getStatusCode());
+            assertEquals(1024 * 1000, IOUtils.readStreamAsBytesArray(result.getObjectContent()).length);
+        }
+
+        RequestCoalescer coalescer = oss.getRequestCoalescer();
+        assertNotNull(coalescer);
+        assertTrue(coalescer.getCoalescedCount() >= 1);
+        // the reads shared one call, or reused its connection once it completed
+        assertEquals(1, oss.getConnectionPoolStats().getOpenedConnectionCount());
+    }
+
+    public void testObjectCache() throws Exception {
+        ObjectCache cache = new ObjectCache(new File(getContext().getCacheDir(), "oss_object_cache_test"), 10 * 1024 * 1024);
+        cache.clear();
+        ClientConfiguration conf = new ClientConfiguration();
+        conf.setObjectCache(cache);
+        oss = new OSSClient(getContext(), OSSTestConfig.ENDPOINT, OSSTestConfig.credentialProvider, conf);
+
+        GetObjectResult result = oss.getObject(new GetObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, "file1m"));
+        byte[] downloaded = IOUtils.readStreamAsBytesArray(result.getObjectContent());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1024 * 1000, cache.getSize());
+
+        // revalidated, the body is read from the disk
+        result = oss.getObject(new GetObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, "file1m"));
+        assertEquals(200, result.getStatusCode());
+        assertNotNull(result.getMetadata().getETag());
+        byte[] cached = IOUtils.readStreamAsBytesArray(result.getObjectContent());
+        assertEquals(1, cache.getHitCount());
+        assertTrue(Arrays.equals(downloaded, cached));
+    }
+
+    public void testMetadataCache() throws Exception {
+        ClientConfiguration conf = new ClientConfiguration();
+        conf.setMetadataCacheSize(100);
+        oss = new OSSClient(getContext(), OSSTestConfig.ENDPOINT, OSSTestConfig.credentialProvider, conf);
+        String key = "metadata-cache-" + System.currentTimeMillis();
+
+        assertFalse(oss.doesObjectExist(OSSTestConfig.ANDROID_TEST_BUCKET, key));
+        // the absent object is cached too
+        assertFalse(oss.doesObjectExist(OSSTestConfig.ANDROID_TEST_BUCKET, key));
+
+        // the put invalidates the cached absence
+        oss.putObject(new PutObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, key, new byte[16]));
+        assertTrue(oss.doesObjectExist(OSSTestConfig.ANDROID_TEST_BUCKET, key));
+        HeadObjectResult result = oss.headObject(new HeadObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, key));
+        assertEquals(16, result.getMetadata().getContentLength());
+
+        oss.deleteObject(new DeleteObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, key));
+        assertFalse(oss.doesObjectExist(OSSTestConfig.ANDROID_TEST_BUCKET, key));
+    }
+
     public void testHttpDnsEnableFalse() throws Exception{
         ClientConfiguration conf = new ClientConfiguration();
         conf.setHttpDnsEnable(false);
@@ -6,17 +6,25 @@ import com.alibaba.sdk.android.oss.ClientException;
 import com.alibaba.sdk.android.oss.OSS;
 import com.alibaba.sdk.android.oss.OSSClient;
 import com.alibaba.sdk.android.oss.ServiceException;
+import com.alibaba.sdk.android.oss.callback.OSSProgressCallback;
 import com.alibaba.sdk.android.oss.common.OSSLog;
+import com.alibaba.sdk.android.oss.internal.BucketIndex;
 import com.alibaba.sdk.android.oss.internal.OSSAsyncTask;
 import com.alibaba.sdk.android.oss.model.CopyObjectRequest;
 import com.alibaba.sdk.android.oss.model.CopyObjectResult;
+import com.alibaba.sdk.android.oss.model.DeleteMultipleObjectResult;
+import com.alibaba.sdk.android.oss.model.DeletePrefixRequest;
+import com.alibaba.sdk.android.oss.model.DeletePrefixResult;
 import com.alibaba.sdk.android.oss.model.DeleteObjectRequest;
 import com.alibaba.sdk.android.oss.model.DeleteObjectResult;
 import com.alibaba.sdk.android.oss.model.HeadObjectRequest;
 import com.alibaba.sdk.android.oss.model.HeadObjectResult;
+import com.alibaba.sdk.android.oss.model.ListObjectsResult;
 import com.alibaba.sdk.android.oss.model.ObjectMetadata;
 import com.alibaba.sdk.android.oss.model.PutObjectRequest;
 import com.alibaba.sdk.android.oss.model.PutObjectResult;
+import com.alibaba.sdk.android.oss.model.SyncDirectoryRequest;
+import com.alibaba.sdk.android.oss.model.SyncDirectoryResult;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -26,6 +34,7 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Created by zhouzhuo on 11/25/15.
@@ -257,4 +266,124 @@ public class ManageObjectTest extends AndroidTestCase {
         assertFalse(oss.doesObjectExist(OSSTestConfig.ANDROID_TEST_BUCKET, "doesnotexist"));
     }
 
+    public void testDeleteObjects() throws Exception {
+        List<String> keys = new ArrayList<String>();
+        keys.add("batchdelete/a");
+        keys.add("batchdelete/b&<c>");
+        for (String key : keys) {
+            oss.putObject(new PutObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, key, new byte[10]));
+        }
+        keys.add("batchdelete/doesnotexist");
+
+        DeleteMultipleObjectResult result = oss.deleteObjects(OSSTestConfig.ANDROID_TEST_BUCKET, keys, false);
+        assertEquals(200, result.getStatusCode());
+        assertTrue(result.getDeletedObjects().contains("batchdelete/a"));
+        assertTrue(result.getDeletedObjects().contains("batchdelete/b&<c>"));
+        assertTrue(result.getFailedObjects().isEmpty());
+        assertFalse(oss.doesObjectExist(OSSTestConfig.ANDROID_TEST_BUCKET, "batchdelete/b&<c>"));
+
+        result = oss.deleteObjects(OSSTestConfig.ANDROID_TEST_BUCKET, keys, true);
+        assertTrue(result.getDeletedObjects().isEmpty());
+    }
+
+    public void testDeletePrefix() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            oss.putObject(new PutObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, "deleteprefix/" + i, new byte[10]));
+        }
+        final long[] progress = new long[1];
+        DeletePrefixRequest request = new DeletePrefixRequest(OSSTestConfig.ANDROID_TEST_BUCKET, "deleteprefix/");
+        request.setProgressCallback(new OSSProgressCallback<DeletePrefixRequest>() {
+            @Override
+            public void onProgress(DeletePrefixRequest request, long currentSize, long totalSize) {
+                progress[0] = currentSize;
+            }
+        });
+
+        DeletePrefixResult result = oss.deletePrefix(request);
+        assertEquals(3, result.getDeletedCount());
+        assertEquals(3, progress[0]);
+        assertFalse(oss.doesObjectExist(OSSTestConfig.ANDROID_TEST_BUCKET, "deleteprefix/0"));
+
+        result = oss.deletePrefix(request);
+        assertEquals(0, result.getDeletedCount());
+    }
+
+    public void testSyncDirectory() throws Exception {
+        File directory = new File(getContext().getFilesDir(), "test_sync_directory");
+        new File(directory, "dir").mkdirs();
+        FileOutputStream output = new FileOutputStream(new File(directory, "a"));
+        output.write(new byte[10]);
+        output.close();
+        output = new FileOutputStream(new File(directory, "dir/b"));
+        output.write(new byte[20]);
+        output.close();
+        oss.putObject(new PutObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, "syncdirectory/orphan", new byte[10]));
+
+        SyncDirectoryRequest request = new SyncDirectoryRequest(directory.getPath(),
+                OSSTestConfig.ANDROID_TEST_BUCKET, "syncdirectory/");
+        request.setDeleteOrphans(true);
+        SyncDirectoryResult result = oss.syncDirectory(request);
+        assertEquals(2, result.getUploadedObjects().size());
+        assertTrue(result.getFailedObjects().isEmpty());
+        assertEquals(1, result.getDeletedObjects().size());
+        assertTrue(oss.doesObjectExist(OSSTestConfig.ANDROID_TEST_BUCKET, "syncdirectory/dir/b"));
+
+        // nothing is uploaded for the unchanged files
+        result = oss.syncDirectory(request);
+        assertEquals(0, result.getUploadedObjects().size());
+        assertEquals(2, result.getUnchangedCount());
+    }
+
+    public void testBucketIndex() throws Exception {
+        File indexFile = new File(getContext().getFilesDir(), "test_bucket_index");
+        indexFile.delete();
+        oss.putObject(new PutObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, "bucketindex/a", new byte[10]));
+        oss.putObject(new PutObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, "bucketindex/dir/b", new byte[20]));
+
+        BucketIndex index = oss.openBucketIndex(OSSTestConfig.ANDROID_TEST_BUCKET, "bucketindex/", indexFile);
+        assertTrue(index.isStale("bucketindex/", 60 * 1000));
+        index.refreshDirectory("bucketindex/");
+        assertFalse(index.isStale("bucketindex/", 60 * 1000));
+        ListObjectsResult directory = index.listDirectory("bucketindex/");
+        assertEquals(1, directory.getObjectSummaries().size());
+        assertEquals(10, directory.getObjectSummaries().get(0).getSize());
+        assertEquals(1, directory.getCommonPrefixes().size());
+        assertEquals("bucketindex/dir/", directory.getCommonPrefixes().get(0));
+
+        // the writes of the client update the index
+        oss.putObject(new PutObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, "bucketindex/c", new byte[30]));
+        oss.deleteObject(new DeleteObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, "bucketindex/a"));
+        assertNull(index.getObject("bucketindex/a"));
+        assertEquals(30, index.getObject("bucketindex/c").getSize());
+        index.close();
+
+        index = oss.openBucketIndex(OSSTestConfig.ANDROID_TEST_BUCKET, "bucketindex/", indexFile);
+        assertEquals(30, index.getObject("bucketindex/c").getSize());
+        index.rebuild();
+        assertEquals(20, index.getObject("bucketindex/dir/b").getSize());
+        index.close();
+    }
+
+    public void testHeadObjects() throws Exception {
+        List<String> keys = new ArrayList<String>();
+        keys.add("file1m");
+        keys.add("doesnotexist");
+
+        Map<String, ObjectMetadata> metadata = oss.headObjects(OSSTestConfig.ANDROID_TEST_BUCKET, keys);
+        assertEquals(2, metadata.size());
+        assertEquals(1024 * 1000, metadata.get("file1m").getContentLength());
+        assertTrue(metadata.containsKey("doesnotexist"));
+        assertNull(metadata.get("doesnotexist"));
+
+        // enough keys to be resolved by listing
+        for (int i = 0; i < 200; i++) {
+            keys.add("file" + i + "doesnotexist");
+        }
+        metadata = oss.headObjects(OSSTestConfig.ANDROID_TEST_BUCKET, keys);
+        assertEquals(202, metadata.size());
+        assertEquals(1024 * 1000, metadata.get("file1m").getContentLength());
+        assertNotNull(metadata.get("file1m").getETag());
+        assertNull(metadata.get("file0doesnotexist"));
+    }
+
 }
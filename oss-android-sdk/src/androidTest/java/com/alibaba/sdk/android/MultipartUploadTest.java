@@ -10,26 +10,35 @@ import com.alibaba.sdk.android.oss.common.OSSLog;
 import com.alibaba.sdk.android.oss.common.auth.OSSCredentialProvider;
 import com.alibaba.sdk.android.oss.common.auth.OSSCustomSignerCredentialProvider;
 import com.alibaba.sdk.android.oss.common.utils.BinaryUtil;
+import com.alibaba.sdk.android.oss.common.utils.IOUtils;
 import com.alibaba.sdk.android.oss.internal.OSSAsyncTask;
 import com.alibaba.sdk.android.oss.model.AbortMultipartUploadRequest;
 import com.alibaba.sdk.android.oss.model.AbortMultipartUploadResult;
 import com.alibaba.sdk.android.oss.model.CompleteMultipartUploadRequest;
 import com.alibaba.sdk.android.oss.model.CompleteMultipartUploadResult;
+import com.alibaba.sdk.android.oss.model.DeleteObjectRequest;
+import com.alibaba.sdk.android.oss.model.DeltaUploadRequest;
+import com.alibaba.sdk.android.oss.model.DeltaUploadResult;
 import com.alibaba.sdk.android.oss.model.GetObjectRequest;
 import com.alibaba.sdk.android.oss.model.GetObjectResult;
 import com.alibaba.sdk.android.oss.model.InitiateMultipartUploadRequest;
 import com.alibaba.sdk.android.oss.model.InitiateMultipartUploadResult;
 import com.alibaba.sdk.android.oss.model.ListPartsRequest;
 import com.alibaba.sdk.android.oss.model.ListPartsResult;
+import com.alibaba.sdk.android.oss.model.MultipartCopyRequest;
 import com.alibaba.sdk.android.oss.model.MultipartUploadRequest;
 import com.alibaba.sdk.android.oss.model.ObjectMetadata;
 import com.alibaba.sdk.android.oss.model.PartETag;
 import com.alibaba.sdk.android.oss.model.PartSummary;
+import com.alibaba.sdk.android.oss.model.PutObjectRequest;
 import com.alibaba.sdk.android.oss.model.ResumableUploadRequest;
 import com.alibaba.sdk.android.oss.model.ResumableUploadResult;
 import com.alibaba.sdk.android.oss.model.UploadPartRequest;
 import com.alibaba.sdk.android.oss.model.UploadPartResult;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -560,4 +569,84 @@ public class MultipartUploadTest extends AndroidTestCase {
         assertEquals(200, result.getStatusCode());
         assertNotNull(result.getServerCallbackReturnBody());
     }
+
+    public void testDeltaUpload() throws Exception {
+        String objectKey = "deltaUpload10m";
+        DeltaUploadRequest rq = new DeltaUploadRequest(OSSTestConfig.ANDROID_TEST_BUCKET, objectKey,
+                OSSTestConfig.FILE_DIR + "/file10m", getContext().getFilesDir().getPath());
+        rq.setPartSize(1024 * 1024);
+        oss.deleteObject(new DeleteObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, objectKey));
+
+        DeltaUploadResult result = oss.deltaUpload(rq);
+        assertEquals(200, result.getStatusCode());
+        assertEquals(0, result.getCopiedLength());
+
+        // the unchanged file is copied in the server
+        result = oss.deltaUpload(rq);
+        assertEquals(200, result.getStatusCode());
+        assertEquals(0, result.getUploadedLength());
+        assertEquals(new File(OSSTestConfig.FILE_DIR + "/file10m").length(), result.getCopiedLength());
+
+        OSSTestConfig.checkFileMd5(oss, objectKey, OSSTestConfig.FILE_DIR + "/file10m");
+
+        // only the changed part is sent, the others are copied
+        int partSize = 1024 * 1024;
+        File changedFile = new File(getContext().getFilesDir(), "deltaUpload10m");
+        FileInputStream input = new FileInputStream(OSSTestConfig.FILE_DIR + "/file10m");
+        byte[] content = IOUtils.readStreamAsBytesArray(input);
+        input.close();
+        FileOutputStream output = new FileOutputStream(changedFile);
+        output.write(content);
+        output.close();
+        rq = new DeltaUploadRequest(OSSTestConfig.ANDROID_TEST_BUCKET, objectKey, changedFile.getPath(),
+                getContext().getFilesDir().getPath());
+        rq.setPartSize(partSize);
+        result = oss.deltaUpload(rq);
+        assertEquals(content.length, result.getUploadedLength());
+
+        for (int i = 3 * partSize + 100; i < 3 * partSize + 200; i++) {
+            content[i] = (byte) ~content[i];
+        }
+        output = new FileOutputStream(changedFile);
+        output.write(content);
+        output.close();
+        result = oss.deltaUpload(rq);
+        assertEquals(200, result.getStatusCode());
+        assertEquals(partSize, result.getUploadedLength());
+        assertEquals(content.length - partSize, result.getCopiedLength());
+        OSSTestConfig.checkFileMd5(oss, objectKey, changedFile.getPath());
+
+        // nothing is copied from an object overwritten since the last upload
+        oss.putObject(new PutObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, objectKey, changedFile.getPath()));
+        result = oss.deltaUpload(rq);
+        assertEquals(200, result.getStatusCode());
+        assertEquals(0, result.getCopiedLength());
+        assertEquals(content.length, result.getUploadedLength());
+        OSSTestConfig.checkFileMd5(oss, objectKey, changedFile.getPath());
+        changedFile.delete();
+    }
+
+    public void testMultipartCopy() throws Exception {
+        MultipartUploadRequest upload = new MultipartUploadRequest(OSSTestConfig.ANDROID_TEST_BUCKET, MULTIPART_OBJECTKEY_10M,
+                OSSTestConfig.FILE_DIR + "/file10m");
+        oss.multipartUpload(upload);
+
+        MultipartCopyRequest rq = new MultipartCopyRequest(OSSTestConfig.ANDROID_TEST_BUCKET, MULTIPART_OBJECTKEY_10M,
+                OSSTestConfig.ANDROID_TEST_BUCKET, "multipartCopy10m");
+        rq.setPartSize(1024 * 1024);
+        final long[] progress = new long[1];
+        rq.setProgressCallback(new OSSProgressCallback<MultipartCopyRequest>() {
+            @Override
+            public void onProgress(MultipartCopyRequest request, long currentSize, long totalSize) {
+                progress[0] = currentSize;
+            }
+        });
+
+        CompleteMultipartUploadResult result = oss.multipartCopy(rq);
+        assertNotNull(result);
+        assertEquals(200, result.getStatusCode());
+        assertEquals(new File(OSSTestConfig.FILE_DIR + "/file10m").length(), progress[0]);
+
+        OSSTestConfig.checkFileMd5(oss, "multipartCopy10m", OSSTestConfig.FILE_DIR + "/file10m");
+    }
 }
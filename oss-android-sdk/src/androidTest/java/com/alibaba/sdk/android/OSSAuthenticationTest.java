@@ -2,6 +2,7 @@ package com.alibaba.sdk.android;
 
 import android.test.AndroidTestCase;
 
+import com.alibaba.sdk.android.oss.ClientConfiguration;
 import com.alibaba.sdk.android.oss.ClientException;
 import com.alibaba.sdk.android.oss.OSS;
 import com.alibaba.sdk.android.oss.OSSClient;
@@ -14,6 +15,8 @@ import com.alibaba.sdk.android.oss.common.auth.OSSCredentialProvider;
 import com.alibaba.sdk.android.oss.common.auth.OSSCustomSignerCredentialProvider;
 import com.alibaba.sdk.android.oss.common.auth.OSSFederationCredentialProvider;
 import com.alibaba.sdk.android.oss.common.auth.OSSFederationToken;
+import com.alibaba.sdk.android.oss.common.auth.OSSFederationTokenCipher;
+import com.alibaba.sdk.android.oss.common.auth.OSSFileFederationTokenStore;
 import com.alibaba.sdk.android.oss.common.auth.OSSPlainTextAKSKCredentialProvider;
 import com.alibaba.sdk.android.oss.common.utils.DateUtil;
 import com.alibaba.sdk.android.oss.common.utils.IOUtils;
@@ -30,13 +33,20 @@ import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Created by LK on 15/12/2.
@@ -148,6 +158,28 @@ public class OSSAuthenticationTest extends AndroidTestCase {
         assertEquals(1024 * 1000, resp.body().contentLength());
     }
 
+    public void testBatchPresignObjectURLs() throws Exception {
+        ClientConfiguration conf = new ClientConfiguration();
+        conf.setPresignedUrlCacheSize(100);
+        OSS cachedOss = new OSSClient(getContext(), OSSTestConfig.ENDPOINT, OSSTestConfig.credentialProvider, conf);
+
+        List<String> keys = new ArrayList<String>();
+        keys.add("file1m");
+        keys.add("file1m");
+        keys.add("shilan.jpg");
+        List<String> urls = cachedOss.presignConstrainedObjectURLs(OSSTestConfig.ANDROID_TEST_BUCKET, keys, 15 * 60);
+        assertEquals(3, urls.size());
+        assertEquals(urls.get(0), urls.get(1));
+        assertFalse(urls.get(0).equals(urls.get(2)));
+
+        Thread.sleep(1500);
+        assertEquals(urls.get(0), cachedOss.presignConstrainedObjectURL(OSSTestConfig.ANDROID_TEST_BUCKET, "file1m", 15 * 60));
+
+        Request request = new Request.Builder().url(urls.get(0)).build();
+        Response resp = new OkHttpClient().newCall(request).execute();
+        assertEquals(200, resp.code());
+    }
+
     public void testPresignObjectURLWithProcess() throws Exception {
         GeneratePresignedUrlRequest signrequest = new GeneratePresignedUrlRequest(OSSTestConfig.ANDROID_TEST_BUCKET, "shilan.jpg", 15 * 60);
         signrequest.setExpiration(15 * 60);
@@ -332,6 +364,118 @@ public class OSSAuthenticationTest extends AndroidTestCase {
         assertEquals(true,firstTime < federationCredentialProvider.getCachedToken().getExpiration());
     }
 
+    public void testFederationTokenConcurrentRefresh() throws Exception {
+        final AtomicInteger fetchCount = new AtomicInteger(0);
+        final OSSFederationCredentialProvider federationCredentialProvider = new OSSFederationCredentialProvider() {
+            @Override
+            public OSSFederationToken getFederationToken() {
+                fetchCount.incrementAndGet();
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+                return new OSSFederationToken("ak", "sk", "token", DateUtil.getFixedSkewedTimeMillis() / 1000 + 3600);
+            }
+        };
+        final CountDownLatch latch = new CountDownLatch(10);
+        // the failures of the worker threads, asserted on the test thread
+        final List<String> failures = Collections.synchronizedList(new ArrayList<String>());
+        for (int i = 0; i < 10; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (federationCredentialProvider.getValidFederationToken() == null) {
+                            failures.add("no token");
+                        }
+                    } catch (ClientException e) {
+                        failures.add(e.toString());
+                    }
+                    latch.countDown();
+                }
+            }).start();
+        }
+        latch.await();
+        assertEquals(new ArrayList<String>(), new ArrayList<String>(failures));
+        assertEquals(1, fetchCount.get());
+
+        // a valid token is served from the cache without fetching again
+        assertNotNull(federationCredentialProvider.getValidFederationToken());
+        assertEquals(1, fetchCount.get());
+    }
+
+    public void testFederationTokenRefreshBackoff() throws Exception {
+        final AtomicInteger fetchCount = new AtomicInteger(0);
+        final OSSFederationCredentialProvider federationCredentialProvider = new OSSFederationCredentialProvider() {
+            @Override
+            public OSSFederationToken getFederationToken() throws ClientException {
+                if (fetchCount.incrementAndGet() == 1) {
+                    // expires within the refresh-ahead window
+                    return new OSSFederationToken("ak", "sk", "token", DateUtil.getFixedSkewedTimeMillis() / 1000 + 400);
+                }
+                throw new ClientException("auth server unavailable");
+            }
+        };
+        assertNotNull(federationCredentialProvider.getValidFederationToken());
+        assertNotNull(federationCredentialProvider.getValidFederationToken());
+        Thread.sleep(500);
+        assertEquals(2, fetchCount.get());
+
+        // the failed refresh-ahead is not retried by every following call
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(federationCredentialProvider.getValidFederationToken());
+        }
+        Thread.sleep(500);
+        assertEquals(2, fetchCount.get());
+    }
+
+    public void testFederationTokenStore() throws Exception {
+        File tokenFile = new File(getContext().getFilesDir(), "oss_test_sts_token");
+        tokenFile.delete();
+        OSSFederationTokenCipher cipher = new OSSFederationTokenCipher() {
+            @Override
+            public byte[] encrypt(byte[] data) {
+                byte[] result = new byte[data.length];
+                for (int i = 0; i < data.length; i++) {
+                    result[i] = (byte) (data[i] ^ 0x5a);
+                }
+                return result;
+            }
+
+            @Override
+            public byte[] decrypt(byte[] data) {
+                return encrypt(data);
+            }
+        };
+        OSSFileFederationTokenStore store = new OSSFileFederationTokenStore(tokenFile, cipher);
+        assertNull(store.load());
+
+        long expiration = DateUtil.getFixedSkewedTimeMillis() / 1000 + 3600;
+        store.save(new OSSFederationToken("ak", "sk", "token", expiration));
+        assertFalse(IOUtils.readStreamAsString(new FileInputStream(tokenFile), OSSConstants.DEFAULT_CHARSET_NAME).contains("token"));
+
+        final AtomicInteger fetchCount = new AtomicInteger(0);
+        OSSFederationCredentialProvider federationCredentialProvider = new OSSFederationCredentialProvider() {
+            @Override
+            public OSSFederationToken getFederationToken() {
+                fetchCount.incrementAndGet();
+                return null;
+            }
+        };
+        federationCredentialProvider.setTokenStore(new OSSFileFederationTokenStore(tokenFile, cipher));
+        federationCredentialProvider.prepareFederationToken();
+        OSSFederationToken token = federationCredentialProvider.getValidFederationToken();
+        assertEquals("ak", token.getTempAK());
+        assertEquals("sk", token.getTempSK());
+        assertEquals("token", token.getSecurityToken());
+        assertEquals(expiration, token.getExpiration());
+        assertEquals(0, fetchCount.get());
+
+        store.clear();
+        assertNull(store.load());
+    }
+
     public void testOSSAuthCredentialsProvider() throws Exception {
         GetObjectRequest get = new GetObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, "file1m");
         oss = new OSSClient(getContext(), OSSTestConfig.ENDPOINT, OSSTestConfig.authCredentialProvider);
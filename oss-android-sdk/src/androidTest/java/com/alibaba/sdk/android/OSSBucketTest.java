@@ -4,7 +4,9 @@ import android.test.AndroidTestCase;
 import com.alibaba.sdk.android.oss.OSS;
 import com.alibaba.sdk.android.oss.OSSClient;
 import com.alibaba.sdk.android.oss.common.OSSLog;
+import com.alibaba.sdk.android.oss.internal.ListObjectsIterator;
 import com.alibaba.sdk.android.oss.internal.OSSAsyncTask;
+import com.alibaba.sdk.android.oss.internal.ParallelListObjectsIterator;
 import com.alibaba.sdk.android.oss.model.CannedAccessControlList;
 import com.alibaba.sdk.android.oss.model.CreateBucketResult;
 import com.alibaba.sdk.android.oss.model.DeleteBucketRequest;
@@ -14,8 +16,13 @@ import com.alibaba.sdk.android.oss.model.GetBucketACLResult;
 import com.alibaba.sdk.android.oss.model.ListObjectsRequest;
 import com.alibaba.sdk.android.oss.model.ListObjectsResult;
 import com.alibaba.sdk.android.oss.model.CreateBucketRequest;
+import com.alibaba.sdk.android.oss.model.OSSObjectSummary;
 import com.alibaba.sdk.android.oss.model.Owner;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Created by zhouzhuo on 11/24/15.
  */
@@ -213,6 +220,48 @@ public class OSSBucketTest extends AndroidTestCase {
         assertEquals(2, result.getObjectSummaries().size());
     }
 
+    public void testListObjectsIterator() throws Exception {
+        ListObjectsRequest listObjects = new ListObjectsRequest(OSSTestConfig.FOR_LISTOBJECT_BUCKET);
+        listObjects.setMaxKeys(3);
+
+        ListObjectsIterator iterator = oss.listObjectsIterator(listObjects, 2);
+        int pageCount = 0;
+        int objectCount = 0;
+        while (iterator.hasNext()) {
+            ListObjectsResult page = iterator.next();
+            pageCount++;
+            objectCount += page.getObjectSummaries().size();
+        }
+        assertEquals(3, pageCount);
+        assertEquals(8, objectCount);
+
+        iterator = oss.listObjectsIterator(listObjects, 2);
+        assertTrue(iterator.hasNext());
+        iterator.cancel();
+        assertFalse(iterator.hasNext());
+    }
+
+    public void testListObjectsInParallel() throws Exception {
+        ParallelListObjectsIterator iterator = oss.listObjectsInParallel(OSSTestConfig.FOR_LISTOBJECT_BUCKET, null, 4, true);
+        List<String> keys = new ArrayList<String>();
+        while (iterator.hasNext()) {
+            for (OSSObjectSummary summary : iterator.next()) {
+                keys.add(summary.getKey());
+            }
+        }
+        assertEquals(8, keys.size());
+        List<String> sortedKeys = new ArrayList<String>(keys);
+        Collections.sort(sortedKeys);
+        assertEquals(sortedKeys, keys);
+
+        iterator = oss.listObjectsInParallel(OSSTestConfig.FOR_LISTOBJECT_BUCKET, "folder", 4, false);
+        int count = 0;
+        while (iterator.hasNext()) {
+            count += iterator.next().size();
+        }
+        assertTrue(count > 0);
+    }
+
     public void testAsyncListObjectsWithInvalidBucket() throws Exception {
         ListObjectsRequest listObjects = new ListObjectsRequest();
         listObjects.setBucketName("#bucketName");
@@ -5,6 +5,7 @@ import android.test.AndroidTestCase;
 import android.text.TextUtils;
 
 import com.alibaba.sdk.android.oss.common.LogThreadPoolManager;
+import com.alibaba.sdk.android.oss.common.OSSHeaders;
 import com.alibaba.sdk.android.oss.common.OSSLog;
 import com.alibaba.sdk.android.oss.common.utils.BinaryUtil;
 import com.alibaba.sdk.android.oss.common.utils.DateUtil;
@@ -12,12 +13,24 @@ import com.alibaba.sdk.android.oss.common.utils.HttpUtil;
 import com.alibaba.sdk.android.oss.common.utils.IOUtils;
 import com.alibaba.sdk.android.oss.common.utils.OSSUtils;
 import com.alibaba.sdk.android.oss.common.utils.VersionInfoUtils;
+import com.alibaba.sdk.android.oss.internal.ResponseParsers;
+import com.alibaba.sdk.android.oss.model.HeadObjectResult;
+import com.alibaba.sdk.android.oss.model.UploadPartCopyRequest;
 
 import java.io.File;
+import java.io.IOException;
 import java.text.ParseException;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
 /**
  * Created by jingdan on 2017/8/25.
  */
@@ -144,6 +157,12 @@ public class OSSUtilsTest extends AndroidTestCase {
         assertTrue(test == null);
     }
 
+    public void testUrlDecode() {
+        assertNull(HttpUtil.urlDecode(null, "utf-8"));
+        String key = "dir/a b+c*~\u4e2d.txt";
+        assertEquals(key, HttpUtil.urlDecode(HttpUtil.urlEncode(key, "utf-8"), "utf-8"));
+    }
+
     public void testBinaryUtil() throws Exception{
         byte[] testdatas = BinaryUtil.fromBase64String("testdata");
         assertTrue(testdatas.length>0);
@@ -182,4 +201,59 @@ public class OSSUtilsTest extends AndroidTestCase {
             assertTrue(false);
         }
     }
+
+    public void testParseHeadObjectResponse() throws Exception {
+        Response response = new Response.Builder()
+                .request(new Request.Builder().url("http://bucket.oss-cn-hangzhou.aliyuncs.com/key").head().build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .header("x-oss-request-id", "request-id")
+                .header("ETag", "\"etag\"")
+                .header("Content-Length", "1024")
+                .header("Last-Modified", "Fri, 24 Feb 2012 06:07:48 GMT")
+                .header("x-oss-meta-name", "value")
+                .body(ResponseBody.create(MediaType.parse("text/plain"), new byte[0]))
+                .build();
+
+        HeadObjectResult result = new ResponseParsers.HeadObjectResponseParser().parse(response);
+        assertEquals("request-id", result.getRequestId());
+        assertEquals(200, result.getStatusCode());
+        assertEquals(1024, result.getMetadata().getContentLength());
+        assertEquals("etag", result.getMetadata().getETag());
+        assertEquals(DateUtil.parseRfc822Date("Fri, 24 Feb 2012 06:07:48 GMT"), result.getMetadata().getLastModified());
+        assertEquals("value", result.getMetadata().getUserMetadata().get("x-oss-meta-name"));
+
+        // the header names stay case-insensitive after the map is copied
+        assertEquals("\"etag\"", result.getResponseHeader().get("etag"));
+        assertEquals(5, result.getResponseHeader().size());
+        assertEquals("\"etag\"", result.getResponseHeader().get("etag"));
+    }
+
+    public void testParseMalformedObjectMetadata() throws Exception {
+        Response response = new Response.Builder()
+                .request(new Request.Builder().url("http://bucket.oss-cn-hangzhou.aliyuncs.com/key").head().build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .header("Last-Modified", "not a date")
+                .body(ResponseBody.create(MediaType.parse("text/plain"), new byte[0]))
+                .build();
+
+        try {
+            new ResponseParsers.HeadObjectResponseParser().parse(response);
+            fail("the malformed date should fail the parsing");
+        } catch (IOException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    public void testPopulateUploadPartCopyHeaders() {
+        // the ETag is quoted once, whether the caller quoted it or not
+        for (String eTag : new String[]{"etag", "\"etag\""}) {
+            UploadPartCopyRequest request = new UploadPartCopyRequest("bucket", "key", "bucket", "source", "uploadId", 1);
+            request.setMatchingETag(eTag);
+            Map<String, String> headers = new HashMap<String, String>();
+            OSSUtils.populateUploadPartCopyHeaders(request, headers);
+            assertEquals("\"etag\"", headers.get(OSSHeaders.COPY_OBJECT_SOURCE_IF_MATCH));
+        }
+    }
 }
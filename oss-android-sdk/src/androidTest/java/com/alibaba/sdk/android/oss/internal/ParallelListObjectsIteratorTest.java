@@ -0,0 +1,96 @@
+package com.alibaba.sdk.android.oss.internal;
+
+import android.test.AndroidTestCase;
+
+import com.alibaba.sdk.android.OSSTestConfig;
+import com.alibaba.sdk.android.oss.ClientConfiguration;
+import com.alibaba.sdk.android.oss.model.DeleteObjectRequest;
+import com.alibaba.sdk.android.oss.model.ListObjectsRequest;
+import com.alibaba.sdk.android.oss.model.ListObjectsResult;
+import com.alibaba.sdk.android.oss.model.OSSObjectSummary;
+import com.alibaba.sdk.android.oss.model.PutObjectRequest;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lists with a small page size, so the shards are split down to several levels.
+ */
+public class ParallelListObjectsIteratorTest extends AndroidTestCase {
+
+    private static final String PREFIX = "parallel-list/";
+    private static final int MAX_KEYS = 2;
+
+    // the root and "d0/" are split by the delimiter, and so is "d0/e/" below them,
+    // "d0-file" and "d00" sort around the common prefix "d0/" in the merge
+    private static final String[] KEYS = {
+            "a0", "a1", "a2",
+            "d0-file", "d0/x0", "d0/x1", "d0/x2", "d0/e/y0", "d0/e/y1", "d0/e/y2", "d00",
+            "d1/z0", "d1/z1", "d1/z2"
+    };
+
+    private InternalRequestOperation operation;
+
+    @Override
+    public void setUp() throws Exception {
+        OSSTestConfig.instance(getContext());
+        operation = new InternalRequestOperation(getContext(), new URI(OSSTestConfig.ENDPOINT),
+                OSSTestConfig.credentialProvider, new ClientConfiguration());
+        for (String key : KEYS) {
+            operation.putObject(new PutObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, PREFIX + key,
+                    key.getBytes()), null).getResult();
+        }
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        for (String key : KEYS) {
+            operation.deleteObject(new DeleteObjectRequest(OSSTestConfig.ANDROID_TEST_BUCKET, PREFIX + key), null)
+                    .getResult();
+        }
+    }
+
+    public void testOrderedListing() throws Exception {
+        ParallelListObjectsIterator iterator = new ParallelListObjectsIterator(operation,
+                OSSTestConfig.ANDROID_TEST_BUCKET, PREFIX, MAX_KEYS, 2, true);
+        assertEquals(listSerially(), readKeys(iterator));
+    }
+
+    public void testUnorderedListing() throws Exception {
+        ParallelListObjectsIterator iterator = new ParallelListObjectsIterator(operation,
+                OSSTestConfig.ANDROID_TEST_BUCKET, PREFIX, MAX_KEYS, 2, false);
+        List<String> keys = readKeys(iterator);
+        Collections.sort(keys, ObjectKeyComparator.INSTANCE);
+        assertEquals(listSerially(), keys);
+    }
+
+    private List<String> readKeys(ParallelListObjectsIterator iterator) throws Exception {
+        List<String> keys = new ArrayList<String>();
+        while (iterator.hasNext()) {
+            List<OSSObjectSummary> page = iterator.next();
+            assertTrue(page.size() >= 1 && page.size() <= MAX_KEYS);
+            for (OSSObjectSummary summary : page) {
+                keys.add(summary.getKey());
+            }
+        }
+        return keys;
+    }
+
+    private List<String> listSerially() throws Exception {
+        List<String> keys = new ArrayList<String>();
+        String marker = null;
+        ListObjectsResult result;
+        do {
+            result = operation.listObjects(new ListObjectsRequest(OSSTestConfig.ANDROID_TEST_BUCKET, PREFIX, marker,
+                    null, MAX_KEYS), null).getResult();
+            for (OSSObjectSummary summary : result.getObjectSummaries()) {
+                keys.add(summary.getKey());
+            }
+            marker = result.getNextMarker();
+        } while (result.isTruncated());
+        assertEquals(KEYS.length, keys.size());
+        return keys;
+    }
+}
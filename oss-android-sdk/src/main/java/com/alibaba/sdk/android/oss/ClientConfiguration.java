@@ -7,6 +7,12 @@
 
 package com.alibaba.sdk.android.oss;
 
+import android.net.SSLSessionCache;
+
+import com.alibaba.sdk.android.oss.network.ObjectCache;
+
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -17,16 +23,35 @@ import java.util.List;
 public class ClientConfiguration {
 
     private static final int DEFAULT_MAX_RETRIES = 2;
+    private OSSTransport transport;
     private int maxConcurrentRequest = 5;
+    private int maxConcurrentRequestPerHost = 0;
+    private int maxIdleConnections = 5;
+    private long keepAliveDuration = 5 * 60 * 1000;
     private int socketTimeout = 15 * 1000;
     private int connectionTimeout = 15 * 1000;
     private long max_log_size = 5 * 1024 * 1024;
     private int maxErrorRetry = DEFAULT_MAX_RETRIES;
     private List<String> customCnameExcludeList = new ArrayList<String>();
+    private List<URI> alternativeEndpoints = new ArrayList<URI>();
     private String proxyHost;
     private int proxyPort;
     private String mUserAgentMark;
     private boolean httpDnsEnable = true;
+    private String httpDnsServer;
+    private boolean httpDnsCachePersistent = false;
+    private boolean bucketEndpointDiscoveryEnable = true;
+    private boolean bucketEndpointCachePersistent = false;
+    private boolean hedgedRequestEnable = false;
+    private int hedgedRequestPercentile = 95;
+    private int hedgedRequestBudget = 10;
+    private boolean requestCoalescingEnable = false;
+    private ObjectCache objectCache;
+    private int metadataCacheSize = 0;
+    private long metadataCacheTTL = 60 * 1000;
+    private List<String> preResolveBuckets = new ArrayList<String>();
+    private SSLSessionCache sslSessionCache;
+    private int presignedUrlCacheSize = 0;
 
     /**
      * Constructor
@@ -41,6 +66,20 @@ public class ClientConfiguration {
         return new ClientConfiguration();
     }
 
+    public OSSTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Sets the transport shared with other clients. With a transport, the connection pool, concurrency and HttpDNS
+     * settings of this configuration are ignored, and those of the transport apply.
+     * By default it's null and the client has its own connection pool.
+     * @param transport
+     */
+    public void setTransport(OSSTransport transport) {
+        this.transport = transport;
+    }
+
     /**
      * Gets the max concurrent request count
      * @return
@@ -58,6 +97,56 @@ public class ClientConfiguration {
         this.maxConcurrentRequest = maxConcurrentRequest;
     }
 
+    /**
+     * Gets the max concurrent request count to the same host
+     * @return
+     */
+    public int getMaxConcurrentRequestPerHost() {
+        return maxConcurrentRequestPerHost > 0 ? maxConcurrentRequestPerHost : maxConcurrentRequest;
+    }
+
+    /**
+     * Sets the max concurrent request count to the same host. By default it's the max concurrent request count,
+     * as the requests usually go to a single bucket host.
+     * @param maxConcurrentRequestPerHost
+     *          The max HTTP request count to one host
+     */
+    public void setMaxConcurrentRequestPerHost(int maxConcurrentRequestPerHost) {
+        this.maxConcurrentRequestPerHost = maxConcurrentRequestPerHost;
+    }
+
+    /**
+     * Gets the max idle connection count kept in the connection pool
+     * @return
+     */
+    public int getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+
+    /**
+     * Sets the max idle connection count kept in the connection pool. By default it's 5.
+     * @param maxIdleConnections
+     */
+    public void setMaxIdleConnections(int maxIdleConnections) {
+        this.maxIdleConnections = maxIdleConnections;
+    }
+
+    /**
+     * Gets how long an idle connection is kept in the pool, in milliseconds
+     * @return
+     */
+    public long getKeepAliveDuration() {
+        return keepAliveDuration;
+    }
+
+    /**
+     * Sets how long an idle connection is kept in the pool, in milliseconds. By default it's 5 minutes.
+     * @param keepAliveDuration
+     */
+    public void setKeepAliveDuration(long keepAliveDuration) {
+        this.keepAliveDuration = keepAliveDuration;
+    }
+
     /**
      * Gets the socket timeout in milliseconds
      * 0 means infinite (not recommended)
@@ -150,6 +239,34 @@ public class ClientConfiguration {
         return Collections.unmodifiableList(this.customCnameExcludeList);
     }
 
+    /**
+     * Sets the endpoints equivalent to the client's endpoint, e.g. the accelerate endpoint or the other
+     * network of the same region. The requests are routed to the healthiest of them by the observed latency and
+     * error rate, and an endpoint failing continuously is skipped until it recovers.
+     * @param alternativeEndpoints endpoints like 'http://oss-accelerate.aliyuncs.com'
+     */
+    public void setAlternativeEndpoints(List<String> alternativeEndpoints) {
+        this.alternativeEndpoints.clear();
+        if (alternativeEndpoints == null) {
+            return;
+        }
+        for (String endpoint : alternativeEndpoints) {
+            endpoint = endpoint.trim();
+            if (!endpoint.startsWith("http")) {
+                endpoint = "http://" + endpoint;
+            }
+            try {
+                this.alternativeEndpoints.add(new URI(endpoint));
+            } catch (URISyntaxException e) {
+                throw new IllegalArgumentException("Endpoint must be a string like 'http://oss-cn-****.aliyuncs.com'!");
+            }
+        }
+    }
+
+    public List<URI> getAlternativeEndpoints() {
+        return Collections.unmodifiableList(this.alternativeEndpoints);
+    }
+
     public String getProxyHost() {
         return proxyHost;
     }
@@ -181,4 +298,196 @@ public class ClientConfiguration {
     public void setHttpDnsEnable(boolean httpdnsEnable) {
         this.httpDnsEnable = httpdnsEnable;
     }
+
+    public String getHttpDnsServer() {
+        return httpDnsServer;
+    }
+
+    /**
+     * Sets the HttpDNS server address as host[:port]. By default it's the Aliyun HttpDNS server.
+     * @param httpDnsServer
+     *          The HttpDNS server address
+     */
+    public void setHttpDnsServer(String httpDnsServer) {
+        this.httpDnsServer = httpDnsServer;
+    }
+
+    public boolean isHttpDnsCachePersistent() {
+        return httpDnsCachePersistent;
+    }
+
+    /**
+     * Sets whether the HttpDNS results are kept on disk with their ttl, so they are usable right after the app
+     * restarts. By default it's false.
+     * @param httpDnsCachePersistent
+     */
+    public void setHttpDnsCachePersistent(boolean httpDnsCachePersistent) {
+        this.httpDnsCachePersistent = httpDnsCachePersistent;
+    }
+
+    public boolean isBucketEndpointDiscoveryEnable() {
+        return bucketEndpointDiscoveryEnable;
+    }
+
+    /**
+     * Sets whether a request to a bucket of another region follows the endpoint in the redirect error of
+     * the server, and the later requests to the bucket go to that endpoint directly. By default it's true.
+     * It does not apply to the cname endpoints.
+     * @param bucketEndpointDiscoveryEnable
+     */
+    public void setBucketEndpointDiscoveryEnable(boolean bucketEndpointDiscoveryEnable) {
+        this.bucketEndpointDiscoveryEnable = bucketEndpointDiscoveryEnable;
+    }
+
+    public boolean isBucketEndpointCachePersistent() {
+        return bucketEndpointCachePersistent;
+    }
+
+    /**
+     * Sets whether the discovered endpoints of the buckets are kept on disk, so the requests after the app
+     * restarts skip the redirect. By default it's false.
+     * @param bucketEndpointCachePersistent
+     */
+    public void setBucketEndpointCachePersistent(boolean bucketEndpointCachePersistent) {
+        this.bucketEndpointCachePersistent = bucketEndpointCachePersistent;
+    }
+
+    public boolean isHedgedRequestEnable() {
+        return hedgedRequestEnable;
+    }
+
+    /**
+     * Sets whether the object reads (getObject, headObject) without a response after a while are sent again on
+     * another connection, the first response wins. It cuts the tail latency of the small reads caused by
+     * stalled connections, at the cost of some extra requests. By default it's false.
+     * @param hedgedRequestEnable
+     */
+    public void setHedgedRequestEnable(boolean hedgedRequestEnable) {
+        this.hedgedRequestEnable = hedgedRequestEnable;
+    }
+
+    public int getHedgedRequestPercentile() {
+        return hedgedRequestPercentile;
+    }
+
+    /**
+     * Sets the percentile of the recent read latencies after which a read is hedged. By default it's 95.
+     * @param hedgedRequestPercentile
+     *          percentile in (0, 100)
+     */
+    public void setHedgedRequestPercentile(int hedgedRequestPercentile) {
+        this.hedgedRequestPercentile = hedgedRequestPercentile;
+    }
+
+    public int getHedgedRequestBudget() {
+        return hedgedRequestBudget;
+    }
+
+    /**
+     * Sets the max percentage of the reads which are hedged. By default it's 10.
+     * @param hedgedRequestBudget
+     *          percentage of the reads
+     */
+    public void setHedgedRequestBudget(int hedgedRequestBudget) {
+        this.hedgedRequestBudget = hedgedRequestBudget;
+    }
+
+    public boolean isRequestCoalescingEnable() {
+        return requestCoalescingEnable;
+    }
+
+    /**
+     * Sets whether the identical object reads (getObject, headObject) in flight at the same time share one
+     * network call, e.g. several views loading the same thumbnail. The reads with a progress callback are not
+     * shared. By default it's false.
+     * @param requestCoalescingEnable
+     */
+    public void setRequestCoalescingEnable(boolean requestCoalescingEnable) {
+        this.requestCoalescingEnable = requestCoalescingEnable;
+    }
+
+    public ObjectCache getObjectCache() {
+        return objectCache;
+    }
+
+    /**
+     * Sets the disk cache of the downloaded objects, e.g. new ObjectCache(new File(context.getCacheDir(),
+     * "oss_object_cache"), 50 * 1024 * 1024). A cached object is revalidated with the server on every getObject,
+     * and its body is read from the disk when it's not modified. By default it's null and nothing is cached.
+     * @param objectCache
+     */
+    public void setObjectCache(ObjectCache objectCache) {
+        this.objectCache = objectCache;
+    }
+
+    public int getMetadataCacheSize() {
+        return metadataCacheSize;
+    }
+
+    /**
+     * Sets how many headObject results are cached in memory, including the absent objects, so that
+     * headObject and doesObjectExist on the same objects skip the network. The writes of this client to
+     * an object invalidate its cached result. By default it's 0, which means no cache.
+     * @param metadataCacheSize
+     *          The max count of cached objects
+     */
+    public void setMetadataCacheSize(int metadataCacheSize) {
+        this.metadataCacheSize = metadataCacheSize;
+    }
+
+    public long getMetadataCacheTTL() {
+        return metadataCacheTTL;
+    }
+
+    /**
+     * Sets how long a headObject result is cached, in milliseconds. By default it's 1 minute.
+     * The changes made by other clients are seen after it at the latest.
+     * @param metadataCacheTTL
+     */
+    public void setMetadataCacheTTL(long metadataCacheTTL) {
+        this.metadataCacheTTL = metadataCacheTTL;
+    }
+
+    public List<String> getPreResolveBuckets() {
+        return Collections.unmodifiableList(preResolveBuckets);
+    }
+
+    /**
+     * Sets the buckets whose hosts are resolved in the background when the client is created.
+     * @param preResolveBuckets bucket names
+     */
+    public void setPreResolveBuckets(List<String> preResolveBuckets) {
+        this.preResolveBuckets.clear();
+        if (preResolveBuckets != null) {
+            this.preResolveBuckets.addAll(preResolveBuckets);
+        }
+    }
+
+    public SSLSessionCache getSSLSessionCache() {
+        return sslSessionCache;
+    }
+
+    /**
+     * Sets the cache of the TLS sessions. With a persistent one such as new SSLSessionCache(context), which keeps
+     * the sessions in the app private directory, the first https requests after the app restarts resume
+     * the sessions instead of doing full handshakes. By default it's null and the sessions are only kept in memory.
+     * @param sslSessionCache
+     */
+    public void setSSLSessionCache(SSLSessionCache sslSessionCache) {
+        this.sslSessionCache = sslSessionCache;
+    }
+
+    public int getPresignedUrlCacheSize() {
+        return presignedUrlCacheSize;
+    }
+
+    /**
+     * Sets how many presigned urls are cached. By default it's 0, which means no cache.
+     * A cached url is returned again for the same request while more than half of its expiration is left.
+     * @param presignedUrlCacheSize
+     *          The max count of cached urls
+     */
+    public void setPresignedUrlCacheSize(int presignedUrlCacheSize) {
+        this.presignedUrlCacheSize = presignedUrlCacheSize;
+    }
 }
@@ -9,7 +9,10 @@ package com.alibaba.sdk.android.oss;
 
 import com.alibaba.sdk.android.oss.callback.OSSCompletedCallback;
 import com.alibaba.sdk.android.oss.common.auth.OSSCredentialProvider;
+import com.alibaba.sdk.android.oss.internal.BucketIndex;
+import com.alibaba.sdk.android.oss.internal.ListObjectsIterator;
 import com.alibaba.sdk.android.oss.internal.OSSAsyncTask;
+import com.alibaba.sdk.android.oss.internal.ParallelListObjectsIterator;
 import com.alibaba.sdk.android.oss.model.AbortMultipartUploadRequest;
 import com.alibaba.sdk.android.oss.model.AbortMultipartUploadResult;
 import com.alibaba.sdk.android.oss.model.AppendObjectRequest;
@@ -20,6 +23,11 @@ import com.alibaba.sdk.android.oss.model.CopyObjectRequest;
 import com.alibaba.sdk.android.oss.model.CopyObjectResult;
 import com.alibaba.sdk.android.oss.model.DeleteBucketRequest;
 import com.alibaba.sdk.android.oss.model.DeleteBucketResult;
+import com.alibaba.sdk.android.oss.model.DeleteMultipleObjectResult;
+import com.alibaba.sdk.android.oss.model.DeletePrefixRequest;
+import com.alibaba.sdk.android.oss.model.DeletePrefixResult;
+import com.alibaba.sdk.android.oss.model.DeltaUploadRequest;
+import com.alibaba.sdk.android.oss.model.DeltaUploadResult;
 import com.alibaba.sdk.android.oss.model.DeleteObjectRequest;
 import com.alibaba.sdk.android.oss.model.DeleteObjectResult;
 import com.alibaba.sdk.android.oss.model.GeneratePresignedUrlRequest;
@@ -37,15 +45,27 @@ import com.alibaba.sdk.android.oss.model.ListPartsRequest;
 import com.alibaba.sdk.android.oss.model.ListPartsResult;
 import com.alibaba.sdk.android.oss.model.CreateBucketRequest;
 import com.alibaba.sdk.android.oss.model.CreateBucketResult;
+import com.alibaba.sdk.android.oss.model.MultipartCopyRequest;
 import com.alibaba.sdk.android.oss.model.MultipartUploadRequest;
+import com.alibaba.sdk.android.oss.model.ObjectMetadata;
 import com.alibaba.sdk.android.oss.model.PutObjectRequest;
 import com.alibaba.sdk.android.oss.model.PutObjectResult;
 import com.alibaba.sdk.android.oss.model.ResumableUploadRequest;
 import com.alibaba.sdk.android.oss.model.ResumableUploadResult;
+import com.alibaba.sdk.android.oss.model.SyncDirectoryRequest;
+import com.alibaba.sdk.android.oss.model.SyncDirectoryResult;
+import com.alibaba.sdk.android.oss.model.UploadPartCopyRequest;
+import com.alibaba.sdk.android.oss.model.UploadPartCopyResult;
 import com.alibaba.sdk.android.oss.model.UploadPartRequest;
 import com.alibaba.sdk.android.oss.model.UploadPartResult;
+import com.alibaba.sdk.android.oss.network.ConnectionPoolStats;
+import com.alibaba.sdk.android.oss.network.HedgingPolicy;
+import com.alibaba.sdk.android.oss.network.RequestCoalescer;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 
 /**
  * The access entry point interface for OSS (Open Storage Service).
@@ -295,6 +315,41 @@ public interface OSS {
     public ListObjectsResult listObjects(ListObjectsRequest request)
             throws ClientException, ServiceException;
 
+    /**
+     * Iterates all the pages of the listing, following the next marker.
+     * The following pages are listed in the background while the current one is read.
+     *
+     * @param request
+     * @param maxBufferedPages the max count of the pages listed ahead and not read yet
+     * @return the iterator, which should be cancelled if it's not read to the end
+     */
+    public ListObjectsIterator listObjectsIterator(ListObjectsRequest request, int maxBufferedPages);
+
+    /**
+     * Lists all the objects under the prefix with several listings in parallel, e.g. to scan a large bucket.
+     * The prefix is split by the "/" delimiter into the sub-directories, which are listed in parallel.
+     *
+     * @param bucketName
+     * @param prefix the prefix of the objects to list, null or empty for the whole bucket
+     * @param parallelism the max count of the listings in flight, from 1 to the thread count of the request executor,
+     *                    {@link com.alibaba.sdk.android.oss.common.OSSConstants#DEFAULT_BASE_THREAD_POOL_SIZE}
+     * @param ordered true to iterate the objects in the key order, otherwise in the order they're listed
+     * @return the iterator of the pages of the objects, which should be cancelled if it's not read to the end
+     */
+    public ParallelListObjectsIterator listObjectsInParallel(String bucketName, String prefix, int parallelism, boolean ordered);
+
+    /**
+     * Opens a local index of the objects under the prefix, to browse the directories without listing them
+     * every time. The index is restored from the file if it's there, and is updated by the writes of this
+     * client until it's closed.
+     *
+     * @param bucketName
+     * @param prefix the prefix of the indexed objects, null or empty for the whole bucket
+     * @param indexFile the file keeping the index, e.g. under Context.getFilesDir(), null to keep it in memory
+     * @return
+     */
+    public BucketIndex openBucketIndex(String bucketName, String prefix, File indexFile);
+
     /**
      * Asynchronously initialize a multipart upload
      * Before use Multipart Upload for uploading data, this API is called to initiate the multipart upload,
@@ -359,6 +414,29 @@ public interface OSS {
     public UploadPartResult uploadPart(UploadPartRequest request)
             throws ClientException, ServiceException;
 
+    /**
+     * Asynchronously copy a range of an existing object as a part of the multipart upload.
+     * The part is copied in the server, so the data doesn't pass through the client.
+     * Except the last part, the minimal part size is 100KB.
+     *
+     * @param request
+     * @param completedCallback
+     * @return
+     */
+    public OSSAsyncTask<UploadPartCopyResult> asyncUploadPartCopy(
+            UploadPartCopyRequest request, OSSCompletedCallback<UploadPartCopyRequest, UploadPartCopyResult> completedCallback);
+
+    /**
+     * Synchronously copy a range of an existing object as a part of the multipart upload.
+     *
+     * @param request
+     * @return
+     * @throws ClientException
+     * @throws ServiceException
+     */
+    public UploadPartCopyResult uploadPartCopy(UploadPartCopyRequest request)
+            throws ClientException, ServiceException;
+
     /**
      * Asynchronously complete the multipart upload.
      * After uploading all parts' data, this API needs to be called to complete the whole upload.
@@ -469,6 +547,52 @@ public interface OSS {
     public CompleteMultipartUploadResult multipartUpload(MultipartUploadRequest request)
             throws ClientException, ServiceException;
 
+    /**
+     * Asynchronously do a multipart upload which only sends the parts changed since the last upload of the file.
+     * The MD5 of the parts are kept in a manifest file, and the unchanged parts are copied from the object
+     * in the server, as long as the object has not been written by others since.
+     *
+     * @param request
+     * @param completedCallback
+     * @return
+     */
+    public OSSAsyncTask<DeltaUploadResult> asyncDeltaUpload(
+            DeltaUploadRequest request, OSSCompletedCallback<DeltaUploadRequest, DeltaUploadResult> completedCallback);
+
+    /**
+     * Synchronously do a multipart upload which only sends the parts changed since the last upload of the file.
+     *
+     * @param request
+     * @return
+     * @throws ClientException
+     * @throws ServiceException
+     */
+    public DeltaUploadResult deltaUpload(DeltaUploadRequest request)
+            throws ClientException, ServiceException;
+
+    /**
+     * Asynchronously copy an object of any size by a multipart upload.
+     * The ranges of the source object are copied as the parts concurrently in the server,
+     * so the data doesn't pass through the client. Unlike copyObject, it's not limited to the small objects.
+     *
+     * @param request
+     * @param completedCallback
+     * @return
+     */
+    public OSSAsyncTask<CompleteMultipartUploadResult> asyncMultipartCopy(
+            MultipartCopyRequest request, OSSCompletedCallback<MultipartCopyRequest, CompleteMultipartUploadResult> completedCallback);
+
+    /**
+     * Synchronously copy an object of any size by a multipart upload.
+     *
+     * @param request
+     * @return
+     * @throws ClientException
+     * @throws ServiceException
+     */
+    public CompleteMultipartUploadResult multipartCopy(MultipartCopyRequest request)
+            throws ClientException, ServiceException;
+
     /**
      * Asynchronously do a resumable upload
      *
@@ -514,6 +638,29 @@ public interface OSS {
     public String presignConstrainedObjectURL(String bucketName, String objectKey, long expiredTimeInSeconds)
             throws ClientException;
 
+    /**
+     * Generates the signed urls for many objects at once, the credential is only fetched once for all of them.
+     * The urls are cached when {@link ClientConfiguration#setPresignedUrlCacheSize(int)} is set.
+     *
+     * @param requests the requests to sign
+     * @return the signed urls in the order of the requests
+     * @throws ClientException
+     */
+    public List<String> presignConstrainedObjectURLs(List<GeneratePresignedUrlRequest> requests)
+            throws ClientException;
+
+    /**
+     * Generates the signed urls for many objects in the same bucket at once
+     *
+     * @param bucketName bucket name
+     * @param objectKeys Object keys
+     * @param expiredTimeInSeconds URL's expiration time in seconds
+     * @return the signed urls in the order of the keys
+     * @throws ClientException
+     */
+    public List<String> presignConstrainedObjectURLs(String bucketName, List<String> objectKeys, long expiredTimeInSeconds)
+            throws ClientException;
+
     /**
      * Generates the signed  url for the public available object
      *
@@ -535,6 +682,82 @@ public interface OSS {
     public boolean doesObjectExist(String bucketName, String objectKey)
         throws ClientException, ServiceException;
 
+    /**
+     * Gets the metadata of many objects at once, e.g. to check which local files are already uploaded.
+     * The headObject requests are sent in parallel, or the common prefix of the keys is listed when
+     * it takes fewer round trips.
+     *
+     * @param bucketName
+     * @param objectKeys
+     * @return the metadata by object key, null for the objects which don't exist. The metadata found by the
+     * listing only has the content length, ETag, last modified time and storage class.
+     * @throws ClientException
+     * @throws ServiceException
+     */
+    public Map<String, ObjectMetadata> headObjects(String bucketName, List<String> objectKeys)
+        throws ClientException, ServiceException;
+
+    /**
+     * Deletes many objects with the batch delete requests, each of up to 1000 keys, which are sent in parallel.
+     *
+     * @param bucketName
+     * @param objectKeys
+     * @param quiet true to only get the keys which failed to be deleted in the result
+     * @return the keys deleted and the keys which failed to be deleted
+     * @throws ClientException
+     * @throws ServiceException
+     */
+    public DeleteMultipleObjectResult deleteObjects(String bucketName, List<String> objectKeys, boolean quiet)
+        throws ClientException, ServiceException;
+
+    /**
+     * Asynchronously deletes all the objects under the prefix.
+     * The next page of the objects is listed while the current one is deleted by a batch delete.
+     * The progress is reported by the progress callback of the request, and the deletion stops when
+     * the returned task is cancelled.
+     *
+     * @param request
+     * @param completedCallback
+     * @return
+     */
+    public OSSAsyncTask<DeletePrefixResult> asyncDeletePrefix(
+            DeletePrefixRequest request, OSSCompletedCallback<DeletePrefixRequest, DeletePrefixResult> completedCallback);
+
+    /**
+     * Synchronously deletes all the objects under the prefix.
+     *
+     * @param request
+     * @return
+     * @throws ClientException
+     * @throws ServiceException
+     */
+    public DeletePrefixResult deletePrefix(DeletePrefixRequest request)
+        throws ClientException, ServiceException;
+
+    /**
+     * Asynchronously uploads the new and changed files of a local directory to the objects under the prefix.
+     * A file is unchanged when the object has its size and is newer than it, or has its MD5 when the hash cache
+     * file of the request is set. The files are uploaded with the concurrency of the request, and the objects
+     * without the local files are deleted when the request deletes the orphans.
+     *
+     * @param request
+     * @param completedCallback
+     * @return
+     */
+    public OSSAsyncTask<SyncDirectoryResult> asyncSyncDirectory(
+            SyncDirectoryRequest request, OSSCompletedCallback<SyncDirectoryRequest, SyncDirectoryResult> completedCallback);
+
+    /**
+     * Synchronously uploads the new and changed files of a local directory to the objects under the prefix.
+     *
+     * @param request
+     * @return
+     * @throws ClientException
+     * @throws ServiceException
+     */
+    public SyncDirectoryResult syncDirectory(SyncDirectoryRequest request)
+        throws ClientException, ServiceException;
+
     /**
      * If the multipart upload is not aborted in a resumable upload,
      * this API needs to be called to abort the underlying multipart upload.
@@ -543,4 +766,34 @@ public interface OSS {
      * @throws IOException
      */
     public void abortResumableUpload(ResumableUploadRequest request) throws IOException;
+
+    /**
+     * Asynchronously opens connections to the buckets' hosts, so that the following requests skip
+     * the TCP and TLS handshakes. The connections are kept until the idle keep-alive of the pool expires.
+     *
+     * @param buckets bucket names
+     * @param connectionsPerHost the connection count to open for each bucket host
+     */
+    public void warmUp(List<String> buckets, int connectionsPerHost);
+
+    /**
+     * Gets the current statistics of the connection pool and the request dispatcher
+     *
+     * @return
+     */
+    public ConnectionPoolStats getConnectionPoolStats();
+
+    /**
+     * Gets the hedging policy of the client, with the counts of the hedged requests
+     *
+     * @return the policy, or null if the hedged requests are not enabled
+     */
+    public HedgingPolicy getHedgingPolicy();
+
+    /**
+     * Gets the request coalescer of the client, with the count of the requests which joined a call in flight
+     *
+     * @return the coalescer, or null if the request coalescing is not enabled
+     */
+    public RequestCoalescer getRequestCoalescer();
 }
@@ -11,7 +11,10 @@ import android.content.Context;
 
 import com.alibaba.sdk.android.oss.callback.OSSCompletedCallback;
 import com.alibaba.sdk.android.oss.common.auth.OSSCredentialProvider;
+import com.alibaba.sdk.android.oss.internal.BucketIndex;
+import com.alibaba.sdk.android.oss.internal.ListObjectsIterator;
 import com.alibaba.sdk.android.oss.internal.OSSAsyncTask;
+import com.alibaba.sdk.android.oss.internal.ParallelListObjectsIterator;
 import com.alibaba.sdk.android.oss.model.AbortMultipartUploadRequest;
 import com.alibaba.sdk.android.oss.model.AbortMultipartUploadResult;
 import com.alibaba.sdk.android.oss.model.AppendObjectRequest;
@@ -24,6 +27,11 @@ import com.alibaba.sdk.android.oss.model.CreateBucketRequest;
 import com.alibaba.sdk.android.oss.model.CreateBucketResult;
 import com.alibaba.sdk.android.oss.model.DeleteBucketRequest;
 import com.alibaba.sdk.android.oss.model.DeleteBucketResult;
+import com.alibaba.sdk.android.oss.model.DeleteMultipleObjectResult;
+import com.alibaba.sdk.android.oss.model.DeletePrefixRequest;
+import com.alibaba.sdk.android.oss.model.DeletePrefixResult;
+import com.alibaba.sdk.android.oss.model.DeltaUploadRequest;
+import com.alibaba.sdk.android.oss.model.DeltaUploadResult;
 import com.alibaba.sdk.android.oss.model.DeleteObjectRequest;
 import com.alibaba.sdk.android.oss.model.DeleteObjectResult;
 import com.alibaba.sdk.android.oss.model.GeneratePresignedUrlRequest;
@@ -39,17 +47,29 @@ import com.alibaba.sdk.android.oss.model.ListObjectsRequest;
 import com.alibaba.sdk.android.oss.model.ListObjectsResult;
 import com.alibaba.sdk.android.oss.model.ListPartsRequest;
 import com.alibaba.sdk.android.oss.model.ListPartsResult;
+import com.alibaba.sdk.android.oss.model.MultipartCopyRequest;
 import com.alibaba.sdk.android.oss.model.MultipartUploadRequest;
+import com.alibaba.sdk.android.oss.model.ObjectMetadata;
 import com.alibaba.sdk.android.oss.model.PutObjectRequest;
 import com.alibaba.sdk.android.oss.model.PutObjectResult;
 import com.alibaba.sdk.android.oss.model.ResumableUploadRequest;
 import com.alibaba.sdk.android.oss.model.ResumableUploadResult;
+import com.alibaba.sdk.android.oss.model.SyncDirectoryRequest;
+import com.alibaba.sdk.android.oss.model.SyncDirectoryResult;
+import com.alibaba.sdk.android.oss.model.UploadPartCopyRequest;
+import com.alibaba.sdk.android.oss.model.UploadPartCopyResult;
 import com.alibaba.sdk.android.oss.model.UploadPartRequest;
 import com.alibaba.sdk.android.oss.model.UploadPartResult;
+import com.alibaba.sdk.android.oss.network.ConnectionPoolStats;
+import com.alibaba.sdk.android.oss.network.HedgingPolicy;
+import com.alibaba.sdk.android.oss.network.RequestCoalescer;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.List;
+import java.util.Map;
 
 /**
  * The entry point class of (Open Storage Service, OSS）, which is the implementation of interface
@@ -220,6 +240,24 @@ public class OSSClient implements OSS {
         return mOss.listObjects(request);
     }
 
+    @Override
+    public ListObjectsIterator listObjectsIterator(ListObjectsRequest request, int maxBufferedPages) {
+
+        return mOss.listObjectsIterator(request, maxBufferedPages);
+    }
+
+    @Override
+    public ParallelListObjectsIterator listObjectsInParallel(String bucketName, String prefix, int parallelism, boolean ordered) {
+
+        return mOss.listObjectsInParallel(bucketName, prefix, parallelism, ordered);
+    }
+
+    @Override
+    public BucketIndex openBucketIndex(String bucketName, String prefix, File indexFile) {
+
+        return mOss.openBucketIndex(bucketName, prefix, indexFile);
+    }
+
     @Override
     public OSSAsyncTask<InitiateMultipartUploadResult> asyncInitMultipartUpload(InitiateMultipartUploadRequest request, OSSCompletedCallback<InitiateMultipartUploadRequest, InitiateMultipartUploadResult> completedCallback) {
 
@@ -246,6 +284,20 @@ public class OSSClient implements OSS {
         return mOss.uploadPart(request);
     }
 
+    @Override
+    public OSSAsyncTask<UploadPartCopyResult> asyncUploadPartCopy(
+            UploadPartCopyRequest request, OSSCompletedCallback<UploadPartCopyRequest, UploadPartCopyResult> completedCallback) {
+
+        return mOss.asyncUploadPartCopy(request, completedCallback);
+    }
+
+    @Override
+    public UploadPartCopyResult uploadPartCopy(UploadPartCopyRequest request)
+            throws ClientException, ServiceException {
+
+        return mOss.uploadPartCopy(request);
+    }
+
     @Override
     public OSSAsyncTask<CompleteMultipartUploadResult> asyncCompleteMultipartUpload(CompleteMultipartUploadRequest request, OSSCompletedCallback<CompleteMultipartUploadRequest, CompleteMultipartUploadResult> completedCallback) {
 
@@ -304,6 +356,34 @@ public class OSSClient implements OSS {
         return mOss.multipartUpload(request);
     }
 
+    @Override
+    public OSSAsyncTask<DeltaUploadResult> asyncDeltaUpload(
+            DeltaUploadRequest request, OSSCompletedCallback<DeltaUploadRequest, DeltaUploadResult> completedCallback) {
+
+        return mOss.asyncDeltaUpload(request, completedCallback);
+    }
+
+    @Override
+    public DeltaUploadResult deltaUpload(DeltaUploadRequest request)
+            throws ClientException, ServiceException {
+
+        return mOss.deltaUpload(request);
+    }
+
+    @Override
+    public OSSAsyncTask<CompleteMultipartUploadResult> asyncMultipartCopy(
+            MultipartCopyRequest request, OSSCompletedCallback<MultipartCopyRequest, CompleteMultipartUploadResult> completedCallback) {
+
+        return mOss.asyncMultipartCopy(request, completedCallback);
+    }
+
+    @Override
+    public CompleteMultipartUploadResult multipartCopy(MultipartCopyRequest request)
+            throws ClientException, ServiceException {
+
+        return mOss.multipartCopy(request);
+    }
+
     @Override
     public OSSAsyncTask<ResumableUploadResult> asyncResumableUpload(
             ResumableUploadRequest request, OSSCompletedCallback<ResumableUploadRequest, ResumableUploadResult> completedCallback) {
@@ -330,6 +410,20 @@ public class OSSClient implements OSS {
         return mOss.presignConstrainedObjectURL(bucketName, objectKey, expiredTimeInSeconds);
     }
 
+    @Override
+    public List<String> presignConstrainedObjectURLs(List<GeneratePresignedUrlRequest> requests)
+            throws ClientException {
+
+        return mOss.presignConstrainedObjectURLs(requests);
+    }
+
+    @Override
+    public List<String> presignConstrainedObjectURLs(String bucketName, List<String> objectKeys, long expiredTimeInSeconds)
+            throws ClientException {
+
+        return mOss.presignConstrainedObjectURLs(bucketName, objectKeys, expiredTimeInSeconds);
+    }
+
     @Override
     public String presignPublicObjectURL(String bucketName, String objectKey) {
 
@@ -343,9 +437,75 @@ public class OSSClient implements OSS {
         return mOss.doesObjectExist(bucketName, objectKey);
     }
 
+    @Override
+    public Map<String, ObjectMetadata> headObjects(String bucketName, List<String> objectKeys)
+        throws ClientException, ServiceException {
+
+        return mOss.headObjects(bucketName, objectKeys);
+    }
+
+    @Override
+    public DeleteMultipleObjectResult deleteObjects(String bucketName, List<String> objectKeys, boolean quiet)
+        throws ClientException, ServiceException {
+
+        return mOss.deleteObjects(bucketName, objectKeys, quiet);
+    }
+
+    @Override
+    public OSSAsyncTask<DeletePrefixResult> asyncDeletePrefix(
+            DeletePrefixRequest request, OSSCompletedCallback<DeletePrefixRequest, DeletePrefixResult> completedCallback) {
+
+        return mOss.asyncDeletePrefix(request, completedCallback);
+    }
+
+    @Override
+    public DeletePrefixResult deletePrefix(DeletePrefixRequest request)
+        throws ClientException, ServiceException {
+
+        return mOss.deletePrefix(request);
+    }
+
+    @Override
+    public OSSAsyncTask<SyncDirectoryResult> asyncSyncDirectory(
+            SyncDirectoryRequest request, OSSCompletedCallback<SyncDirectoryRequest, SyncDirectoryResult> completedCallback) {
+
+        return mOss.asyncSyncDirectory(request, completedCallback);
+    }
+
+    @Override
+    public SyncDirectoryResult syncDirectory(SyncDirectoryRequest request)
+        throws ClientException, ServiceException {
+
+        return mOss.syncDirectory(request);
+    }
+
     @Override
     public void abortResumableUpload(ResumableUploadRequest request) throws IOException {
 
         mOss.abortResumableUpload(request);
     }
+
+    @Override
+    public void warmUp(List<String> buckets, int connectionsPerHost) {
+
+        mOss.warmUp(buckets, connectionsPerHost);
+    }
+
+    @Override
+    public ConnectionPoolStats getConnectionPoolStats() {
+
+        return mOss.getConnectionPoolStats();
+    }
+
+    @Override
+    public HedgingPolicy getHedgingPolicy() {
+
+        return mOss.getHedgingPolicy();
+    }
+
+    @Override
+    public RequestCoalescer getRequestCoalescer() {
+
+        return mOss.getRequestCoalescer();
+    }
 }
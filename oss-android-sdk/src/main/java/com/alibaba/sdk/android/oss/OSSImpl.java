@@ -14,8 +14,12 @@ import com.alibaba.sdk.android.oss.common.OSSLogToFileUtils;
 import com.alibaba.sdk.android.oss.common.auth.OSSCredentialProvider;
 import com.alibaba.sdk.android.oss.internal.ExtensionRequestOperation;
 import com.alibaba.sdk.android.oss.internal.InternalRequestOperation;
+import com.alibaba.sdk.android.oss.internal.BucketIndex;
+import com.alibaba.sdk.android.oss.internal.ListObjectsIterator;
 import com.alibaba.sdk.android.oss.internal.OSSAsyncTask;
+import com.alibaba.sdk.android.oss.internal.ParallelListObjectsIterator;
 import com.alibaba.sdk.android.oss.internal.ObjectURLPresigner;
+import com.alibaba.sdk.android.oss.internal.PresignedURLCache;
 import com.alibaba.sdk.android.oss.model.AbortMultipartUploadRequest;
 import com.alibaba.sdk.android.oss.model.AbortMultipartUploadResult;
 import com.alibaba.sdk.android.oss.model.AppendObjectRequest;
@@ -28,6 +32,11 @@ import com.alibaba.sdk.android.oss.model.CreateBucketRequest;
 import com.alibaba.sdk.android.oss.model.CreateBucketResult;
 import com.alibaba.sdk.android.oss.model.DeleteBucketRequest;
 import com.alibaba.sdk.android.oss.model.DeleteBucketResult;
+import com.alibaba.sdk.android.oss.model.DeleteMultipleObjectResult;
+import com.alibaba.sdk.android.oss.model.DeletePrefixRequest;
+import com.alibaba.sdk.android.oss.model.DeletePrefixResult;
+import com.alibaba.sdk.android.oss.model.DeltaUploadRequest;
+import com.alibaba.sdk.android.oss.model.DeltaUploadResult;
 import com.alibaba.sdk.android.oss.model.DeleteObjectRequest;
 import com.alibaba.sdk.android.oss.model.DeleteObjectResult;
 import com.alibaba.sdk.android.oss.model.GeneratePresignedUrlRequest;
@@ -43,17 +52,29 @@ import com.alibaba.sdk.android.oss.model.ListObjectsRequest;
 import com.alibaba.sdk.android.oss.model.ListObjectsResult;
 import com.alibaba.sdk.android.oss.model.ListPartsRequest;
 import com.alibaba.sdk.android.oss.model.ListPartsResult;
+import com.alibaba.sdk.android.oss.model.MultipartCopyRequest;
 import com.alibaba.sdk.android.oss.model.MultipartUploadRequest;
+import com.alibaba.sdk.android.oss.model.ObjectMetadata;
 import com.alibaba.sdk.android.oss.model.PutObjectRequest;
 import com.alibaba.sdk.android.oss.model.PutObjectResult;
 import com.alibaba.sdk.android.oss.model.ResumableUploadRequest;
 import com.alibaba.sdk.android.oss.model.ResumableUploadResult;
+import com.alibaba.sdk.android.oss.model.SyncDirectoryRequest;
+import com.alibaba.sdk.android.oss.model.SyncDirectoryResult;
+import com.alibaba.sdk.android.oss.model.UploadPartCopyRequest;
+import com.alibaba.sdk.android.oss.model.UploadPartCopyResult;
 import com.alibaba.sdk.android.oss.model.UploadPartRequest;
 import com.alibaba.sdk.android.oss.model.UploadPartResult;
+import com.alibaba.sdk.android.oss.network.ConnectionPoolStats;
+import com.alibaba.sdk.android.oss.network.HedgingPolicy;
+import com.alibaba.sdk.android.oss.network.RequestCoalescer;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.List;
+import java.util.Map;
 
 /**
  * The entry point class of (Open Storage Service, OSS）, which is the implementation of interface
@@ -66,6 +87,7 @@ class OSSImpl implements OSS {
     private InternalRequestOperation internalRequestOperation;
     private ExtensionRequestOperation extensionRequestOperation;
     private ClientConfiguration conf;
+    private PresignedURLCache presignedURLCache;
 
     /**
      * Creates a {@link OSSImpl} instance.
@@ -95,6 +117,9 @@ class OSSImpl implements OSS {
 
         internalRequestOperation = new InternalRequestOperation(context.getApplicationContext(), endpointURI, credentialProvider, this.conf);
         extensionRequestOperation = new ExtensionRequestOperation(internalRequestOperation);
+        if (this.conf.getPresignedUrlCacheSize() > 0) {
+            presignedURLCache = new PresignedURLCache(this.conf.getPresignedUrlCacheSize());
+        }
     }
 
     @Override
@@ -235,6 +260,24 @@ class OSSImpl implements OSS {
         return internalRequestOperation.listObjects(request, null).getResult();
     }
 
+    @Override
+    public ListObjectsIterator listObjectsIterator(ListObjectsRequest request, int maxBufferedPages) {
+
+        return new ListObjectsIterator(internalRequestOperation, request, maxBufferedPages);
+    }
+
+    @Override
+    public ParallelListObjectsIterator listObjectsInParallel(String bucketName, String prefix, int parallelism, boolean ordered) {
+
+        return new ParallelListObjectsIterator(internalRequestOperation, bucketName, prefix, parallelism, ordered);
+    }
+
+    @Override
+    public BucketIndex openBucketIndex(String bucketName, String prefix, File indexFile) {
+
+        return internalRequestOperation.openBucketIndex(bucketName, prefix, indexFile);
+    }
+
     @Override
     public OSSAsyncTask<InitiateMultipartUploadResult> asyncInitMultipartUpload(InitiateMultipartUploadRequest request, OSSCompletedCallback<InitiateMultipartUploadRequest, InitiateMultipartUploadResult> completedCallback) {
 
@@ -261,6 +304,20 @@ class OSSImpl implements OSS {
         return internalRequestOperation.uploadPart(request, null).getResult();
     }
 
+    @Override
+    public OSSAsyncTask<UploadPartCopyResult> asyncUploadPartCopy(
+            UploadPartCopyRequest request, OSSCompletedCallback<UploadPartCopyRequest, UploadPartCopyResult> completedCallback) {
+
+        return internalRequestOperation.uploadPartCopy(request, completedCallback);
+    }
+
+    @Override
+    public UploadPartCopyResult uploadPartCopy(UploadPartCopyRequest request)
+            throws ClientException, ServiceException {
+
+        return internalRequestOperation.uploadPartCopy(request, null).getResult();
+    }
+
     @Override
     public OSSAsyncTask<CompleteMultipartUploadResult> asyncCompleteMultipartUpload(CompleteMultipartUploadRequest request, OSSCompletedCallback<CompleteMultipartUploadRequest, CompleteMultipartUploadResult> completedCallback) {
 
@@ -304,6 +361,9 @@ class OSSImpl implements OSS {
     public void updateCredentialProvider(OSSCredentialProvider credentialProvider) {
         this.credentialProvider = credentialProvider;
         internalRequestOperation.setCredentialProvider(credentialProvider);
+        if (presignedURLCache != null) {
+            presignedURLCache.clear();
+        }
     }
 
     @Override
@@ -320,6 +380,34 @@ class OSSImpl implements OSS {
         return extensionRequestOperation.multipartUpload(request, null).getResult();
     }
 
+    @Override
+    public OSSAsyncTask<DeltaUploadResult> asyncDeltaUpload(
+            DeltaUploadRequest request, OSSCompletedCallback<DeltaUploadRequest, DeltaUploadResult> completedCallback) {
+
+        return extensionRequestOperation.deltaUpload(request, completedCallback);
+    }
+
+    @Override
+    public DeltaUploadResult deltaUpload(DeltaUploadRequest request)
+            throws ClientException, ServiceException {
+
+        return extensionRequestOperation.deltaUpload(request, null).getResult();
+    }
+
+    @Override
+    public OSSAsyncTask<CompleteMultipartUploadResult> asyncMultipartCopy(
+            MultipartCopyRequest request, OSSCompletedCallback<MultipartCopyRequest, CompleteMultipartUploadResult> completedCallback) {
+
+        return extensionRequestOperation.multipartCopy(request, completedCallback);
+    }
+
+    @Override
+    public CompleteMultipartUploadResult multipartCopy(MultipartCopyRequest request)
+            throws ClientException, ServiceException {
+
+        return extensionRequestOperation.multipartCopy(request, null).getResult();
+    }
+
     @Override
     public OSSAsyncTask<ResumableUploadResult> asyncResumableUpload(
             ResumableUploadRequest request, OSSCompletedCallback<ResumableUploadRequest, ResumableUploadResult> completedCallback) {
@@ -336,7 +424,7 @@ class OSSImpl implements OSS {
 
     @Override
     public String presignConstrainedObjectURL(GeneratePresignedUrlRequest request) throws ClientException {
-        return new ObjectURLPresigner(this.endpointURI,this.credentialProvider,this.conf)
+        return new ObjectURLPresigner(this.endpointURI, this.credentialProvider, this.conf, this.presignedURLCache)
                 .presignConstrainedURL(request);
     }
 
@@ -344,10 +432,26 @@ class OSSImpl implements OSS {
     public String presignConstrainedObjectURL(String bucketName, String objectKey, long expiredTimeInSeconds)
             throws ClientException {
 
-        return new ObjectURLPresigner(this.endpointURI, this.credentialProvider, this.conf)
+        return new ObjectURLPresigner(this.endpointURI, this.credentialProvider, this.conf, this.presignedURLCache)
                 .presignConstrainedURL(bucketName, objectKey, expiredTimeInSeconds);
     }
 
+    @Override
+    public List<String> presignConstrainedObjectURLs(List<GeneratePresignedUrlRequest> requests)
+            throws ClientException {
+
+        return new ObjectURLPresigner(this.endpointURI, this.credentialProvider, this.conf, this.presignedURLCache)
+                .presignConstrainedURLs(requests);
+    }
+
+    @Override
+    public List<String> presignConstrainedObjectURLs(String bucketName, List<String> objectKeys, long expiredTimeInSeconds)
+            throws ClientException {
+
+        return new ObjectURLPresigner(this.endpointURI, this.credentialProvider, this.conf, this.presignedURLCache)
+                .presignConstrainedURLs(bucketName, objectKeys, expiredTimeInSeconds);
+    }
+
     @Override
     public String presignPublicObjectURL(String bucketName, String objectKey) {
 
@@ -362,9 +466,75 @@ class OSSImpl implements OSS {
         return extensionRequestOperation.doesObjectExist(bucketName, objectKey);
     }
 
+    @Override
+    public Map<String, ObjectMetadata> headObjects(String bucketName, List<String> objectKeys)
+        throws ClientException, ServiceException {
+
+        return extensionRequestOperation.headObjects(bucketName, objectKeys);
+    }
+
+    @Override
+    public DeleteMultipleObjectResult deleteObjects(String bucketName, List<String> objectKeys, boolean quiet)
+        throws ClientException, ServiceException {
+
+        return extensionRequestOperation.deleteObjects(bucketName, objectKeys, quiet);
+    }
+
+    @Override
+    public OSSAsyncTask<DeletePrefixResult> asyncDeletePrefix(
+            DeletePrefixRequest request, OSSCompletedCallback<DeletePrefixRequest, DeletePrefixResult> completedCallback) {
+
+        return extensionRequestOperation.deletePrefix(request, completedCallback);
+    }
+
+    @Override
+    public DeletePrefixResult deletePrefix(DeletePrefixRequest request)
+        throws ClientException, ServiceException {
+
+        return extensionRequestOperation.deletePrefix(request, null).getResult();
+    }
+
+    @Override
+    public OSSAsyncTask<SyncDirectoryResult> asyncSyncDirectory(
+            SyncDirectoryRequest request, OSSCompletedCallback<SyncDirectoryRequest, SyncDirectoryResult> completedCallback) {
+
+        return extensionRequestOperation.syncDirectory(request, completedCallback);
+    }
+
+    @Override
+    public SyncDirectoryResult syncDirectory(SyncDirectoryRequest request)
+        throws ClientException, ServiceException {
+
+        return extensionRequestOperation.syncDirectory(request, null).getResult();
+    }
+
     @Override
     public void abortResumableUpload(ResumableUploadRequest request) throws IOException {
 
         extensionRequestOperation.abortResumableUpload(request);
     }
+
+    @Override
+    public void warmUp(List<String> buckets, int connectionsPerHost) {
+
+        internalRequestOperation.warmUp(buckets, connectionsPerHost);
+    }
+
+    @Override
+    public ConnectionPoolStats getConnectionPoolStats() {
+
+        return internalRequestOperation.getConnectionPoolStats();
+    }
+
+    @Override
+    public HedgingPolicy getHedgingPolicy() {
+
+        return internalRequestOperation.getHedgingPolicy();
+    }
+
+    @Override
+    public RequestCoalescer getRequestCoalescer() {
+
+        return internalRequestOperation.getRequestCoalescer();
+    }
 }
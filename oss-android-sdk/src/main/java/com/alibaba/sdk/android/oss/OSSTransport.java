@@ -0,0 +1,88 @@
+package com.alibaba.sdk.android.oss;
+
+import android.content.Context;
+import android.text.TextUtils;
+
+import com.alibaba.sdk.android.oss.common.utils.HttpdnsMini;
+import com.alibaba.sdk.android.oss.network.ConnectionTracker;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+
+/**
+ * The network resources shared by several {@link OSSClient} instances: the connection pool, the request dispatcher
+ * and the DNS. Set it by {@link ClientConfiguration#setTransport(OSSTransport)}; every client keeps its own
+ * credential provider, timeouts, proxy and retry settings, while the connections to the same hosts are reused
+ * among them and the concurrency limits apply to all of them together.
+ * The asynchronous api threads are always shared by all the clients.
+ */
+public class OSSTransport {
+
+    private static final String HTTPDNS_CACHE_FILE = "oss_httpdns_cache";
+
+    private volatile OkHttpClient baseClient;
+    private final ConnectionTracker connectionTracker = new ConnectionTracker();
+    private HttpdnsMini httpDns;
+
+    /**
+     * Creates the transport with the pool, concurrency and HttpDNS settings of the configuration.
+     *
+     * @param context android application's application context
+     * @param conf configuration of the shared resources
+     */
+    public OSSTransport(Context context, ClientConfiguration conf) {
+        if (conf == null) {
+            conf = ClientConfiguration.getDefaultConf();
+        }
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(conf.getMaxConcurrentRequest());
+        dispatcher.setMaxRequestsPerHost(conf.getMaxConcurrentRequestPerHost());
+
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(conf.getMaxIdleConnections(), conf.getKeepAliveDuration(), TimeUnit.MILLISECONDS))
+                .addNetworkInterceptor(connectionTracker);
+
+        // When the HTTP proxy is set, httpDNS is not enabled.
+        if (conf.isHttpDnsEnable() && TextUtils.isEmpty(conf.getProxyHost())
+                && TextUtils.isEmpty(System.getProperty("http.proxyHost"))) {
+            httpDns = HttpdnsMini.getInstance(conf.getHttpDnsServer());
+            if (conf.isHttpDnsCachePersistent() && context != null) {
+                httpDns.setCacheFile(new File(context.getApplicationContext().getCacheDir(), HTTPDNS_CACHE_FILE));
+            }
+            builder.dns(httpDns);
+        }
+        this.baseClient = builder.build();
+    }
+
+    /**
+     * Creates a client builder sharing the resources of the transport (SDK internal only)
+     */
+    public OkHttpClient.Builder newClientBuilder() {
+        return baseClient.newBuilder();
+    }
+
+    /**
+     * Adds an interceptor of the network requests of the clients, e.g. to log the connections they use.
+     * It applies to the clients created after it's added.
+     */
+    public synchronized void addNetworkInterceptor(Interceptor interceptor) {
+        baseClient = baseClient.newBuilder().addNetworkInterceptor(interceptor).build();
+    }
+
+    public ConnectionTracker getConnectionTracker() {
+        return connectionTracker;
+    }
+
+    /**
+     * @return the HttpDNS resolver, or null if HttpDNS is not enabled
+     */
+    public HttpdnsMini getHttpDns() {
+        return httpDns;
+    }
+}
@@ -61,6 +61,10 @@ public class ServiceException extends Exception {
      */
     private String rawMessage;
 
+    /**
+     * The endpoint the bucket must be addressed with, carried by the redirect errors
+     */
+    private String endpoint;
 
     /**
      * The constructor with status code, message, error code , request Id and host Id
@@ -72,6 +76,20 @@ public class ServiceException extends Exception {
      */
     public ServiceException(int statusCode, String message,
             String errorCode, String requestId, String hostId, String rawMessage){
+        this(statusCode, message, errorCode, requestId, hostId, rawMessage, null);
+    }
+
+    /**
+     * The constructor with status code, message, error code , request Id, host Id and the endpoint of the bucket
+     * @param statusCode HTTP status code
+     * @param message error message
+     * @param errorCode error code
+     * @param requestId Request ID
+     * @param hostId Host ID
+     * @param endpoint the endpoint in the redirect error
+     */
+    public ServiceException(int statusCode, String message,
+            String errorCode, String requestId, String hostId, String rawMessage, String endpoint){
 
         super(message);
 
@@ -80,6 +98,7 @@ public class ServiceException extends Exception {
         this.requestId = requestId;
         this.hostId = hostId;
         this.rawMessage = rawMessage;
+        this.endpoint = endpoint;
 
         OSSLog.logThrowable2Local(this);
     }
@@ -116,6 +135,15 @@ public class ServiceException extends Exception {
         return hostId;
     }
 
+    /**
+     * Gets the endpoint the bucket must be addressed with, e.g. 'oss-cn-hangzhou.aliyuncs.com'.
+     * It's only set when the bucket is accessed through the endpoint of another region.
+     * @return endpoint host
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
     @Override
     public String toString() {
         return "[StatusCode]: " + statusCode + ", "
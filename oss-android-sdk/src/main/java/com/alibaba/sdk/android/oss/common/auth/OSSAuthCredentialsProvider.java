@@ -9,10 +9,7 @@ import com.alibaba.sdk.android.oss.common.utils.IOUtils;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.util.concurrent.TimeUnit;
 
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -25,8 +22,13 @@ import okhttp3.Response;
 
 public class OSSAuthCredentialsProvider extends OSSFederationCredentialProvider {
 
+    private static final int AUTH_CONNECT_TIMEOUT = 10 * 1000;
+
+    private static OkHttpClient defaultHttpClient;
+
     private String mAuthServerUrl;
     private AuthDecoder mDecoder;
+    private volatile OkHttpClient mHttpClient;
 
     public OSSAuthCredentialsProvider(String authServerUrl) {
         this.mAuthServerUrl = authServerUrl;
@@ -48,16 +50,49 @@ public class OSSAuthCredentialsProvider extends OSSFederationCredentialProvider
         this.mDecoder = decoder;
     }
 
+    /**
+     * Sets the http client used to request the auth server, so that the connections are shared with the oss client.
+     * It is set automatically when the provider is passed to OSSClient.
+     * @param client
+     */
+    public void setHttpClient(OkHttpClient client) {
+        if (client == null) {
+            this.mHttpClient = null;
+            return;
+        }
+        // Only the connections and the dispatcher are shared. The interceptors, dns, ssl settings and
+        // redirect policy of the oss client are meant for the oss endpoint, not for the auth server.
+        this.mHttpClient = new OkHttpClient.Builder()
+                .connectionPool(client.connectionPool())
+                .dispatcher(client.dispatcher())
+                .connectTimeout(AUTH_CONNECT_TIMEOUT, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    private OkHttpClient getHttpClient() {
+        OkHttpClient client = mHttpClient;
+        if (client != null) {
+            return client;
+        }
+        synchronized (OSSAuthCredentialsProvider.class) {
+            if (defaultHttpClient == null) {
+                defaultHttpClient = new OkHttpClient.Builder()
+                        .connectTimeout(AUTH_CONNECT_TIMEOUT, TimeUnit.MILLISECONDS)
+                        .build();
+            }
+            return defaultHttpClient;
+        }
+    }
+
     @Override
     public OSSFederationToken getFederationToken() throws ClientException {
         OSSFederationToken authToken;
         String authData;
+        Response response = null;
         try {
-            URL stsUrl = new URL(mAuthServerUrl);
-            HttpURLConnection conn = (HttpURLConnection) stsUrl.openConnection();
-            conn.setConnectTimeout(10000);
-            InputStream input = conn.getInputStream();
-            authData = IOUtils.readStreamAsString(input, OSSConstants.DEFAULT_CHARSET_NAME);
+            Request request = new Request.Builder().url(mAuthServerUrl).get().build();
+            response = getHttpClient().newCall(request).execute();
+            authData = IOUtils.readStreamAsString(response.body().byteStream(), OSSConstants.DEFAULT_CHARSET_NAME);
             if (mDecoder != null) {
                 authData = mDecoder.decode(authData);
             }
@@ -77,6 +112,10 @@ public class OSSAuthCredentialsProvider extends OSSFederationCredentialProvider
             return authToken;
         } catch (Exception e) {
             throw new ClientException(e);
+        } finally {
+            if (response != null) {
+                response.body().close();
+            }
         }
     }
 
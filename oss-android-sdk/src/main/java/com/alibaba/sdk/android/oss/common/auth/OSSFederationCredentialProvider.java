@@ -4,37 +4,219 @@ import com.alibaba.sdk.android.oss.ClientException;
 import com.alibaba.sdk.android.oss.common.OSSLog;
 import com.alibaba.sdk.android.oss.common.utils.DateUtil;
 
-import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Created by zhouzhuo on 11/4/15.
  */
 public abstract class OSSFederationCredentialProvider implements OSSCredentialProvider {
 
+    // To avoid returning staled data, the token is treated as expired 5 minutes ahead of the real expiration.
+    private static final long EXPIRATION_MARGIN_IN_SECONDS = 5 * 60;
+    private static final long DEFAULT_REFRESH_AHEAD_IN_SECONDS = 5 * 60;
+    private static final long DEFAULT_REFRESH_TIMEOUT_IN_MILLIS = 30 * 1000;
+    // After a failed refresh the refresh-ahead waits this long, so signing calls don't hammer the auth server.
+    private static final long REFRESH_FAILURE_BACKOFF_IN_MILLIS = 30 * 1000;
+
+    private static ExecutorService refreshExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            return new Thread(r, "oss-android-token-refresh-thread");
+        }
+    });
+
     private volatile OSSFederationToken cachedToken;
 
+    private final Object refreshLock = new Object();
+
+    // The in-flight refresh, concurrent callers share it instead of fetching again. Guarded by refreshLock.
+    private FutureTask<OSSFederationToken> refreshTask;
+
+    private volatile long refreshAheadInSeconds = DEFAULT_REFRESH_AHEAD_IN_SECONDS;
+
+    private volatile long refreshTimeoutInMillis = DEFAULT_REFRESH_TIMEOUT_IN_MILLIS;
+
+    private volatile OSSFederationTokenStore tokenStore;
+
+    private volatile boolean storeLoaded;
+
+    // when the last refresh failed, 0 if it succeeded
+    private volatile long refreshFailedAt;
+
     /**
      * Gets the valid STS token. The subclass needs to implement this function.
      * @return The valid STS Token
      */
     public abstract OSSFederationToken getFederationToken() throws ClientException;
 
-    public synchronized OSSFederationToken getValidFederationToken() throws ClientException{
-        // Checks if the STS token is expired. To avoid returning staled data, here we pre-fetch the token 5 minutes a head of the real expiration.
-        // The minimal expiration time is 15 minutes
-        if (cachedToken == null
-                || DateUtil.getFixedSkewedTimeMillis() / 1000 > cachedToken.getExpiration() - 5 * 60) {
+    /**
+     * Gets the cached STS token without blocking while it's still valid.
+     * When the token gets close to its expiration a refresh is started in the background, and the caller
+     * only waits (up to the refresh timeout) when there is no valid token at all.
+     * @return The valid STS Token
+     * @throws ClientException
+     */
+    public OSSFederationToken getValidFederationToken() throws ClientException {
+        OSSFederationToken token = cachedToken;
+        long currentTime = DateUtil.getFixedSkewedTimeMillis() / 1000;
 
-            if (cachedToken != null) {
-                OSSLog.logDebug("token expired! current time: " + DateUtil.getFixedSkewedTimeMillis() / 1000 + " token expired: " + cachedToken.getExpiration());
+        if (token == null && !storeLoaded) {
+            token = loadStoredToken();
+        }
+
+        if (isValid(token, currentTime)) {
+            if (needsRefresh(token, currentTime) && !isBackingOff()) {
+                startRefresh();
             }
-            cachedToken = getFederationToken();
+            return token;
         }
 
-        return cachedToken;
+        if (token != null) {
+            OSSLog.logDebug("token expired! current time: " + currentTime + " token expired: " + token.getExpiration());
+        }
+        return waitForRefresh(startRefresh());
     }
 
     public OSSFederationToken getCachedToken() {
         return cachedToken;
     }
+
+    /**
+     * Sets the store that keeps the token across process restarts. By default no token is stored.
+     * @param tokenStore the token store, e.g. {@link OSSFileFederationTokenStore}
+     */
+    public void setTokenStore(OSSFederationTokenStore tokenStore) {
+        this.tokenStore = tokenStore;
+        this.storeLoaded = false;
+    }
+
+    /**
+     * Restores the stored token and starts the refresh when there's no valid token, all in the background,
+     * so that the first request does not wait for it. It's called when the client is created, and does
+     * nothing without a token store, where the token is fetched on the first request.
+     */
+    public void prepareFederationToken() {
+        if (tokenStore == null) {
+            return;
+        }
+        refreshExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                OSSFederationToken token = cachedToken;
+                if (token == null && !storeLoaded) {
+                    token = loadStoredToken();
+                }
+                if (needsRefresh(token, DateUtil.getFixedSkewedTimeMillis() / 1000) && !isBackingOff()) {
+                    startRefresh();
+                }
+            }
+        });
+    }
+
+    /**
+     * Sets how long before the token expiration the background refresh starts. By default it's 5 minutes.
+     * @param refreshAheadInSeconds seconds ahead of the expiration
+     */
+    public void setRefreshAheadSeconds(long refreshAheadInSeconds) {
+        this.refreshAheadInSeconds = refreshAheadInSeconds;
+    }
+
+    /**
+     * Sets the max time a request waits for the token when no valid token is cached. By default it's 30 seconds.
+     * @param refreshTimeoutInMillis timeout in milliseconds
+     */
+    public void setRefreshTimeout(long refreshTimeoutInMillis) {
+        this.refreshTimeoutInMillis = refreshTimeoutInMillis;
+    }
+
+    private boolean isValid(OSSFederationToken token, long currentTime) {
+        return token != null && currentTime < token.getExpiration() - EXPIRATION_MARGIN_IN_SECONDS;
+    }
+
+    private boolean needsRefresh(OSSFederationToken token, long currentTime) {
+        return token == null
+                || currentTime >= token.getExpiration() - EXPIRATION_MARGIN_IN_SECONDS - refreshAheadInSeconds;
+    }
+
+    private boolean isBackingOff() {
+        long failedAt = refreshFailedAt;
+        return failedAt != 0 && System.currentTimeMillis() - failedAt < REFRESH_FAILURE_BACKOFF_IN_MILLIS;
+    }
+
+    private synchronized OSSFederationToken loadStoredToken() {
+        OSSFederationTokenStore store = tokenStore;
+        if (cachedToken == null && !storeLoaded && store != null) {
+            OSSFederationToken token = store.load();
+            if (isValid(token, DateUtil.getFixedSkewedTimeMillis() / 1000)) {
+                OSSLog.logDebug("restore stored token, expiration: " + token.getExpiration());
+                cachedToken = token;
+            }
+        }
+        storeLoaded = true;
+        return cachedToken;
+    }
+
+    private FutureTask<OSSFederationToken> startRefresh() {
+        FutureTask<OSSFederationToken> task;
+        synchronized (refreshLock) {
+            if (refreshTask != null) {
+                return refreshTask;
+            }
+            task = new FutureTask<OSSFederationToken>(new Callable<OSSFederationToken>() {
+                @Override
+                public OSSFederationToken call() throws Exception {
+                    OSSFederationToken token = null;
+                    try {
+                        token = getFederationToken();
+                    } finally {
+                        refreshFailedAt = token != null ? 0 : System.currentTimeMillis();
+                    }
+                    if (token != null) {
+                        cachedToken = token;
+                        OSSFederationTokenStore store = tokenStore;
+                        if (store != null) {
+                            store.save(token);
+                        }
+                    }
+                    return token;
+                }
+            }) {
+                @Override
+                protected void done() {
+                    synchronized (refreshLock) {
+                        if (refreshTask == this) {
+                            refreshTask = null;
+                        }
+                    }
+                }
+            };
+            refreshTask = task;
+        }
+        refreshExecutor.execute(task);
+        return task;
+    }
+
+    private OSSFederationToken waitForRefresh(FutureTask<OSSFederationToken> task) throws ClientException {
+        try {
+            return task.get(refreshTimeoutInMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ClientException("Timeout while fetching the federation token", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClientException("Interrupted while fetching the federation token", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ClientException) {
+                throw (ClientException) cause;
+            }
+            throw new ClientException(cause);
+        }
+    }
 }
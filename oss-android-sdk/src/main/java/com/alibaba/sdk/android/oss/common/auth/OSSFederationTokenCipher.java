@@ -0,0 +1,13 @@
+package com.alibaba.sdk.android.oss.common.auth;
+
+import java.security.GeneralSecurityException;
+
+/**
+ * Protects the stored STS token at rest, e.g. with a key kept in the Android Keystore.
+ */
+public interface OSSFederationTokenCipher {
+
+    byte[] encrypt(byte[] data) throws GeneralSecurityException;
+
+    byte[] decrypt(byte[] data) throws GeneralSecurityException;
+}
@@ -0,0 +1,26 @@
+package com.alibaba.sdk.android.oss.common.auth;
+
+/**
+ * Persists the STS token across process restarts, so the first request after a cold start can be signed
+ * without waiting for the auth server.
+ * Implementations are called from the token refresh thread and at client construction.
+ */
+public interface OSSFederationTokenStore {
+
+    /**
+     * Loads the stored token
+     * @return the stored token, or null if none is stored
+     */
+    OSSFederationToken load();
+
+    /**
+     * Stores the token, replacing the previous one
+     * @param token the newly fetched token
+     */
+    void save(OSSFederationToken token);
+
+    /**
+     * Removes the stored token
+     */
+    void clear();
+}
@@ -0,0 +1,105 @@
+package com.alibaba.sdk.android.oss.common.auth;
+
+import com.alibaba.sdk.android.oss.common.OSSConstants;
+import com.alibaba.sdk.android.oss.common.OSSLog;
+import com.alibaba.sdk.android.oss.common.utils.IOUtils;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Stores the STS token in a local file, e.g. under Context.getFilesDir().
+ * Without a cipher the token is written as plain json, so set one unless the file is private to the app.
+ */
+public class OSSFileFederationTokenStore implements OSSFederationTokenStore {
+
+    private static final String KEY_ACCESS_KEY_ID = "AccessKeyId";
+    private static final String KEY_ACCESS_KEY_SECRET = "AccessKeySecret";
+    private static final String KEY_SECURITY_TOKEN = "SecurityToken";
+    private static final String KEY_EXPIRATION = "Expiration";
+
+    private final File file;
+    private final OSSFederationTokenCipher cipher;
+
+    public OSSFileFederationTokenStore(File file) {
+        this(file, null);
+    }
+
+    public OSSFileFederationTokenStore(File file, OSSFederationTokenCipher cipher) {
+        if (file == null) {
+            throw new IllegalArgumentException("file can't be null.");
+        }
+        this.file = file;
+        this.cipher = cipher;
+    }
+
+    @Override
+    public synchronized OSSFederationToken load() {
+        if (!file.exists()) {
+            return null;
+        }
+        FileInputStream input = null;
+        try {
+            input = new FileInputStream(file);
+            byte[] data = IOUtils.readStreamAsBytesArray(input);
+            if (cipher != null) {
+                data = cipher.decrypt(data);
+            }
+            JSONObject jsonObj = new JSONObject(new String(data, OSSConstants.DEFAULT_CHARSET_NAME));
+            return new OSSFederationToken(jsonObj.getString(KEY_ACCESS_KEY_ID),
+                    jsonObj.getString(KEY_ACCESS_KEY_SECRET),
+                    jsonObj.getString(KEY_SECURITY_TOKEN),
+                    jsonObj.getLong(KEY_EXPIRATION));
+        } catch (Exception e) {
+            OSSLog.logWarn("[load] - read stored token failed: " + e.toString());
+            file.delete();
+            return null;
+        } finally {
+            IOUtils.safeClose(input);
+        }
+    }
+
+    @Override
+    public synchronized void save(OSSFederationToken token) {
+        File tempFile = new File(file.getPath() + ".tmp");
+        FileOutputStream output = null;
+        try {
+            JSONObject jsonObj = new JSONObject();
+            jsonObj.put(KEY_ACCESS_KEY_ID, token.getTempAK());
+            jsonObj.put(KEY_ACCESS_KEY_SECRET, token.getTempSK());
+            jsonObj.put(KEY_SECURITY_TOKEN, token.getSecurityToken());
+            jsonObj.put(KEY_EXPIRATION, token.getExpiration());
+            byte[] data = jsonObj.toString().getBytes(OSSConstants.DEFAULT_CHARSET_NAME);
+            if (cipher != null) {
+                data = cipher.encrypt(data);
+            }
+
+            File parent = file.getParentFile();
+            if (parent != null && !parent.exists()) {
+                parent.mkdirs();
+            }
+            output = new FileOutputStream(tempFile);
+            output.write(data);
+            output.getFD().sync();
+            output.close();
+            output = null;
+            if (!tempFile.renameTo(file)) {
+                throw new IOException("rename " + tempFile.getPath() + " failed");
+            }
+        } catch (Exception e) {
+            OSSLog.logWarn("[save] - store token failed: " + e.toString());
+            tempFile.delete();
+        } finally {
+            IOUtils.safeClose(output);
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        file.delete();
+    }
+}
@@ -8,6 +8,7 @@
 package com.alibaba.sdk.android.oss.common.utils;
 
 import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -36,6 +37,22 @@ public class HttpUtil {
         }
     }
 
+    /**
+     * Decode a URL segment encoded by OSS, e.g. the keys of a listing with the "url" encoding type.
+     */
+    public static String urlDecode(String value, String encoding) {
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            // a "+" is kept as it is, only "%20" is a space
+            return URLDecoder.decode(value.replace("+", "%2B"), encoding);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("failed to decode url!", e);
+        }
+    }
+
     /**
      * Encode request parameters to URL segment.
      */
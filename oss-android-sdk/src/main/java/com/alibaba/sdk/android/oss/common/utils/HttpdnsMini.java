@@ -1,30 +1,48 @@
 package com.alibaba.sdk.android.oss.common.utils;
 
+import com.alibaba.sdk.android.oss.common.OSSConstants;
 import com.alibaba.sdk.android.oss.common.OSSLog;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
+import java.net.InetAddress;
 import java.net.URL;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.regex.Pattern;
+
+import okhttp3.Dns;
 
 
 /**
  * @author: zhouzhuo
  * Jun 20, 2015
  *
+ * HttpDNS resolver plugged into okhttp. It returns all the IPv4 and IPv6 addresses from the HttpDNS server,
+ * and okhttp fails over to the next address when connecting to one fails.
+ * An expired result is still returned while it's refreshed in the background; hosts that were never resolved
+ * go through the system DNS until the background query finishes.
  */
-public class HttpdnsMini {
-
+public class HttpdnsMini implements Dns {
 
     private static final String TAG = "HttpDnsMini";
     private static final String SERVER_IP = "203.107.1.1";
@@ -33,77 +51,92 @@ public class HttpdnsMini {
     private static final int RESOLVE_TIMEOUT_IN_SEC = 10;
     private static final int MAX_HOLD_HOST_NUM = 100;
     private static final int EMPTY_RESULT_HOST_TTL = 30;
-    private static HttpdnsMini instance;
-    private ConcurrentMap<String, HostObject> hostManager = new ConcurrentHashMap<String, HostObject>();
-    private ExecutorService pool = Executors.newFixedThreadPool(MAX_THREAD_NUM);
+    // 一个域名解析结果过期后，仍然可以返回这个结果，但最多可以容忍过期10分钟
+    private static final int STALE_TOLERANCE_IN_SEC = 10 * 60;
+    private static final Pattern IPV4_PATTERN = Pattern.compile("^\\d{1,3}(\\.\\d{1,3}){3}$");
 
-    class HostObject {
+    private static final Map<String, HttpdnsMini> instances = new HashMap<String, HttpdnsMini>();
 
+    private static ExecutorService pool = Executors.newFixedThreadPool(MAX_THREAD_NUM, new ThreadFactory() {
         @Override
-        public String toString() {
-            return "[hostName=" + getHostName() + ", ip=" + ip + ", ttl=" + getTtl() + ", queryTime="
-                    + queryTime + "]";
+        public Thread newThread(Runnable r) {
+            return new Thread(r, "oss-android-httpdns-thread");
         }
+    });
 
-        private String hostName;
-        private String ip;
-        private long ttl;
-        private long queryTime;
+    private final String serverAddress;
 
-        public boolean isExpired() {
-            return getQueryTime() + ttl < System.currentTimeMillis() / 1000;
+    // LRU of the resolved hosts, guarded by this
+    private final Map<String, HostObject> hostManager = new LinkedHashMap<String, HostObject>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, HostObject> eldest) {
+            return size() > MAX_HOLD_HOST_NUM;
         }
+    };
 
-        // 一个域名解析结果过期后，异步接口仍然可以返回这个结果，但最多可以容忍过期10分钟
-        public boolean isStillAvailable() {
-            return getQueryTime() + ttl + 10 * 60 > System.currentTimeMillis() / 1000;
-        }
+    // hosts being queried, guarded by this
+    private final Set<String> resolvingHosts = new HashSet<String>();
 
-        public String getIp() {
-            return ip;
-        }
+    // the file keeping the resolved hosts across process restarts, null means not persisted
+    private volatile File cacheFile;
 
-        public void setIp(String ip) {
-            this.ip = ip;
-        }
+    private final Object persistLock = new Object();
 
-        public void setHostName(String hostName) {
-            this.hostName = hostName;
-        }
+    static class HostObject {
+
+        private final String hostName;
+        private final List<InetAddress> addresses;
+        private final long ttl;
+        private final long queryTime;
 
-        public String getHostName() {
-            return hostName;
+        HostObject(String hostName, List<InetAddress> addresses, long ttl, long queryTime) {
+            this.hostName = hostName;
+            this.addresses = addresses;
+            this.ttl = ttl;
+            this.queryTime = queryTime;
         }
 
-        public long getTtl() {
-            return ttl;
+        @Override
+        public String toString() {
+            return "[hostName=" + hostName + ", addresses=" + addresses + ", ttl=" + ttl + ", queryTime="
+                    + queryTime + "]";
         }
 
-        public void setTtl(long ttl) {
-            this.ttl = ttl;
+        public boolean isExpired() {
+            return queryTime + ttl < System.currentTimeMillis() / 1000;
         }
 
-        public long getQueryTime() {
-            return queryTime;
+        public boolean isStillAvailable() {
+            return queryTime + ttl + STALE_TOLERANCE_IN_SEC > System.currentTimeMillis() / 1000;
         }
 
-        public void setQueryTime(long queryTime) {
-            this.queryTime = queryTime;
+        public List<InetAddress> getAddresses() {
+            return addresses;
         }
     }
 
-    class QueryHostTask implements Callable<String> {
+    class QueryHostTask implements Runnable {
         private String hostName;
-        private boolean hasRetryed = false;
 
         public QueryHostTask(String hostToQuery) {
             this.hostName = hostToQuery;
         }
 
         @Override
-        public String call() {
-            String chooseServerAddress = SERVER_IP;
-            String resolveUrl = "http://" + chooseServerAddress + "/" + ACCOUNT_ID + "/d?host=" + hostName;
+        public void run() {
+            try {
+                if (query() == null) {
+                    query();
+                }
+            } finally {
+                synchronized (HttpdnsMini.this) {
+                    resolvingHosts.remove(hostName);
+                }
+            }
+        }
+
+        private HostObject query() {
+            String resolveUrl = "http://" + serverAddress + "/" + ACCOUNT_ID + "/d?host=" + hostName + "&query=4,6";
             InputStream in = null;
             OSSLog.logDebug("[httpdnsmini] - buildUrl: " + resolveUrl);
             try {
@@ -121,28 +154,22 @@ public class HttpdnsMini {
                         sb.append(line);
                     }
                     JSONObject json = new JSONObject(sb.toString());
-                    String host = json.getString("host");
-                    long ttl = json.getLong("ttl");
-                    JSONArray ips = json.getJSONArray("ips");
-                    OSSLog.logDebug("[httpdnsmini] - ips:" + ips.toString());
-                    if (host != null && ips != null && ips.length() > 0) {
-                        if (ttl == 0) {
-                            // 如果有结果返回，但是ip列表为空，ttl也为空，那默认没有ip就是解析结果，并设置ttl为一个较长的时间
-                            // 避免一直请求同一个ip冲击sever
-                            ttl = EMPTY_RESULT_HOST_TTL;
-                        }
-                        HostObject hostObject = new HostObject();
-                        String ip = (ips == null) ? null : ips.getString(0);
-                        hostObject.setHostName(host);
-                        hostObject.setTtl(ttl);
-                        hostObject.setIp(ip);
-                        hostObject.setQueryTime(System.currentTimeMillis() / 1000);
-                        OSSLog.logDebug("[httpdnsmini] - resolve result:" + hostObject.toString());
-                        if (hostManager.size() < MAX_HOLD_HOST_NUM) {
-                            hostManager.put(hostName, hostObject);
-                        }
-                        return ip;
+                    long ttl = json.optLong("ttl");
+                    List<InetAddress> addresses = toAddresses(hostName,
+                            json.optJSONArray("ips"), json.optJSONArray("ipsv6"));
+                    OSSLog.logDebug("[httpdnsmini] - addresses:" + addresses);
+                    if (ttl == 0 || addresses.isEmpty()) {
+                        // 如果有结果返回，但是ip列表为空，ttl也为空，那默认没有ip就是解析结果，并设置ttl为一个较长的时间
+                        // 避免一直请求同一个ip冲击sever
+                        ttl = EMPTY_RESULT_HOST_TTL;
+                    }
+                    HostObject hostObject = new HostObject(hostName, addresses, ttl, System.currentTimeMillis() / 1000);
+                    OSSLog.logDebug("[httpdnsmini] - resolve result:" + hostObject.toString());
+                    synchronized (HttpdnsMini.this) {
+                        hostManager.put(hostName, hostObject);
                     }
+                    persistHosts();
+                    return hostObject;
                 }
             } catch (Exception e) {
                 if (OSSLog.isEnableLog()) {
@@ -158,36 +185,228 @@ public class HttpdnsMini {
                     e.printStackTrace();
                 }
             }
-            if (!hasRetryed) {
-                hasRetryed = true;
-                return call();
-            }
             return null;
         }
     }
 
-    private HttpdnsMini() {}
+    private HttpdnsMini(String serverAddress) {
+        this.serverAddress = serverAddress;
+    }
 
     public static HttpdnsMini getInstance() {
-        if(instance == null){
-            synchronized (HttpdnsMini.class) {
-                if (instance == null) {
-                    instance = new HttpdnsMini();
-                }
+        return getInstance(null);
+    }
+
+    /**
+     * Gets the resolver using the given HttpDNS server
+     * @param serverAddress host[:port] of the HttpDNS server, null means the default one
+     */
+    public static HttpdnsMini getInstance(String serverAddress) {
+        if (serverAddress == null) {
+            serverAddress = SERVER_IP;
+        }
+        synchronized (instances) {
+            HttpdnsMini instance = instances.get(serverAddress);
+            if (instance == null) {
+                instance = new HttpdnsMini(serverAddress);
+                instances.put(serverAddress, instance);
             }
+            return instance;
         }
-        return instance;
     }
 
-    public String getIpByHostAsync(String hostName) {
-        HostObject host = hostManager.get(hostName);
+    @Override
+    public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+        if (hostname == null) {
+            throw new UnknownHostException("hostname == null");
+        }
+        if (!isIpAddress(hostname)) {
+            List<InetAddress> addresses = getAddressesByHostAsync(hostname);
+            if (addresses != null && !addresses.isEmpty()) {
+                return addresses;
+            }
+        }
+        return Dns.SYSTEM.lookup(hostname);
+    }
+
+    /**
+     * Gets the cached addresses of the host, and refreshes them in the background when they are expired.
+     * @return the addresses, or null if the host has not been resolved yet
+     */
+    public List<InetAddress> getAddressesByHostAsync(String hostName) {
+        HostObject host;
+        synchronized (this) {
+            host = hostManager.get(hostName);
+        }
         if (host == null || host.isExpired()) {
-            OSSLog.logDebug("[httpdnsmini] - refresh host: " + hostName);
-            pool.submit(new QueryHostTask(hostName));
+            refreshHost(hostName);
         }
-        if (host != null) {
-            return (host.isStillAvailable() ? host.getIp() : null);
+        if (host != null && host.isStillAvailable()) {
+            return host.getAddresses();
         }
         return null;
     }
-}
\ No newline at end of file
+
+    /**
+     * Starts resolving the hosts in the background, so the first requests to them don't wait for the DNS.
+     * Hosts having a valid result are skipped.
+     */
+    public void preResolve(List<String> hostNames) {
+        for (String hostName : hostNames) {
+            getAddressesByHostAsync(hostName);
+        }
+    }
+
+    /**
+     * Persists the resolved hosts with their ttl in the file, and restores the still usable ones from it.
+     * @param file the cache file, e.g. under Context.getCacheDir()
+     */
+    public void setCacheFile(File file) {
+        synchronized (this) {
+            if (file.equals(cacheFile)) {
+                return;
+            }
+            cacheFile = file;
+        }
+        restoreHosts(file);
+    }
+
+    public String getIpByHostAsync(String hostName) {
+        List<InetAddress> addresses = getAddressesByHostAsync(hostName);
+        if (addresses == null || addresses.isEmpty()) {
+            return null;
+        }
+        return addresses.get(0).getHostAddress();
+    }
+
+    private void refreshHost(String hostName) {
+        synchronized (this) {
+            if (!resolvingHosts.add(hostName)) {
+                return;
+            }
+        }
+        OSSLog.logDebug("[httpdnsmini] - refresh host: " + hostName);
+        pool.execute(new QueryHostTask(hostName));
+    }
+
+    private void restoreHosts(File file) {
+        if (!file.exists()) {
+            return;
+        }
+        FileInputStream input = null;
+        try {
+            input = new FileInputStream(file);
+            JSONArray hosts = new JSONArray(IOUtils.readStreamAsString(input, OSSConstants.DEFAULT_CHARSET_NAME));
+            int restored = 0;
+            for (int i = 0; i < hosts.length(); i++) {
+                JSONObject json = hosts.getJSONObject(i);
+                String hostName = json.getString("host");
+                HostObject hostObject = new HostObject(hostName, Collections.unmodifiableList(
+                        parseIps(hostName, json.getJSONArray("ips"))), json.getLong("ttl"), json.getLong("queryTime"));
+                if (!hostObject.isStillAvailable() || hostObject.getAddresses().isEmpty()) {
+                    continue;
+                }
+                synchronized (this) {
+                    if (!hostManager.containsKey(hostName)) {
+                        hostManager.put(hostName, hostObject);
+                        restored++;
+                    }
+                }
+            }
+            OSSLog.logDebug("[httpdnsmini] - restored hosts: " + restored);
+        } catch (Exception e) {
+            OSSLog.logWarn("[httpdnsmini] - restore hosts failed: " + e.toString());
+            file.delete();
+        } finally {
+            IOUtils.safeClose(input);
+        }
+    }
+
+    private void persistHosts() {
+        File file = cacheFile;
+        if (file == null) {
+            return;
+        }
+        List<HostObject> hosts;
+        synchronized (this) {
+            hosts = new ArrayList<HostObject>(hostManager.values());
+        }
+        synchronized (persistLock) {
+            File tempFile = new File(file.getPath() + ".tmp");
+            FileOutputStream output = null;
+            try {
+                JSONArray jsonHosts = new JSONArray();
+                for (HostObject host : hosts) {
+                    if (host.getAddresses().isEmpty()) {
+                        continue;
+                    }
+                    JSONArray ips = new JSONArray();
+                    for (InetAddress address : host.getAddresses()) {
+                        ips.put(address.getHostAddress());
+                    }
+                    JSONObject json = new JSONObject();
+                    json.put("host", host.hostName);
+                    json.put("ips", ips);
+                    json.put("ttl", host.ttl);
+                    json.put("queryTime", host.queryTime);
+                    jsonHosts.put(json);
+                }
+                output = new FileOutputStream(tempFile);
+                output.write(jsonHosts.toString().getBytes(OSSConstants.DEFAULT_CHARSET_NAME));
+                output.close();
+                output = null;
+                if (!tempFile.renameTo(file)) {
+                    throw new IOException("rename " + tempFile.getPath() + " failed");
+                }
+            } catch (Exception e) {
+                OSSLog.logWarn("[httpdnsmini] - persist hosts failed: " + e.toString());
+                tempFile.delete();
+            } finally {
+                IOUtils.safeClose(output);
+            }
+        }
+    }
+
+    private static boolean isIpAddress(String host) {
+        return host.indexOf(':') >= 0 || IPV4_PATTERN.matcher(host).matches();
+    }
+
+    /**
+     * Converts the ips to addresses, alternating IPv4 and IPv6 so that okhttp tries the other family early
+     * when one of them is not reachable.
+     */
+    private static List<InetAddress> toAddresses(String hostName, JSONArray ips, JSONArray ipsV6) throws Exception {
+        List<InetAddress> v4 = parseIps(hostName, ips);
+        List<InetAddress> v6 = parseIps(hostName, ipsV6);
+        if (v6.isEmpty()) {
+            return Collections.unmodifiableList(v4);
+        }
+        List<InetAddress> addresses = new ArrayList<InetAddress>(v4.size() + v6.size());
+        for (int i = 0; i < Math.max(v4.size(), v6.size()); i++) {
+            if (i < v4.size()) {
+                addresses.add(v4.get(i));
+            }
+            if (i < v6.size()) {
+                addresses.add(v6.get(i));
+            }
+        }
+        return Collections.unmodifiableList(addresses);
+    }
+
+    private static List<InetAddress> parseIps(String hostName, JSONArray ips) throws Exception {
+        List<InetAddress> addresses = new ArrayList<InetAddress>();
+        if (ips == null) {
+            return addresses;
+        }
+        for (int i = 0; i < ips.length(); i++) {
+            String ip = ips.getString(i);
+            if (!isIpAddress(ip)) {
+                continue;
+            }
+            // getByName does not query the DNS for an ip literal
+            InetAddress address = InetAddress.getByName(ip);
+            addresses.add(InetAddress.getByAddress(hostName, address.getAddress()));
+        }
+        return addresses;
+    }
+}
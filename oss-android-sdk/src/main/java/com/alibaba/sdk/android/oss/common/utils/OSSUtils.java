@@ -20,13 +20,16 @@ import com.alibaba.sdk.android.oss.common.auth.OSSFederationToken;
 import com.alibaba.sdk.android.oss.common.auth.OSSPlainTextAKSKCredentialProvider;
 import com.alibaba.sdk.android.oss.common.auth.OSSStsTokenCredentialProvider;
 import com.alibaba.sdk.android.oss.internal.RequestMessage;
+import com.alibaba.sdk.android.oss.internal.ResponseParsers;
 import com.alibaba.sdk.android.oss.model.CopyObjectRequest;
 import com.alibaba.sdk.android.oss.model.DeleteBucketRequest;
+import com.alibaba.sdk.android.oss.model.DeleteMultipleObjectRequest;
 import com.alibaba.sdk.android.oss.model.GetBucketACLRequest;
 import com.alibaba.sdk.android.oss.model.ListObjectsRequest;
 import com.alibaba.sdk.android.oss.model.OSSRequest;
 import com.alibaba.sdk.android.oss.model.ObjectMetadata;
 import com.alibaba.sdk.android.oss.model.PartETag;
+import com.alibaba.sdk.android.oss.model.UploadPartCopyRequest;
 import com.alibaba.sdk.android.oss.model.CreateBucketRequest;
 
 import org.json.JSONObject;
@@ -34,7 +37,10 @@ import org.json.JSONObject;
 import static com.alibaba.sdk.android.oss.common.RequestParameters.*;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
@@ -193,6 +199,26 @@ public class OSSUtils {
         removeHeader(headers, HttpHeaders.CONTENT_LENGTH);
     }
 
+    public static void populateUploadPartCopyHeaders(UploadPartCopyRequest uploadPartCopyRequest,
+                                                     Map<String, String> headers) {
+        String copySourceHeader = "/" + uploadPartCopyRequest.getSourceBucketName() + "/"
+                + HttpUtil.urlEncode(uploadPartCopyRequest.getSourceKey(), OSSConstants.DEFAULT_CHARSET_NAME);
+        headers.put(OSSHeaders.COPY_OBJECT_SOURCE, copySourceHeader);
+
+        if (uploadPartCopyRequest.getBeginIndex() >= 0) {
+            long endIndex = uploadPartCopyRequest.getBeginIndex() + uploadPartCopyRequest.getPartSize() - 1;
+            headers.put(OSSHeaders.COPY_SOURCE_RANGE, "bytes=" + uploadPartCopyRequest.getBeginIndex() + "-" + endIndex);
+        }
+
+        // the ETag is sent quoted, the way the server returns it
+        String matchingETag = uploadPartCopyRequest.getMatchingETag();
+        if (matchingETag != null) {
+            headers.put(OSSHeaders.COPY_OBJECT_SOURCE_IF_MATCH, "\"" + ResponseParsers.trimQuotes(matchingETag) + "\"");
+        }
+
+        removeHeader(headers, HttpHeaders.CONTENT_LENGTH);
+    }
+
     public static String buildXMLFromPartEtagList(List<PartETag> partETagList) {
         StringBuilder builder = new StringBuilder();
         builder.append("<CompleteMultipartUpload>\n");
@@ -206,6 +232,49 @@ public class OSSUtils {
         return builder.toString();
     }
 
+    /**
+     * Writes the request body of DeleteMultipleObjects to the stream, without building it as a string first.
+     */
+    public static void writeDeleteMultipleObjectXML(List<String> objectKeys, boolean quiet, OutputStream out)
+            throws IOException {
+        Writer writer = new OutputStreamWriter(out, OSSConstants.DEFAULT_CHARSET_NAME);
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        writer.write("<Delete>\n");
+        writer.write("<Quiet>" + quiet + "</Quiet>\n");
+        for (String objectKey : objectKeys) {
+            writer.write("<Object>\n<Key>");
+            writeEscapedXML(writer, objectKey);
+            writer.write("</Key>\n</Object>\n");
+        }
+        writer.write("</Delete>\n");
+        writer.flush();
+    }
+
+    private static void writeEscapedXML(Writer writer, String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&':
+                    writer.write("&amp;");
+                    break;
+                case '<':
+                    writer.write("&lt;");
+                    break;
+                case '>':
+                    writer.write("&gt;");
+                    break;
+                case '"':
+                    writer.write("&quot;");
+                    break;
+                case '\'':
+                    writer.write("&apos;");
+                    break;
+                default:
+                    writer.write(c);
+            }
+        }
+    }
+
     public static void addHeader(Map<String, String> headers, String header, String value) {
         if (value != null) {
             headers.put(header, value);
@@ -508,7 +577,8 @@ public class OSSUtils {
         if (request instanceof ListObjectsRequest
                 || request instanceof CreateBucketRequest
                 || request instanceof DeleteBucketRequest
-                || request instanceof GetBucketACLRequest) {
+                || request instanceof GetBucketACLRequest
+                || request instanceof DeleteMultipleObjectRequest) {
             return false;
         } else {
             return true;
@@ -524,6 +594,22 @@ public class OSSUtils {
         if (request instanceof CopyObjectRequest) {
             ensureObjectKeyValid(((CopyObjectRequest) request).getDestinationKey());
         }
+
+        if (request instanceof UploadPartCopyRequest) {
+            ensureBucketNameValid(((UploadPartCopyRequest) request).getSourceBucketName());
+            ensureObjectKeyValid(((UploadPartCopyRequest) request).getSourceKey());
+        }
+
+        if (request instanceof DeleteMultipleObjectRequest) {
+            List<String> objectKeys = ((DeleteMultipleObjectRequest) request).getObjectKeys();
+            if (objectKeys.isEmpty() || objectKeys.size() > DeleteMultipleObjectRequest.MAX_OBJECT_COUNT) {
+                throw new IllegalArgumentException("The count of the objects to delete should be in [1, "
+                        + DeleteMultipleObjectRequest.MAX_OBJECT_COUNT + "]");
+            }
+            for (String objectKey : objectKeys) {
+                ensureObjectKeyValid(objectKey);
+            }
+        }
     }
 
     public static String determineContentType(String initValue, String srcPath, String toObjectKey) {
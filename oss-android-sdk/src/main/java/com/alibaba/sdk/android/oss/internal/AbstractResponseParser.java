@@ -5,12 +5,7 @@ import com.alibaba.sdk.android.oss.common.OSSLog;
 import com.alibaba.sdk.android.oss.model.OSSResult;
 
 import java.io.IOException;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
-import java.util.HashMap;
-import java.util.Map;
 
-import okhttp3.Headers;
 import okhttp3.Response;
 
 /**
@@ -27,6 +22,12 @@ public abstract class AbstractResponseParser<T extends OSSResult>  implements Re
      */
     abstract T parseData(Response response,T result) throws Exception;
 
+    /**
+     * 创建空的业务对象，子类直接new出对应的结果类型，避免每次响应都走反射
+     * @return 待填充的业务对象
+     */
+    abstract T createResult();
+
     public boolean needCloseResponse(){
         return true;
     }
@@ -34,13 +35,11 @@ public abstract class AbstractResponseParser<T extends OSSResult>  implements Re
     @Override
     public T parse(Response response) throws IOException {
         try{
-            Type type = ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[0];
-            Class<?> classType = (Class<?>) type;
-            T result = (T) classType.newInstance();
+            T result = createResult();
             if(result!=null) {
                 result.setRequestId(response.header(OSSHeaders.OSS_HEADER_REQUEST_ID));
                 result.setStatusCode(response.code());
-                result.setResponseHeader(parseResponseHeader(response));
+                result.setResponseHeader(new ResponseHeaderMap(response.headers()));
                 result = parseData(response, result);
             }
             return result;
@@ -63,14 +62,4 @@ public abstract class AbstractResponseParser<T extends OSSResult>  implements Re
         } catch(Exception e) {
         }
     }
-
-    //处理返回信息的信息头
-    private Map<String, String> parseResponseHeader(Response response) {
-        Map<String, String> result = new HashMap<String, String>();
-        Headers headers = response.headers();
-        for (int i = 0; i < headers.size(); i++) {
-            result.put(headers.name(i), headers.value(i));
-        }
-        return result;
-    }
 }
@@ -160,16 +160,7 @@ public abstract class BaseMultipartUploadTask<Request extends MultipartUploadReq
 
             UploadPartResult uploadPartResult = mApiOperation.uploadPart(uploadPart, null).getResult();
 
-            //check isComplete
-            synchronized (mLock) {
-                mPartETags.add(new PartETag(uploadPart.getPartNumber(), uploadPartResult.getETag()));
-                mUploadedLength += byteCount;
-
-                if (mPartETags.size() == (partNumber - mPartExceptionCount)) {
-                    notifyMultipartThread();
-                }
-                onProgressCallback(mRequest, mUploadedLength, mFileLength);
-            }
+            onPartCompleted(new PartETag(uploadPart.getPartNumber(), uploadPartResult.getETag()), byteCount, partNumber);
 
         } catch (Exception e) {
             processException(e);
@@ -183,6 +174,25 @@ public abstract class BaseMultipartUploadTask<Request extends MultipartUploadReq
         }
     }
 
+    /**
+     * record the completed part and check isComplete
+     *
+     * @param partETag
+     * @param byteCount
+     * @param partNumber
+     */
+    protected void onPartCompleted(PartETag partETag, int byteCount, int partNumber) {
+        synchronized (mLock) {
+            mPartETags.add(partETag);
+            mUploadedLength += byteCount;
+
+            if (mPartETags.size() == (partNumber - mPartExceptionCount)) {
+                notifyMultipartThread();
+            }
+            onProgressCallback(mRequest, mUploadedLength, mFileLength);
+        }
+    }
+
     abstract protected void processException(Exception e);
 
     /**
@@ -0,0 +1,135 @@
+package com.alibaba.sdk.android.oss.internal;
+
+import com.alibaba.sdk.android.oss.common.OSSConstants;
+import com.alibaba.sdk.android.oss.common.OSSLog;
+import com.alibaba.sdk.android.oss.common.utils.IOUtils;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the regional endpoint host of the buckets which do not belong to the region of the client's endpoint,
+ * as told by the redirect errors of the server, so that the later requests go to the right region directly.
+ * It's optionally kept in a file across process restarts.
+ */
+public class BucketEndpointCache {
+
+    private static final int MAX_BUCKET_NUM = 100;
+
+    private final Map<String, String> endpoints = new LinkedHashMap<String, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_BUCKET_NUM;
+        }
+    };
+
+    private final Object persistLock = new Object();
+
+    // the file keeping the endpoints across process restarts, null means not persisted
+    private volatile File cacheFile;
+
+    /**
+     * @return the endpoint host of the bucket, null if it's not known
+     */
+    public synchronized String get(String bucketName) {
+        return endpoints.get(bucketName);
+    }
+
+    /**
+     * Records the endpoint host of the bucket, e.g. 'oss-cn-hangzhou.aliyuncs.com'.
+     */
+    public void put(String bucketName, String endpointHost) {
+        synchronized (this) {
+            if (endpointHost.equals(endpoints.put(bucketName, endpointHost))) {
+                return;
+            }
+        }
+        OSSLog.logDebug("[BucketEndpointCache] - " + bucketName + " is located at " + endpointHost);
+        persistEndpoints();
+    }
+
+    public void remove(String bucketName) {
+        synchronized (this) {
+            if (endpoints.remove(bucketName) == null) {
+                return;
+            }
+        }
+        persistEndpoints();
+    }
+
+    /**
+     * Persists the endpoints in the file and restores the ones kept in it.
+     * @param file the cache file, e.g. under Context.getCacheDir()
+     */
+    public void setCacheFile(File file) {
+        synchronized (this) {
+            if (file.equals(cacheFile)) {
+                return;
+            }
+            cacheFile = file;
+        }
+        restoreEndpoints(file);
+    }
+
+    private void restoreEndpoints(File file) {
+        if (!file.exists()) {
+            return;
+        }
+        FileInputStream input = null;
+        try {
+            input = new FileInputStream(file);
+            JSONObject json = new JSONObject(IOUtils.readStreamAsString(input, OSSConstants.DEFAULT_CHARSET_NAME));
+            Iterator<?> buckets = json.keys();
+            synchronized (this) {
+                while (buckets.hasNext()) {
+                    String bucketName = (String) buckets.next();
+                    if (!endpoints.containsKey(bucketName)) {
+                        endpoints.put(bucketName, json.getString(bucketName));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            OSSLog.logWarn("[BucketEndpointCache] - restore endpoints failed: " + e.toString());
+            file.delete();
+        } finally {
+            IOUtils.safeClose(input);
+        }
+    }
+
+    private void persistEndpoints() {
+        File file = cacheFile;
+        if (file == null) {
+            return;
+        }
+        Map<String, String> snapshot;
+        synchronized (this) {
+            snapshot = new HashMap<String, String>(endpoints);
+        }
+        synchronized (persistLock) {
+            File tempFile = new File(file.getPath() + ".tmp");
+            FileOutputStream output = null;
+            try {
+                output = new FileOutputStream(tempFile);
+                output.write(new JSONObject(snapshot).toString().getBytes(OSSConstants.DEFAULT_CHARSET_NAME));
+                output.close();
+                output = null;
+                if (!tempFile.renameTo(file)) {
+                    throw new IOException("rename " + tempFile.getPath() + " failed");
+                }
+            } catch (Exception e) {
+                OSSLog.logWarn("[BucketEndpointCache] - persist endpoints failed: " + e.toString());
+                tempFile.delete();
+            } finally {
+                IOUtils.safeClose(output);
+            }
+        }
+    }
+}
@@ -0,0 +1,546 @@
+package com.alibaba.sdk.android.oss.internal;
+
+import com.alibaba.sdk.android.oss.ClientException;
+import com.alibaba.sdk.android.oss.ServiceException;
+import com.alibaba.sdk.android.oss.common.OSSHeaders;
+import com.alibaba.sdk.android.oss.common.OSSLog;
+import com.alibaba.sdk.android.oss.common.utils.DateUtil;
+import com.alibaba.sdk.android.oss.common.utils.IOUtils;
+import com.alibaba.sdk.android.oss.model.AppendObjectRequest;
+import com.alibaba.sdk.android.oss.model.CompleteMultipartUploadRequest;
+import com.alibaba.sdk.android.oss.model.CopyObjectRequest;
+import com.alibaba.sdk.android.oss.model.DeleteMultipleObjectRequest;
+import com.alibaba.sdk.android.oss.model.DeleteMultipleObjectResult;
+import com.alibaba.sdk.android.oss.model.DeleteObjectRequest;
+import com.alibaba.sdk.android.oss.model.ListObjectsRequest;
+import com.alibaba.sdk.android.oss.model.ListObjectsResult;
+import com.alibaba.sdk.android.oss.model.OSSObjectSummary;
+import com.alibaba.sdk.android.oss.model.OSSRequest;
+import com.alibaba.sdk.android.oss.model.OSSResult;
+import com.alibaba.sdk.android.oss.model.PutObjectRequest;
+import com.alibaba.sdk.android.oss.model.PutObjectResult;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * A local index of the objects under a prefix of a bucket, with the key, size, ETag and last modified time
+ * of each object, to browse the directories ("/" delimited) without listing them every time.
+ * <p>
+ * Each directory is re-listed on its own when it's stale, see {@link #refreshStaleDirectories(long)}.
+ * The writes of this client (put, append, copy, multipart upload and delete) update the index directly,
+ * the objects whose new size isn't known are dropped and their directories become stale.
+ * <p>
+ * The index is kept in a compact binary file, which is written by the refreshes and {@link #save()}.
+ */
+public class BucketIndex {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final String DELIMITER = "/";
+    private static final int LIST_BUFFERED_PAGES = 2;
+    private static final int REBUILD_PARALLELISM = 4;
+
+    private final InternalRequestOperation operation;
+    private final String bucketName;
+    private final String prefix;
+    private final File indexFile;
+
+    // guarded by this, both in the order of a listing
+    private final TreeMap<String, Entry> objects = new TreeMap<String, Entry>(ObjectKeyComparator.INSTANCE);
+    // the time each directory was listed, 0 if it's known but never listed
+    private final TreeMap<String, Long> directories = new TreeMap<String, Long>(ObjectKeyComparator.INSTANCE);
+    private boolean dirty;
+    // the writes of the client are counted, and the keys written while a listing is in flight are kept with
+    // their count, so that the listing started before doesn't revert them
+    private long writeCount;
+    private int listingsInFlight;
+    private final Map<String, Long> recentWrites = new HashMap<String, Long>();
+
+    private final Object saveLock = new Object();
+
+    BucketIndex(InternalRequestOperation operation, String bucketName, String prefix, File indexFile) {
+        this.operation = operation;
+        this.bucketName = bucketName;
+        this.prefix = prefix != null ? prefix : "";
+        this.indexFile = indexFile;
+        if (indexFile != null) {
+            restore();
+        }
+        if (!directories.containsKey(this.prefix)) {
+            directories.put(this.prefix, 0L);
+        }
+    }
+
+    public String getBucketName() {
+        return bucketName;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * @return the indexed object, null if it's not indexed
+     */
+    public synchronized OSSObjectSummary getObject(String objectKey) {
+        Entry entry = objects.get(objectKey);
+        return entry != null ? entry.toSummary(bucketName, objectKey) : null;
+    }
+
+    /**
+     * Lists the directory from the index, as a listing with the "/" delimiter would do.
+     *
+     * @param directory the prefix of the directory ending with "/", or the prefix of the index
+     * @return the objects in the directory and its sub-directories as the common prefixes
+     */
+    public synchronized ListObjectsResult listDirectory(String directory) {
+        ListObjectsResult result = new ListObjectsResult();
+        result.setBucketName(bucketName);
+        result.setPrefix(directory);
+        result.setDelimiter(DELIMITER);
+        result.setTruncated(false);
+
+        String key = objects.ceilingKey(directory);
+        while (key != null && key.startsWith(directory)) {
+            int end = key.indexOf(DELIMITER, directory.length());
+            if (end < 0) {
+                result.addObjectSummary(objects.get(key).toSummary(bucketName, key));
+                key = objects.higherKey(key);
+            } else {
+                String subDirectory = key.substring(0, end + 1);
+                result.addCommonPrefix(subDirectory);
+                // skips the objects in the sub-directory
+                String subDirectoryEnd = prefixEnd(subDirectory);
+                key = subDirectoryEnd != null ? objects.ceilingKey(subDirectoryEnd) : null;
+            }
+        }
+        // the sub-directories found by a listing whose objects aren't indexed yet
+        for (String subDirectory : withPrefix(directories, directory).keySet()) {
+            int end = subDirectory.indexOf(DELIMITER, directory.length());
+            if (end == subDirectory.length() - 1 && !result.getCommonPrefixes().contains(subDirectory)) {
+                result.addCommonPrefix(subDirectory);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return true if the directory hasn't been listed within the max age
+     */
+    public synchronized boolean isStale(String directory, long maxAgeInMillis) {
+        Long listedAt = directories.get(directory);
+        return listedAt == null || System.currentTimeMillis() - listedAt > maxAgeInMillis;
+    }
+
+    /**
+     * Lists the directory again, and replaces its objects and sub-directories in the index.
+     * The objects in its sub-directories are kept, unless the sub-directories no longer exist.
+     * The objects written by the client during the listing keep their state in the index, and the directory
+     * stays stale, as the listing may not include the writes.
+     */
+    public void refreshDirectory(String directory) throws ClientException, ServiceException {
+        long listedAt = System.currentTimeMillis();
+        long startWriteCount = startListing();
+        try {
+            ListObjectsRequest request = new ListObjectsRequest(bucketName, directory, null, DELIMITER, 1000);
+            ListObjectsIterator iterator = new ListObjectsIterator(operation, request, LIST_BUFFERED_PAGES);
+            List<OSSObjectSummary> listedObjects = new ArrayList<OSSObjectSummary>();
+            Set<String> listedDirectories = new HashSet<String>();
+            while (iterator.hasNext()) {
+                ListObjectsResult page = iterator.next();
+                listedObjects.addAll(page.getObjectSummaries());
+                listedDirectories.addAll(page.getCommonPrefixes());
+            }
+
+            synchronized (this) {
+                Set<String> written = writtenSince(startWriteCount, directory);
+                ListObjectsResult indexed = listDirectory(directory);
+                for (OSSObjectSummary summary : indexed.getObjectSummaries()) {
+                    if (!written.contains(summary.getKey())) {
+                        objects.remove(summary.getKey());
+                    }
+                }
+                for (OSSObjectSummary summary : listedObjects) {
+                    if (!written.contains(summary.getKey())) {
+                        objects.put(summary.getKey(), toEntry(summary));
+                    }
+                }
+                for (String subDirectory : indexed.getCommonPrefixes()) {
+                    if (!listedDirectories.contains(subDirectory) && !containsPrefix(written, subDirectory)) {
+                        withPrefix(objects, subDirectory).clear();
+                        withPrefix(directories, subDirectory).clear();
+                    }
+                }
+                for (String subDirectory : listedDirectories) {
+                    if (!directories.containsKey(subDirectory)) {
+                        directories.put(subDirectory, 0L);
+                    }
+                }
+                directories.put(directory, written.isEmpty() ? listedAt : 0L);
+                dirty = true;
+            }
+        } finally {
+            finishListing();
+        }
+        save();
+    }
+
+    /**
+     * Refreshes the directories which haven't been listed within the max age, and the ones made stale
+     * by the writes of this client.
+     *
+     * @return the count of the directories refreshed
+     */
+    public int refreshStaleDirectories(long maxAgeInMillis) throws ClientException, ServiceException {
+        List<String> stale = new ArrayList<String>();
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            for (Map.Entry<String, Long> directory : directories.entrySet()) {
+                if (now - directory.getValue() > maxAgeInMillis) {
+                    stale.add(directory.getKey());
+                }
+            }
+        }
+        for (String directory : stale) {
+            refreshDirectory(directory);
+        }
+        return stale.size();
+    }
+
+    /**
+     * Lists all the objects under the prefix in parallel, and replaces the whole index.
+     */
+    public void rebuild() throws ClientException, ServiceException {
+        long listedAt = System.currentTimeMillis();
+        long startWriteCount = startListing();
+        try {
+            ParallelListObjectsIterator iterator = new ParallelListObjectsIterator(operation, bucketName, prefix,
+                    REBUILD_PARALLELISM, false);
+            TreeMap<String, Entry> listedObjects = new TreeMap<String, Entry>(ObjectKeyComparator.INSTANCE);
+            TreeMap<String, Long> listedDirectories = new TreeMap<String, Long>(ObjectKeyComparator.INSTANCE);
+            listedDirectories.put(prefix, listedAt);
+            while (iterator.hasNext()) {
+                for (OSSObjectSummary summary : iterator.next()) {
+                    String key = summary.getKey();
+                    listedObjects.put(key, toEntry(summary));
+                    for (int end = key.indexOf(DELIMITER, prefix.length()); end >= 0; end = key.indexOf(DELIMITER, end + 1)) {
+                        listedDirectories.put(key.substring(0, end + 1), listedAt);
+                    }
+                }
+            }
+            synchronized (this) {
+                // the objects written during the listing keep their state, and their directories stay stale
+                for (String key : writtenSince(startWriteCount, prefix)) {
+                    Entry entry = objects.get(key);
+                    if (entry != null) {
+                        listedObjects.put(key, entry);
+                    } else {
+                        listedObjects.remove(key);
+                    }
+                    listedDirectories.put(directoryOf(key), 0L);
+                }
+                objects.clear();
+                objects.putAll(listedObjects);
+                directories.clear();
+                directories.putAll(listedDirectories);
+                dirty = true;
+            }
+        } finally {
+            finishListing();
+        }
+        save();
+    }
+
+    /**
+     * Writes the index to its file, if it's changed since it was last written.
+     */
+    public void save() {
+        if (indexFile == null) {
+            return;
+        }
+        synchronized (saveLock) {
+            TreeMap<String, Entry> objectsSnapshot;
+            TreeMap<String, Long> directoriesSnapshot;
+            synchronized (this) {
+                if (!dirty) {
+                    return;
+                }
+                objectsSnapshot = new TreeMap<String, Entry>(objects);
+                directoriesSnapshot = new TreeMap<String, Long>(directories);
+                dirty = false;
+            }
+            File tempFile = new File(indexFile.getPath() + ".tmp");
+            DataOutputStream output = null;
+            try {
+                output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+                write(output, objectsSnapshot, directoriesSnapshot);
+                output.close();
+                output = null;
+                if (!tempFile.renameTo(indexFile)) {
+                    throw new IOException("rename " + tempFile.getPath() + " failed");
+                }
+            } catch (IOException e) {
+                OSSLog.logWarn("[BucketIndex] - save index failed: " + e.toString());
+                tempFile.delete();
+                synchronized (this) {
+                    dirty = true;
+                }
+            } finally {
+                IOUtils.safeClose(output);
+            }
+        }
+    }
+
+    /**
+     * Saves the index and stops updating it with the writes of the client.
+     */
+    public void close() {
+        operation.closeBucketIndex(this);
+        save();
+    }
+
+    /**
+     * Updates the index with a write of the client which has succeeded.
+     */
+    void onObjectWritten(OSSRequest request, OSSResult result) {
+        if (request instanceof PutObjectRequest) {
+            PutObjectRequest put = (PutObjectRequest) request;
+            long size = put.getUploadData() != null ? put.getUploadData().length
+                    : new File(put.getUploadFilePath()).length();
+            putObject(put.getBucketName(), put.getObjectKey(),
+                    new Entry(size, ((PutObjectResult) result).getETag(), serverTimeOf(result)));
+        } else if (request instanceof DeleteObjectRequest) {
+            DeleteObjectRequest delete = (DeleteObjectRequest) request;
+            removeObject(delete.getBucketName(), delete.getObjectKey(), false);
+        } else if (request instanceof DeleteMultipleObjectRequest) {
+            DeleteMultipleObjectRequest delete = (DeleteMultipleObjectRequest) request;
+            List<String> failed = ((DeleteMultipleObjectResult) result).getFailedObjects();
+            for (String objectKey : delete.getObjectKeys()) {
+                if (!failed.contains(objectKey)) {
+                    removeObject(delete.getBucketName(), objectKey, false);
+                }
+            }
+        } else if (request instanceof AppendObjectRequest) {
+            AppendObjectRequest append = (AppendObjectRequest) request;
+            removeObject(append.getBucketName(), append.getObjectKey(), true);
+        } else if (request instanceof CopyObjectRequest) {
+            CopyObjectRequest copy = (CopyObjectRequest) request;
+            removeObject(copy.getDestinationBucketName(), copy.getDestinationKey(), true);
+        } else if (request instanceof CompleteMultipartUploadRequest) {
+            CompleteMultipartUploadRequest complete = (CompleteMultipartUploadRequest) request;
+            removeObject(complete.getBucketName(), complete.getObjectKey(), true);
+        }
+    }
+
+    private synchronized void putObject(String bucketName, String objectKey, Entry entry) {
+        if (!this.bucketName.equals(bucketName) || !objectKey.startsWith(prefix)) {
+            return;
+        }
+        objects.put(objectKey, entry);
+        recordWrite(objectKey);
+        String directory = directoryOf(objectKey);
+        if (!directories.containsKey(directory)) {
+            directories.put(directory, 0L);
+        }
+        dirty = true;
+    }
+
+    // the directory becomes stale when the object has changed but its new state isn't known
+    private synchronized void removeObject(String bucketName, String objectKey, boolean changed) {
+        if (!this.bucketName.equals(bucketName) || !objectKey.startsWith(prefix)) {
+            return;
+        }
+        objects.remove(objectKey);
+        recordWrite(objectKey);
+        if (changed) {
+            directories.put(directoryOf(objectKey), 0L);
+        }
+        dirty = true;
+    }
+
+    // called with the lock held
+    private void recordWrite(String objectKey) {
+        writeCount++;
+        if (listingsInFlight > 0) {
+            recentWrites.put(objectKey, writeCount);
+        }
+    }
+
+    private synchronized long startListing() {
+        listingsInFlight++;
+        return writeCount;
+    }
+
+    private synchronized void finishListing() {
+        if (--listingsInFlight == 0) {
+            recentWrites.clear();
+        }
+    }
+
+    // called with the lock held
+    private Set<String> writtenSince(long startWriteCount, String keyPrefix) {
+        Set<String> written = new HashSet<String>();
+        for (Map.Entry<String, Long> write : recentWrites.entrySet()) {
+            if (write.getValue() > startWriteCount && write.getKey().startsWith(keyPrefix)) {
+                written.add(write.getKey());
+            }
+        }
+        return written;
+    }
+
+    private static boolean containsPrefix(Set<String> keys, String keyPrefix) {
+        for (String key : keys) {
+            if (key.startsWith(keyPrefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the time of the server when the object was written, as its last modified time
+     */
+    /**
+     * @return the least key above all the keys starting with the prefix in the order of the index,
+     * or null if there's none
+     */
+    private static String prefixEnd(String keyPrefix) {
+        int end = keyPrefix.length();
+        while (end > 0) {
+            int last = keyPrefix.codePointBefore(end);
+            end -= Character.charCount(last);
+            if (last < Character.MAX_CODE_POINT) {
+                return keyPrefix.substring(0, end) + new String(Character.toChars(last + 1));
+            }
+        }
+        return null;
+    }
+
+    private static <V> SortedMap<String, V> withPrefix(TreeMap<String, V> map, String keyPrefix) {
+        String end = prefixEnd(keyPrefix);
+        return end != null ? map.subMap(keyPrefix, end) : map.tailMap(keyPrefix);
+    }
+
+    private static long serverTimeOf(OSSResult result) {
+        String date = result.getResponseHeader() != null ? result.getResponseHeader().get(OSSHeaders.DATE) : null;
+        if (date != null) {
+            try {
+                return DateUtil.parseRfc822Date(date).getTime();
+            } catch (Exception e) {
+                OSSLog.logWarn("[BucketIndex] - parse the date " + date + " failed: " + e.toString());
+            }
+        }
+        return DateUtil.getFixedSkewedTimeMillis();
+    }
+
+    private static Entry toEntry(OSSObjectSummary summary) {
+        return new Entry(summary.getSize(), summary.getETag(),
+                summary.getLastModified() != null ? summary.getLastModified().getTime() : 0);
+    }
+
+    private String directoryOf(String objectKey) {
+        int end = objectKey.lastIndexOf(DELIMITER);
+        return end >= prefix.length() ? objectKey.substring(0, end + 1) : prefix;
+    }
+
+    // the keys are front coded, each only keeps the chars after the ones shared with the previous key
+    private void write(DataOutputStream output, TreeMap<String, Entry> objects, TreeMap<String, Long> directories)
+            throws IOException {
+        output.writeInt(FORMAT_VERSION);
+        output.writeUTF(bucketName);
+        output.writeUTF(prefix);
+        output.writeInt(objects.size());
+        String previousKey = "";
+        for (Map.Entry<String, Entry> object : objects.entrySet()) {
+            String key = object.getKey();
+            int shared = 0;
+            int maxShared = Math.min(key.length(), previousKey.length());
+            while (shared < maxShared && key.charAt(shared) == previousKey.charAt(shared)) {
+                shared++;
+            }
+            output.writeShort(shared);
+            output.writeUTF(key.substring(shared));
+            output.writeLong(object.getValue().size);
+            output.writeUTF(object.getValue().eTag != null ? object.getValue().eTag : "");
+            output.writeLong(object.getValue().lastModified);
+            previousKey = key;
+        }
+        output.writeInt(directories.size());
+        for (Map.Entry<String, Long> directory : directories.entrySet()) {
+            output.writeUTF(directory.getKey());
+            output.writeLong(directory.getValue());
+        }
+    }
+
+    private void restore() {
+        if (!indexFile.exists()) {
+            return;
+        }
+        DataInputStream input = null;
+        try {
+            input = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+            if (input.readInt() != FORMAT_VERSION || !bucketName.equals(input.readUTF())
+                    || !prefix.equals(input.readUTF())) {
+                // an index of another prefix, or of an older format
+                return;
+            }
+            int objectCount = input.readInt();
+            String previousKey = "";
+            for (int i = 0; i < objectCount; i++) {
+                String key = previousKey.substring(0, input.readShort()) + input.readUTF();
+                long size = input.readLong();
+                String eTag = input.readUTF();
+                long lastModified = input.readLong();
+                objects.put(key, new Entry(size, eTag.length() > 0 ? eTag : null, lastModified));
+                previousKey = key;
+            }
+            int directoryCount = input.readInt();
+            for (int i = 0; i < directoryCount; i++) {
+                directories.put(input.readUTF(), input.readLong());
+            }
+        } catch (Exception e) {
+            OSSLog.logWarn("[BucketIndex] - restore index failed: " + e.toString());
+            objects.clear();
+            directories.clear();
+        } finally {
+            IOUtils.safeClose(input);
+        }
+    }
+
+    private static class Entry {
+        final long size;
+        final String eTag;
+        final long lastModified;
+
+        Entry(long size, String eTag, long lastModified) {
+            this.size = size;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+        }
+
+        OSSObjectSummary toSummary(String bucketName, String key) {
+            OSSObjectSummary summary = new OSSObjectSummary();
+            summary.setBucketName(bucketName);
+            summary.setKey(key);
+            summary.setSize(size);
+            summary.setETag(eTag);
+            summary.setLastModified(new Date(lastModified));
+            return summary;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.alibaba.sdk.android.oss.internal;
+
+import com.alibaba.sdk.android.oss.ClientException;
+import com.alibaba.sdk.android.oss.ServiceException;
+import com.alibaba.sdk.android.oss.callback.OSSCompletedCallback;
+import com.alibaba.sdk.android.oss.callback.OSSProgressCallback;
+import com.alibaba.sdk.android.oss.common.OSSLog;
+import com.alibaba.sdk.android.oss.model.DeleteMultipleObjectRequest;
+import com.alibaba.sdk.android.oss.model.DeleteMultipleObjectResult;
+import com.alibaba.sdk.android.oss.model.DeletePrefixRequest;
+import com.alibaba.sdk.android.oss.model.DeletePrefixResult;
+import com.alibaba.sdk.android.oss.model.ListObjectsRequest;
+import com.alibaba.sdk.android.oss.model.ListObjectsResult;
+import com.alibaba.sdk.android.oss.model.OSSObjectSummary;
+import com.alibaba.sdk.android.oss.network.ExecutionContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Deletes the objects under a prefix. The listing is pipelined with the deletion: the next page is listed
+ * while the objects of the current page are deleted by a batch delete, and a few batch deletes run at once.
+ */
+public class DeletePrefixTask implements Callable<DeletePrefixResult> {
+
+    private static final int MAX_KEYS_PER_PAGE = DeleteMultipleObjectRequest.MAX_OBJECT_COUNT;
+    // the batch deletes in flight, each of a page
+    private static final int MAX_DELETES_IN_FLIGHT = 3;
+
+    private InternalRequestOperation mApiOperation;
+    private DeletePrefixRequest mRequest;
+    private OSSCompletedCallback<DeletePrefixRequest, DeletePrefixResult> mCompletedCallback;
+    private OSSProgressCallback<DeletePrefixRequest> mProgressCallback;
+    private ExecutionContext mContext;
+
+    // the sub-requests in flight, guarded by this
+    private OSSAsyncTask<ListObjectsResult> mListing;
+    private LinkedList<OSSAsyncTask<DeleteMultipleObjectResult>> mDeleting = new LinkedList<OSSAsyncTask<DeleteMultipleObjectResult>>();
+    private LinkedList<Integer> mDeletingCounts = new LinkedList<Integer>();
+
+    private long mListedCount;
+    private DeletePrefixResult mResult = new DeletePrefixResult();
+
+    public DeletePrefixTask(InternalRequestOperation operation, DeletePrefixRequest request,
+                            OSSCompletedCallback<DeletePrefixRequest, DeletePrefixResult> completedCallback,
+                            ExecutionContext context) {
+        mApiOperation = operation;
+        mRequest = request;
+        mProgressCallback = request.getProgressCallback();
+        mCompletedCallback = completedCallback;
+        mContext = context;
+    }
+
+    @Override
+    public DeletePrefixResult call() throws Exception {
+        // the sub-requests are cancelled at once rather than after they complete
+        mContext.getCancellationHandler().setCancelAction(new Runnable() {
+            @Override
+            public void run() {
+                cancelInFlight();
+            }
+        });
+        try {
+            DeletePrefixResult result = doDeletePrefix();
+            if (mCompletedCallback != null) {
+                mCompletedCallback.onSuccess(mRequest, result);
+            }
+            return result;
+        } catch (ServiceException e) {
+            cancelInFlight();
+            if (mCompletedCallback != null) {
+                mCompletedCallback.onFailure(mRequest, null, e);
+            }
+            throw e;
+        } catch (Exception e) {
+            cancelInFlight();
+            ClientException temp = e instanceof ClientException ? (ClientException) e : new ClientException(e.toString(), e);
+            if (mCompletedCallback != null) {
+                mCompletedCallback.onFailure(mRequest, temp, null);
+            }
+            throw temp;
+        }
+    }
+
+    private DeletePrefixResult doDeletePrefix() throws ClientException, ServiceException {
+        OSSAsyncTask<ListObjectsResult> listing = list(null);
+        while (listing != null) {
+            checkCancel();
+            ListObjectsResult page = listing.getResult();
+            // lists the next page while the current one is deleted
+            listing = page.isTruncated() ? list(page.getNextMarker()) : null;
+
+            List<String> keys = new ArrayList<String>();
+            for (OSSObjectSummary summary : page.getObjectSummaries()) {
+                keys.add(summary.getKey());
+            }
+            mListedCount += keys.size();
+            if (keys.isEmpty()) {
+                continue;
+            }
+            if (deletingCount() >= MAX_DELETES_IN_FLIGHT) {
+                completeFirstDelete();
+            }
+            checkCancel();
+            synchronized (this) {
+                mDeleting.add(mApiOperation.deleteMultipleObject(
+                        new DeleteMultipleObjectRequest(mRequest.getBucketName(), keys, true), null));
+                mDeletingCounts.add(keys.size());
+            }
+        }
+        while (deletingCount() > 0) {
+            completeFirstDelete();
+        }
+        OSSLog.logDebug("[DeletePrefixTask] - deleted " + mResult.getDeletedCount() + " objects under " + mRequest.getPrefix());
+        return mResult;
+    }
+
+    private OSSAsyncTask<ListObjectsResult> list(String marker) {
+        ListObjectsRequest list = new ListObjectsRequest(mRequest.getBucketName(), mRequest.getPrefix(),
+                marker, null, MAX_KEYS_PER_PAGE);
+        synchronized (this) {
+            mListing = mApiOperation.listObjects(list, null);
+            return mListing;
+        }
+    }
+
+    private synchronized int deletingCount() {
+        return mDeleting.size();
+    }
+
+    private void completeFirstDelete() throws ClientException, ServiceException {
+        OSSAsyncTask<DeleteMultipleObjectResult> task;
+        int count;
+        synchronized (this) {
+            task = mDeleting.getFirst();
+            count = mDeletingCounts.getFirst();
+        }
+        DeleteMultipleObjectResult batch = task.getResult();
+        synchronized (this) {
+            mDeleting.removeFirst();
+            mDeletingCounts.removeFirst();
+        }
+        mResult.getFailedObjects().addAll(batch.getFailedObjects());
+        mResult.setDeletedCount(mResult.getDeletedCount() + count - batch.getFailedObjects().size());
+        if (mProgressCallback != null) {
+            mProgressCallback.onProgress(mRequest, mResult.getDeletedCount(), mListedCount);
+        }
+    }
+
+    private void checkCancel() throws ClientException {
+        if (mContext.getCancellationHandler().isCancelled()) {
+            IOException e = new IOException("delete prefix cancel");
+            throw new ClientException("Task is cancelled!", e, true);
+        }
+    }
+
+    private synchronized void cancelInFlight() {
+        if (mListing != null) {
+            mListing.cancel();
+        }
+        for (OSSAsyncTask<DeleteMultipleObjectResult> task : mDeleting) {
+            task.cancel();
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.alibaba.sdk.android.oss.internal;
+
+import com.alibaba.sdk.android.oss.ClientException;
+import com.alibaba.sdk.android.oss.ServiceException;
+import com.alibaba.sdk.android.oss.callback.OSSCompletedCallback;
+import com.alibaba.sdk.android.oss.common.OSSConstants;
+import com.alibaba.sdk.android.oss.common.OSSLog;
+import com.alibaba.sdk.android.oss.common.utils.BinaryUtil;
+import com.alibaba.sdk.android.oss.common.utils.IOUtils;
+import com.alibaba.sdk.android.oss.model.AbortMultipartUploadRequest;
+import com.alibaba.sdk.android.oss.model.CompleteMultipartUploadResult;
+import com.alibaba.sdk.android.oss.model.DeltaUploadRequest;
+import com.alibaba.sdk.android.oss.model.DeltaUploadResult;
+import com.alibaba.sdk.android.oss.model.HeadObjectRequest;
+import com.alibaba.sdk.android.oss.model.InitiateMultipartUploadRequest;
+import com.alibaba.sdk.android.oss.model.InitiateMultipartUploadResult;
+import com.alibaba.sdk.android.oss.model.PartETag;
+import com.alibaba.sdk.android.oss.model.UploadPartCopyRequest;
+import com.alibaba.sdk.android.oss.model.UploadPartRequest;
+import com.alibaba.sdk.android.oss.network.ExecutionContext;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.Callable;
+
+/**
+ * Multipart upload which copies the parts unchanged since the last upload of the file from the object.
+ * <p>
+ * The manifest of an upload keeps the ETag of the object and the MD5 of each part. When the object still has
+ * that ETag, a part with the same MD5 and length as before is copied in the server by the UploadPartCopy, and
+ * the other parts are uploaded. So the file is read to hash the parts, but only the changed bytes are sent.
+ */
+public class DeltaUploadTask extends BaseMultipartUploadTask<DeltaUploadRequest,
+        DeltaUploadResult> implements Callable<DeltaUploadResult> {
+
+    private File mManifestFile;
+    private long mPartSize;
+    // the parts' MD5 of this upload, by the part index
+    private String[] mPartMd5s;
+    // guarded by mLock
+    private long mCopiedLength;
+
+    // the manifest of the last upload, null if the object has changed since
+    private String mPreviousETag;
+    private long mPreviousFileLength;
+    private long mPreviousPartSize;
+    private JSONArray mPreviousPartMd5s;
+
+    public DeltaUploadTask(InternalRequestOperation operation, DeltaUploadRequest request,
+                           OSSCompletedCallback<DeltaUploadRequest, DeltaUploadResult> completedCallback,
+                           ExecutionContext context) {
+        super(operation, request, completedCallback, context);
+    }
+
+    @Override
+    protected void initMultipartUploadId() throws IOException, ClientException, ServiceException {
+        mUploadFile = new File(mRequest.getUploadFilePath());
+        mFileLength = mUploadFile.length();
+        if (mFileLength == 0) {
+            throw new ClientException("file length must not be 0");
+        }
+
+        String manifestFileName = BinaryUtil.calculateMd5Str((mRequest.getBucketName() + mRequest.getObjectKey()
+                + mUploadFile.getAbsolutePath()).getBytes());
+        mManifestFile = new File(mRequest.getManifestDirectory(), manifestFileName);
+        loadManifest();
+
+        InitiateMultipartUploadRequest init = new InitiateMultipartUploadRequest(
+                mRequest.getBucketName(), mRequest.getObjectKey(), mRequest.getMetadata());
+
+        InitiateMultipartUploadResult initResult = mApiOperation.initMultipartUpload(init, null).getResult();
+
+        mUploadId = initResult.getUploadId();
+        mRequest.setUploadId(mUploadId);
+    }
+
+    @Override
+    protected DeltaUploadResult doMultipartUpload() throws IOException, ServiceException, ClientException, InterruptedException {
+        checkCancel();
+        int[] partAttr = new int[2];
+        checkPartSize(partAttr);
+        // the manifest keeps this size, a part is only copied when it's split the same way as before
+        mPartSize = partAttr[0];
+        // the count of the parts of the size actually used
+        final int partNumber = (int) ((mFileLength + mPartSize - 1) / mPartSize);
+        mPartMd5s = new String[partNumber];
+        for (int i = 0; i < partNumber; i++) {
+            checkException();
+            if (mPoolExecutor != null) {
+                final int byteCount = (int) Math.min(mPartSize, mFileLength - i * mPartSize);
+                final int readIndex = i;
+                mPoolExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        uploadOrCopyPart(readIndex, byteCount, partNumber);
+                    }
+                });
+            }
+        }
+
+        if (checkWaitCondition(partNumber)) {
+            synchronized (mLock) {
+                mLock.wait();
+            }
+        }
+        if (mUploadException != null) {
+            abortThisUpload();
+        }
+        checkException();
+        //complete sort
+        CompleteMultipartUploadResult completeResult = completeMultipartUploadResult();
+        saveManifest(completeResult.getETag());
+
+        releasePool();
+        synchronized (mLock) {
+            return new DeltaUploadResult(completeResult, mFileLength - mCopiedLength, mCopiedLength);
+        }
+    }
+
+    private void uploadOrCopyPart(int readIndex, int byteCount, int partNumber) {
+        RandomAccessFile raf = null;
+        try {
+            checkCancel();
+            checkException();
+
+            raf = new RandomAccessFile(mUploadFile, "r");
+            byte[] partContent = new byte[byteCount];
+            raf.seek(readIndex * mPartSize);
+            raf.readFully(partContent, 0, byteCount);
+            String md5 = BinaryUtil.calculateBase64Md5(partContent);
+            mPartMd5s[readIndex] = md5;
+
+            String eTag = null;
+            if (isUnchanged(readIndex, byteCount, md5)) {
+                eTag = copyPart(readIndex, byteCount);
+            }
+            if (eTag != null) {
+                synchronized (mLock) {
+                    mCopiedLength += byteCount;
+                }
+            } else {
+                UploadPartRequest uploadPart = new UploadPartRequest(
+                        mRequest.getBucketName(), mRequest.getObjectKey(), mUploadId, readIndex + 1);
+                uploadPart.setPartContent(partContent);
+                uploadPart.setMd5Digest(md5);
+                eTag = mApiOperation.uploadPart(uploadPart, null).getResult().getETag();
+            }
+
+            onPartCompleted(new PartETag(readIndex + 1, eTag), byteCount, partNumber);
+        } catch (Exception e) {
+            processException(e);
+        } finally {
+            try {
+                if (raf != null)
+                    raf.close();
+            } catch (IOException e) {
+                OSSLog.logThrowable2Local(e);
+            }
+        }
+    }
+
+    private boolean isUnchanged(int readIndex, int byteCount, String md5) {
+        if (mPreviousETag == null || mPreviousPartSize != mPartSize || readIndex >= mPreviousPartMd5s.length()) {
+            return false;
+        }
+        long previousByteCount = Math.min(mPreviousPartSize, mPreviousFileLength - readIndex * mPreviousPartSize);
+        return previousByteCount == byteCount && md5.equals(mPreviousPartMd5s.optString(readIndex));
+    }
+
+    /**
+     * @return the ETag of the copied part, null if the object has changed since the manifest was saved
+     */
+    private String copyPart(int readIndex, int byteCount) throws ClientException, ServiceException {
+        UploadPartCopyRequest copy = new UploadPartCopyRequest(mRequest.getBucketName(), mRequest.getObjectKey(),
+                mRequest.getBucketName(), mRequest.getObjectKey(), mUploadId, readIndex + 1);
+        copy.setRange(readIndex * mPartSize, byteCount);
+        copy.setMatchingETag(mPreviousETag);
+        try {
+            return mApiOperation.uploadPartCopy(copy, null).getResult().getETag();
+        } catch (ServiceException e) {
+            if (e.getStatusCode() == 412) {
+                OSSLog.logDebug("[DeltaUploadTask] - the object changed, upload part " + (readIndex + 1));
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    private void loadManifest() throws ClientException, ServiceException {
+        if (!mManifestFile.exists()) {
+            return;
+        }
+        FileInputStream input = null;
+        try {
+            input = new FileInputStream(mManifestFile);
+            JSONObject manifest = new JSONObject(IOUtils.readStreamAsString(input, OSSConstants.DEFAULT_CHARSET_NAME));
+            mPreviousFileLength = manifest.getLong("fileLength");
+            mPreviousPartSize = manifest.getLong("partSize");
+            mPreviousPartMd5s = manifest.getJSONArray("parts");
+            mPreviousETag = manifest.getString("eTag");
+        } catch (Exception e) {
+            OSSLog.logWarn("[DeltaUploadTask] - load manifest failed: " + e.toString());
+            mPreviousETag = null;
+            return;
+        } finally {
+            IOUtils.safeClose(input);
+        }
+
+        // the parts can only be copied from the object the manifest describes
+        try {
+            HeadObjectRequest head = new HeadObjectRequest(mRequest.getBucketName(), mRequest.getObjectKey());
+            String eTag = ResponseParsers.trimQuotes(mApiOperation.headObject(head, null).getResult().getMetadata().getETag());
+            if (!mPreviousETag.equals(eTag)) {
+                OSSLog.logDebug("[DeltaUploadTask] - the object changed since the last upload");
+                mPreviousETag = null;
+            }
+        } catch (ServiceException e) {
+            if (e.getStatusCode() != 404) {
+                throw e;
+            }
+            mPreviousETag = null;
+        }
+    }
+
+    private void saveManifest(String eTag) {
+        File tempFile = new File(mManifestFile.getPath() + ".tmp");
+        FileOutputStream output = null;
+        try {
+            JSONArray parts = new JSONArray();
+            for (String md5 : mPartMd5s) {
+                parts.put(md5);
+            }
+            JSONObject manifest = new JSONObject();
+            manifest.put("eTag", ResponseParsers.trimQuotes(eTag));
+            manifest.put("fileLength", mFileLength);
+            manifest.put("partSize", mPartSize);
+            manifest.put("parts", parts);
+
+            output = new FileOutputStream(tempFile);
+            output.write(manifest.toString().getBytes(OSSConstants.DEFAULT_CHARSET_NAME));
+            output.close();
+            output = null;
+            if (!tempFile.renameTo(mManifestFile)) {
+                throw new IOException("rename " + tempFile.getPath() + " failed");
+            }
+        } catch (Exception e) {
+            // the next upload sends all the parts
+            OSSLog.logWarn("[DeltaUploadTask] - save manifest failed: " + e.toString());
+            tempFile.delete();
+            mManifestFile.delete();
+        } finally {
+            IOUtils.safeClose(output);
+        }
+    }
+
+    @Override
+    protected void abortThisUpload() {
+        if (mUploadId != null) {
+            AbortMultipartUploadRequest abort = new AbortMultipartUploadRequest(
+                    mRequest.getBucketName(), mRequest.getObjectKey(), mUploadId);
+            mApiOperation.abortMultipartUpload(abort, null).waitUntilFinished();
+        }
+    }
+
+    @Override
+    protected void processException(Exception e) {
+        synchronized (mLock) {
+            mPartExceptionCount++;
+            if (mUploadException == null) {
+                mUploadException = e;
+                mLock.notify();
+            }
+        }
+    }
+}
@@ -4,20 +4,41 @@ import com.alibaba.sdk.android.oss.ClientException;
 import com.alibaba.sdk.android.oss.ServiceException;
 import com.alibaba.sdk.android.oss.callback.OSSCompletedCallback;
 import com.alibaba.sdk.android.oss.common.OSSConstants;
+import com.alibaba.sdk.android.oss.common.OSSHeaders;
 import com.alibaba.sdk.android.oss.common.OSSLog;
 import com.alibaba.sdk.android.oss.common.utils.BinaryUtil;
 import com.alibaba.sdk.android.oss.common.utils.OSSUtils;
 import com.alibaba.sdk.android.oss.model.AbortMultipartUploadRequest;
 import com.alibaba.sdk.android.oss.model.CompleteMultipartUploadResult;
+import com.alibaba.sdk.android.oss.model.DeleteMultipleObjectRequest;
+import com.alibaba.sdk.android.oss.model.DeleteMultipleObjectResult;
+import com.alibaba.sdk.android.oss.model.DeletePrefixRequest;
+import com.alibaba.sdk.android.oss.model.DeletePrefixResult;
+import com.alibaba.sdk.android.oss.model.DeltaUploadRequest;
+import com.alibaba.sdk.android.oss.model.DeltaUploadResult;
 import com.alibaba.sdk.android.oss.model.HeadObjectRequest;
+import com.alibaba.sdk.android.oss.model.HeadObjectResult;
+import com.alibaba.sdk.android.oss.model.ListObjectsRequest;
+import com.alibaba.sdk.android.oss.model.ListObjectsResult;
+import com.alibaba.sdk.android.oss.model.MultipartCopyRequest;
 import com.alibaba.sdk.android.oss.model.MultipartUploadRequest;
+import com.alibaba.sdk.android.oss.model.OSSObjectSummary;
+import com.alibaba.sdk.android.oss.model.ObjectMetadata;
 import com.alibaba.sdk.android.oss.model.ResumableUploadRequest;
 import com.alibaba.sdk.android.oss.model.ResumableUploadResult;
+import com.alibaba.sdk.android.oss.model.SyncDirectoryRequest;
+import com.alibaba.sdk.android.oss.model.SyncDirectoryResult;
 import com.alibaba.sdk.android.oss.network.ExecutionContext;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
@@ -27,6 +48,12 @@ import java.util.concurrent.ThreadFactory;
  */
 public class ExtensionRequestOperation {
 
+    // the count of the headObject requests in flight for a bulk check, the same as the request dispatcher's
+    private static final int HEAD_OBJECTS_CONCURRENCY = OSSConstants.DEFAULT_BASE_THREAD_POOL_SIZE;
+    // below it the keys are too few for a listing to save round trips
+    private static final int HEAD_OBJECTS_LIST_THRESHOLD = 100;
+    private static final int LIST_OBJECTS_MAX_KEYS = 1000;
+
     private InternalRequestOperation apiOperation;
     private static ExecutorService executorService =
             Executors.newFixedThreadPool(OSSConstants.DEFAULT_BASE_THREAD_POOL_SIZE, new ThreadFactory() {
@@ -56,6 +83,183 @@ public class ExtensionRequestOperation {
         }
     }
 
+    /**
+     * Gets the metadata of the objects, with the absent ones mapped to null.
+     * <p>
+     * Many keys under a common prefix are first resolved by listing the prefix, as a page of the listing
+     * answers up to 1000 keys at once. The listing stops once it has taken more round trips than the
+     * headObject requests would save, e.g. when the keys are sparse among the listed objects, and the keys
+     * not reached are checked by the headObject requests in parallel. The metadata of a listed object only
+     * has the content length, ETag, last modified time and storage class.
+     */
+    public Map<String, ObjectMetadata> headObjects(String bucketName, List<String> objectKeys)
+            throws ClientException, ServiceException {
+
+        Map<String, ObjectMetadata> result = new HashMap<String, ObjectMetadata>();
+        // in the order of the listing, so the keys up to its marker are the ones it has passed
+        TreeSet<String> pending = new TreeSet<String>(ObjectKeyComparator.INSTANCE);
+        pending.addAll(objectKeys);
+        if (pending.size() >= HEAD_OBJECTS_LIST_THRESHOLD) {
+            listObjectsMetadata(bucketName, pending, result);
+        }
+        headObjectsConcurrently(bucketName, pending, result);
+        return result;
+    }
+
+    private void listObjectsMetadata(String bucketName, TreeSet<String> pending, Map<String, ObjectMetadata> result)
+            throws ClientException, ServiceException {
+
+        String prefix = commonPrefix(pending.first(), pending.last());
+        // spends at most half of the round trips of the headObject requests on the listing
+        int headRounds = (pending.size() + HEAD_OBJECTS_CONCURRENCY - 1) / HEAD_OBJECTS_CONCURRENCY;
+        int maxPages = Math.max(1, headRounds / 2);
+        String marker = null;
+
+        for (int page = 0; page < maxPages && !pending.isEmpty(); page++) {
+            ListObjectsRequest list = new ListObjectsRequest(bucketName, prefix, marker, null, LIST_OBJECTS_MAX_KEYS);
+            ListObjectsResult listed = apiOperation.listObjects(list, null).getResult();
+            for (OSSObjectSummary summary : listed.getObjectSummaries()) {
+                if (pending.remove(summary.getKey())) {
+                    result.put(summary.getKey(), toMetadata(summary));
+                }
+            }
+            if (!listed.isTruncated()) {
+                // every object under the prefix has been listed
+                for (String key : pending) {
+                    result.put(key, null);
+                }
+                pending.clear();
+                return;
+            }
+            marker = listed.getNextMarker();
+            // the keys up to the marker which are not listed don't exist
+            for (String key : pending.headSet(marker, true)) {
+                result.put(key, null);
+            }
+            pending.headSet(marker, true).clear();
+        }
+        OSSLog.logDebug("[headObjects] - " + pending.size() + " keys left after listing " + prefix);
+    }
+
+    private void headObjectsConcurrently(String bucketName, TreeSet<String> keys, Map<String, ObjectMetadata> result)
+            throws ClientException, ServiceException {
+
+        LinkedList<String> runningKeys = new LinkedList<String>();
+        LinkedList<OSSAsyncTask<HeadObjectResult>> running = new LinkedList<OSSAsyncTask<HeadObjectResult>>();
+        try {
+            for (String key : keys) {
+                if (running.size() >= HEAD_OBJECTS_CONCURRENCY) {
+                    result.put(runningKeys.removeFirst(), getMetadataOrNull(running.removeFirst()));
+                }
+                runningKeys.add(key);
+                running.add(apiOperation.headObject(new HeadObjectRequest(bucketName, key), null));
+            }
+            while (!running.isEmpty()) {
+                result.put(runningKeys.removeFirst(), getMetadataOrNull(running.removeFirst()));
+            }
+        } finally {
+            // only left when a request failed
+            for (OSSAsyncTask<HeadObjectResult> task : running) {
+                task.cancel();
+            }
+        }
+    }
+
+    private static ObjectMetadata getMetadataOrNull(OSSAsyncTask<HeadObjectResult> task)
+            throws ClientException, ServiceException {
+        try {
+            return task.getResult().getMetadata();
+        } catch (ServiceException e) {
+            if (e.getStatusCode() == 404) {
+                return null;
+            } else {
+                throw e;
+            }
+        }
+    }
+
+    private static ObjectMetadata toMetadata(OSSObjectSummary summary) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(summary.getSize());
+        metadata.setLastModified(summary.getLastModified());
+        metadata.setHeader(OSSHeaders.ETAG, summary.getETag());
+        if (summary.getStorageClass() != null) {
+            metadata.setHeader(OSSHeaders.STORAGE_CLASS, summary.getStorageClass());
+        }
+        return metadata;
+    }
+
+    private static String commonPrefix(String first, String last) {
+        int length = 0;
+        while (length < first.length() && length < last.length() && first.charAt(length) == last.charAt(length)) {
+            length++;
+        }
+        // doesn't split a surrogate pair
+        if (length > 0 && Character.isHighSurrogate(first.charAt(length - 1))) {
+            length--;
+        }
+        return first.substring(0, length);
+    }
+
+    /**
+     * Deletes the objects with the batch delete requests of up to 1000 keys each, which are sent in parallel.
+     *
+     * @param quiet true to only get the keys which failed to be deleted
+     */
+    public DeleteMultipleObjectResult deleteObjects(String bucketName, List<String> objectKeys, boolean quiet)
+            throws ClientException, ServiceException {
+
+        List<OSSAsyncTask<DeleteMultipleObjectResult>> tasks = new ArrayList<OSSAsyncTask<DeleteMultipleObjectResult>>();
+        DeleteMultipleObjectResult result = new DeleteMultipleObjectResult();
+        boolean completed = false;
+        try {
+            for (int start = 0; start < objectKeys.size(); start += DeleteMultipleObjectRequest.MAX_OBJECT_COUNT) {
+                int end = Math.min(objectKeys.size(), start + DeleteMultipleObjectRequest.MAX_OBJECT_COUNT);
+                DeleteMultipleObjectRequest request = new DeleteMultipleObjectRequest(bucketName,
+                        new ArrayList<String>(objectKeys.subList(start, end)), quiet);
+                tasks.add(apiOperation.deleteMultipleObject(request, null));
+            }
+            for (OSSAsyncTask<DeleteMultipleObjectResult> task : tasks) {
+                DeleteMultipleObjectResult chunkResult = task.getResult();
+                if (result.getRequestId() == null) {
+                    result.setStatusCode(chunkResult.getStatusCode());
+                    result.setResponseHeader(chunkResult.getResponseHeader());
+                    result.setRequestId(chunkResult.getRequestId());
+                }
+                result.getDeletedObjects().addAll(chunkResult.getDeletedObjects());
+                result.getFailedObjects().addAll(chunkResult.getFailedObjects());
+            }
+            completed = true;
+        } finally {
+            if (!completed) {
+                for (OSSAsyncTask<DeleteMultipleObjectResult> task : tasks) {
+                    task.cancel();
+                }
+            }
+        }
+        return result;
+    }
+
+    public OSSAsyncTask<DeletePrefixResult> deletePrefix(
+            DeletePrefixRequest request, OSSCompletedCallback<DeletePrefixRequest, DeletePrefixResult> completedCallback) {
+
+        ExecutionContext<DeletePrefixRequest> executionContext =
+                new ExecutionContext<DeletePrefixRequest>(apiOperation.getInnerClient(), request);
+
+        return OSSAsyncTask.wrapRequestTask(executorService.submit(new DeletePrefixTask(apiOperation,
+                request, completedCallback, executionContext)), executionContext);
+    }
+
+    public OSSAsyncTask<SyncDirectoryResult> syncDirectory(
+            SyncDirectoryRequest request, OSSCompletedCallback<SyncDirectoryRequest, SyncDirectoryResult> completedCallback) {
+
+        ExecutionContext<SyncDirectoryRequest> executionContext =
+                new ExecutionContext<SyncDirectoryRequest>(apiOperation.getInnerClient(), request);
+
+        return OSSAsyncTask.wrapRequestTask(executorService.submit(new SyncDirectoryTask(apiOperation,
+                request, completedCallback, executionContext)), executionContext);
+    }
+
     public void abortResumableUpload(ResumableUploadRequest request) throws IOException {
 
 
@@ -108,4 +312,24 @@ public class ExtensionRequestOperation {
         return OSSAsyncTask.wrapRequestTask(executorService.submit(new MultipartUploadTask(apiOperation
                 , request , completedCallback, executionContext)), executionContext);
     }
+
+    public OSSAsyncTask<DeltaUploadResult> deltaUpload(
+            DeltaUploadRequest request, OSSCompletedCallback<DeltaUploadRequest, DeltaUploadResult> completedCallback) {
+
+        ExecutionContext<DeltaUploadRequest> executionContext =
+                new ExecutionContext<DeltaUploadRequest>(apiOperation.getInnerClient(), request);
+
+        return OSSAsyncTask.wrapRequestTask(executorService.submit(new DeltaUploadTask(apiOperation,
+                request, completedCallback, executionContext)), executionContext);
+    }
+
+    public OSSAsyncTask<CompleteMultipartUploadResult> multipartCopy(
+            MultipartCopyRequest request, OSSCompletedCallback<MultipartCopyRequest, CompleteMultipartUploadResult> completedCallback) {
+
+        ExecutionContext<MultipartCopyRequest> executionContext =
+                new ExecutionContext<MultipartCopyRequest>(apiOperation.getInnerClient(), request);
+
+        return OSSAsyncTask.wrapRequestTask(executorService.submit(new MultipartCopyTask(apiOperation,
+                request, completedCallback, executionContext)), executionContext);
+    }
 }
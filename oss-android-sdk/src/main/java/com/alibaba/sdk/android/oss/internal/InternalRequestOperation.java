@@ -1,18 +1,27 @@
 package com.alibaba.sdk.android.oss.internal;
 
 import android.content.Context;
+import android.net.SSLCertificateSocketFactory;
 import android.os.Build;
 import android.text.TextUtils;
 
 import com.alibaba.sdk.android.oss.ClientConfiguration;
+import com.alibaba.sdk.android.oss.ClientException;
+import com.alibaba.sdk.android.oss.OSSTransport;
+import com.alibaba.sdk.android.oss.ServiceException;
 import com.alibaba.sdk.android.oss.callback.OSSCompletedCallback;
 import com.alibaba.sdk.android.oss.common.HttpMethod;
 import com.alibaba.sdk.android.oss.common.OSSConstants;
 import com.alibaba.sdk.android.oss.common.OSSHeaders;
+import com.alibaba.sdk.android.oss.common.OSSLog;
 import com.alibaba.sdk.android.oss.common.RequestParameters;
+import com.alibaba.sdk.android.oss.common.auth.OSSAuthCredentialsProvider;
 import com.alibaba.sdk.android.oss.common.auth.OSSCredentialProvider;
+import com.alibaba.sdk.android.oss.common.auth.OSSFederationCredentialProvider;
+import com.alibaba.sdk.android.oss.common.utils.BinaryUtil;
 import com.alibaba.sdk.android.oss.common.utils.DateUtil;
 import com.alibaba.sdk.android.oss.common.utils.HttpHeaders;
+import com.alibaba.sdk.android.oss.common.utils.HttpdnsMini;
 import com.alibaba.sdk.android.oss.common.utils.OSSUtils;
 import com.alibaba.sdk.android.oss.common.utils.VersionInfoUtils;
 import com.alibaba.sdk.android.oss.model.AbortMultipartUploadRequest;
@@ -25,6 +34,8 @@ import com.alibaba.sdk.android.oss.model.CopyObjectRequest;
 import com.alibaba.sdk.android.oss.model.CopyObjectResult;
 import com.alibaba.sdk.android.oss.model.DeleteBucketRequest;
 import com.alibaba.sdk.android.oss.model.DeleteBucketResult;
+import com.alibaba.sdk.android.oss.model.DeleteMultipleObjectRequest;
+import com.alibaba.sdk.android.oss.model.DeleteMultipleObjectResult;
 import com.alibaba.sdk.android.oss.model.DeleteObjectRequest;
 import com.alibaba.sdk.android.oss.model.DeleteObjectResult;
 import com.alibaba.sdk.android.oss.model.GetBucketACLRequest;
@@ -41,22 +52,49 @@ import com.alibaba.sdk.android.oss.model.ListPartsRequest;
 import com.alibaba.sdk.android.oss.model.ListPartsResult;
 import com.alibaba.sdk.android.oss.model.CreateBucketRequest;
 import com.alibaba.sdk.android.oss.model.CreateBucketResult;
+import com.alibaba.sdk.android.oss.model.OSSRequest;
+import com.alibaba.sdk.android.oss.model.OSSResult;
 import com.alibaba.sdk.android.oss.model.PutObjectRequest;
 import com.alibaba.sdk.android.oss.model.PutObjectResult;
+import com.alibaba.sdk.android.oss.model.UploadPartCopyRequest;
+import com.alibaba.sdk.android.oss.model.UploadPartCopyResult;
 import com.alibaba.sdk.android.oss.model.UploadPartRequest;
 import com.alibaba.sdk.android.oss.model.UploadPartResult;
+import com.alibaba.sdk.android.oss.network.ConnectionPoolStats;
+import com.alibaba.sdk.android.oss.network.ConnectionTracker;
+import com.alibaba.sdk.android.oss.network.EndpointRouter;
 import com.alibaba.sdk.android.oss.network.ExecutionContext;
+import com.alibaba.sdk.android.oss.network.HedgingPolicy;
 import com.alibaba.sdk.android.oss.network.OSSRequestTask;
+import com.alibaba.sdk.android.oss.network.RequestCoalescer;
 
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
 import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.net.URI;
+import java.net.UnknownHostException;
+import java.security.GeneralSecurityException;
+import java.security.DigestOutputStream;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
@@ -65,6 +103,10 @@ import java.util.concurrent.TimeUnit;
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509TrustManager;
 
 /**
  * Created by zhouzhuo on 11/22/15.
@@ -79,6 +121,15 @@ public class InternalRequestOperation {
     private ClientConfiguration conf;
     private static final int LIST_PART_MAX_RETURNS = 1000;
     private static final int MAX_PART_NUMBER = 10000;
+    private static final String HTTPDNS_CACHE_FILE = "oss_httpdns_cache";
+    private static final String BUCKET_ENDPOINT_CACHE_FILE = "oss_bucket_endpoint_cache";
+    private HttpdnsMini httpDns;
+    private BucketEndpointCache bucketEndpointCache;
+    private HedgingPolicy hedgingPolicy;
+    private RequestCoalescer requestCoalescer;
+    private ObjectMetadataCache objectMetadataCache;
+    private ConnectionTracker connectionTracker;
+    private final List<BucketIndex> bucketIndexes = new CopyOnWriteArrayList<BucketIndex>();
 
     private static ExecutorService executorService =
             Executors.newFixedThreadPool(OSSConstants.DEFAULT_BASE_THREAD_POOL_SIZE, new ThreadFactory() {
@@ -94,34 +145,122 @@ public class InternalRequestOperation {
         this.credentialProvider = credentialProvider;
         this.conf = conf;
 
-        OkHttpClient.Builder builder = new OkHttpClient.Builder()
-                .followRedirects(false)
+        OSSTransport transport = conf != null ? conf.getTransport() : null;
+        OkHttpClient.Builder builder = transport != null ? transport.newClientBuilder() : new OkHttpClient.Builder();
+        builder.followRedirects(false)
                 .followSslRedirects(false)
                 .retryOnConnectionFailure(false)
                 .cache(null)
-                .hostnameVerifier(new HostnameVerifier() {
-                    @Override
-                    public boolean verify(String hostname, SSLSession session) {
-                        return HttpsURLConnection.getDefaultHostnameVerifier().verify(endpoint.getHost(), session);
-                    }
-                });
+                .hostnameVerifier(new EndpointHostnameVerifier(endpoint.getHost()));
 
-        if (conf != null) {
-            Dispatcher dispatcher = new Dispatcher();
-            dispatcher.setMaxRequests(conf.getMaxConcurrentRequest());
+        if (transport != null) {
+            // the pool, dispatcher and dns come from the shared transport
+            connectionTracker = transport.getConnectionTracker();
+            httpDns = transport.getHttpDns();
+        } else {
+            connectionTracker = new ConnectionTracker();
+            builder.addNetworkInterceptor(connectionTracker);
+        }
 
+        if (conf != null) {
             builder.connectTimeout(conf.getConnectionTimeout(), TimeUnit.MILLISECONDS)
                     .readTimeout(conf.getSocketTimeout(), TimeUnit.MILLISECONDS)
-                    .writeTimeout(conf.getSocketTimeout(), TimeUnit.MILLISECONDS)
-                    .dispatcher(dispatcher);
+                    .writeTimeout(conf.getSocketTimeout(), TimeUnit.MILLISECONDS);
+
+            if (transport == null) {
+                Dispatcher dispatcher = new Dispatcher();
+                dispatcher.setMaxRequests(conf.getMaxConcurrentRequest());
+                dispatcher.setMaxRequestsPerHost(conf.getMaxConcurrentRequestPerHost());
+                builder.dispatcher(dispatcher)
+                        .connectionPool(new ConnectionPool(conf.getMaxIdleConnections(), conf.getKeepAliveDuration(), TimeUnit.MILLISECONDS));
+            }
+
+            if (conf.getSSLSessionCache() != null) {
+                configureSSLSessionCache(builder, conf);
+            }
 
             if (conf.getProxyHost() != null && conf.getProxyPort() != 0) {
                 builder.proxy(new Proxy(Proxy.Type.HTTP, new InetSocketAddress(conf.getProxyHost(), conf.getProxyPort())));
             }
 
             this.maxRetryCount = conf.getMaxErrorRetry();
+
+            if (conf.isHedgedRequestEnable()) {
+                hedgingPolicy = new HedgingPolicy(conf.getHedgedRequestPercentile(), conf.getHedgedRequestBudget());
+            }
+
+            if (conf.getMetadataCacheSize() > 0) {
+                objectMetadataCache = new ObjectMetadataCache(conf.getMetadataCacheSize(), conf.getMetadataCacheTTL());
+            }
+
+            if (conf.isRequestCoalescingEnable()) {
+                requestCoalescer = new RequestCoalescer();
+            }
+
+            // the buckets of other regions are only reachable through the endpoint of their region, not a cname
+            if (conf.isBucketEndpointDiscoveryEnable() && !OSSUtils.isCname(endpoint.getHost())) {
+                bucketEndpointCache = new BucketEndpointCache();
+                if (conf.isBucketEndpointCachePersistent() && context != null) {
+                    bucketEndpointCache.setCacheFile(new File(context.getCacheDir(), BUCKET_ENDPOINT_CACHE_FILE));
+                }
+            }
+
+            // When the HTTP proxy is set, httpDNS is not enabled.
+            if (transport == null && checkIfHttpDnsAvailable(conf.isHttpDnsEnable())) {
+                httpDns = HttpdnsMini.getInstance(conf.getHttpDnsServer());
+                if (conf.isHttpDnsCachePersistent()) {
+                    httpDns.setCacheFile(new File(context.getCacheDir(), HTTPDNS_CACHE_FILE));
+                }
+                builder.dns(httpDns);
+            }
+        }
+        if (conf != null && conf.getObjectCache() != null) {
+            // keyed by the url before it's routed to another endpoint
+            builder.addInterceptor(conf.getObjectCache());
+        }
+        EndpointRouter endpointRouter = null;
+        if (conf != null && !conf.getAlternativeEndpoints().isEmpty()) {
+            endpointRouter = new EndpointRouter(endpoint, conf.getAlternativeEndpoints());
+            builder.addInterceptor(endpointRouter);
         }
         this.innerClient = builder.build();
+        if (endpointRouter != null) {
+            endpointRouter.setProbeClient(innerClient);
+        }
+        if (conf != null) {
+            preResolveBuckets(conf.getPreResolveBuckets());
+        }
+        prepareCredentialProvider(credentialProvider);
+    }
+
+    /**
+     * Verifies the certificate against the endpoint host. It's equal for the same host, so that okhttp reuses
+     * the https connections among the clients sharing a transport.
+     */
+    private static class EndpointHostnameVerifier implements HostnameVerifier {
+
+        private final String host;
+
+        EndpointHostnameVerifier(String host) {
+            this.host = host;
+        }
+
+        @Override
+        public boolean verify(String hostname, SSLSession session) {
+            // the request host differs from the endpoint when it's routed to another endpoint
+            HostnameVerifier verifier = HttpsURLConnection.getDefaultHostnameVerifier();
+            return verifier.verify(host, session) || verifier.verify(hostname, session);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof EndpointHostnameVerifier && ((EndpointHostnameVerifier) other).host.equals(host);
+        }
+
+        @Override
+        public int hashCode() {
+            return host.hashCode();
+        }
     }
 
     public OSSAsyncTask<PutObjectResult> putObject(
@@ -151,6 +290,7 @@ public class InternalRequestOperation {
         canonicalizeRequestMessage(requestMessage);
 
         ExecutionContext<PutObjectRequest> executionContext = new ExecutionContext<PutObjectRequest>(getInnerClient(), request, applicationContext);
+        completedCallback = updatingBucketIndexes(completedCallback);
         if (completedCallback != null) {
             executionContext.setCompletedCallback(completedCallback);
         }
@@ -163,6 +303,9 @@ public class InternalRequestOperation {
         ResponseParser<PutObjectResult> parser = new ResponseParsers.PutObjectResponseParser();
 
         Callable<PutObjectResult> callable = new OSSRequestTask<PutObjectResult>(requestMessage, parser, executionContext, maxRetryCount);
+        if (objectMetadataCache != null) {
+            callable = objectMetadataCache.invalidating(request.getBucketName(), request.getObjectKey(), callable);
+        }
 
         return OSSAsyncTask.wrapRequestTask(executorService.submit(callable), executionContext);
     }
@@ -256,6 +399,7 @@ public class InternalRequestOperation {
         canonicalizeRequestMessage(requestMessage);
 
         ExecutionContext<AppendObjectRequest> executionContext = new ExecutionContext<AppendObjectRequest>(getInnerClient(), request, applicationContext);
+        completedCallback = updatingBucketIndexes(completedCallback);
         if (completedCallback != null) {
             executionContext.setCompletedCallback(completedCallback);
         }
@@ -263,6 +407,9 @@ public class InternalRequestOperation {
         ResponseParser<AppendObjectResult> parser = new ResponseParsers.AppendObjectResponseParser();
 
         Callable<AppendObjectResult> callable = new OSSRequestTask<AppendObjectResult>(requestMessage, parser, executionContext, maxRetryCount);
+        if (objectMetadataCache != null) {
+            callable = objectMetadataCache.invalidating(request.getBucketName(), request.getObjectKey(), callable);
+        }
 
         return OSSAsyncTask.wrapRequestTask(executorService.submit(callable), executionContext);
     }
@@ -286,6 +433,11 @@ public class InternalRequestOperation {
         ResponseParser<HeadObjectResult> parser = new ResponseParsers.HeadObjectResponseParser();
 
         Callable<HeadObjectResult> callable = new OSSRequestTask<HeadObjectResult>(requestMessage, parser, executionContext, maxRetryCount);
+        if (objectMetadataCache != null) {
+            Callable<HeadObjectResult> cached = objectMetadataCache.getCached(request, executionContext);
+            callable = cached != null ? cached
+                    : objectMetadataCache.caching(request.getBucketName(), request.getObjectKey(), callable);
+        }
 
         return OSSAsyncTask.wrapRequestTask(executorService.submit(callable), executionContext);
     }
@@ -337,12 +489,16 @@ public class InternalRequestOperation {
         canonicalizeRequestMessage(requestMessage);
 
         ExecutionContext<CopyObjectRequest> executionContext = new ExecutionContext<CopyObjectRequest>(getInnerClient(), request, applicationContext);
+        completedCallback = updatingBucketIndexes(completedCallback);
         if (completedCallback != null) {
             executionContext.setCompletedCallback(completedCallback);
         }
         ResponseParser<CopyObjectResult> parser = new ResponseParsers.CopyObjectResponseParser();
 
         Callable<CopyObjectResult> callable = new OSSRequestTask<CopyObjectResult>(requestMessage, parser, executionContext, maxRetryCount);
+        if (objectMetadataCache != null) {
+            callable = objectMetadataCache.invalidating(request.getDestinationBucketName(), request.getDestinationKey(), callable);
+        }
 
         return OSSAsyncTask.wrapRequestTask(executorService.submit(callable), executionContext);
     }
@@ -360,12 +516,59 @@ public class InternalRequestOperation {
         canonicalizeRequestMessage(requestMessage);
 
         ExecutionContext<DeleteObjectRequest> executionContext = new ExecutionContext<DeleteObjectRequest>(getInnerClient(), request, applicationContext);
+        completedCallback = updatingBucketIndexes(completedCallback);
         if (completedCallback != null) {
             executionContext.setCompletedCallback(completedCallback);
         }
         ResponseParser<DeleteObjectResult> parser = new ResponseParsers.DeleteObjectResponseParser();
 
         Callable<DeleteObjectResult> callable = new OSSRequestTask<DeleteObjectResult>(requestMessage, parser, executionContext, maxRetryCount);
+        if (objectMetadataCache != null) {
+            callable = objectMetadataCache.invalidating(request.getBucketName(), request.getObjectKey(), callable);
+        }
+
+        return OSSAsyncTask.wrapRequestTask(executorService.submit(callable), executionContext);
+    }
+
+    public OSSAsyncTask<DeleteMultipleObjectResult> deleteMultipleObject(
+            DeleteMultipleObjectRequest request, OSSCompletedCallback<DeleteMultipleObjectRequest, DeleteMultipleObjectResult> completedCallback) {
+
+        RequestMessage requestMessage = new RequestMessage();
+        requestMessage.setIsAuthorizationRequired(request.isAuthorizationRequired());
+        requestMessage.setEndpoint(endpoint);
+        requestMessage.setMethod(HttpMethod.POST);
+        requestMessage.setBucketName(request.getBucketName());
+
+        requestMessage.getParameters().put(RequestParameters.SUBRESOURCE_DELETE, "");
+        requestMessage.getHeaders().put(OSSHeaders.CONTENT_TYPE, "application/xml");
+        // the xml is written to the body bytes directly, and digested as it's written
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            ByteArrayOutputStream body = new ByteArrayOutputStream(request.getObjectKeys().size() * 64 + 128);
+            OSSUtils.writeDeleteMultipleObjectXML(request.getObjectKeys(), request.isQuiet(),
+                    new DigestOutputStream(body, digest));
+            requestMessage.setUploadData(body.toByteArray());
+            requestMessage.getHeaders().put(OSSHeaders.CONTENT_MD5, BinaryUtil.toBase64String(digest.digest()));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("MD5 algorithm not found.");
+        } catch (IOException e) {
+            // never thrown by the in-memory stream
+            throw new IllegalStateException(e);
+        }
+
+        canonicalizeRequestMessage(requestMessage);
+
+        ExecutionContext<DeleteMultipleObjectRequest> executionContext = new ExecutionContext<DeleteMultipleObjectRequest>(getInnerClient(), request, applicationContext);
+        completedCallback = updatingBucketIndexes(completedCallback);
+        if (completedCallback != null) {
+            executionContext.setCompletedCallback(completedCallback);
+        }
+        ResponseParser<DeleteMultipleObjectResult> parser = new ResponseParsers.DeleteMultipleObjectResponseParser();
+
+        Callable<DeleteMultipleObjectResult> callable = new OSSRequestTask<DeleteMultipleObjectResult>(requestMessage, parser, executionContext, maxRetryCount);
+        if (objectMetadataCache != null) {
+            callable = objectMetadataCache.invalidating(request.getBucketName(), request.getObjectKeys(), callable);
+        }
 
         return OSSAsyncTask.wrapRequestTask(executorService.submit(callable), executionContext);
     }
@@ -453,6 +656,34 @@ public class InternalRequestOperation {
         return OSSAsyncTask.wrapRequestTask(executorService.submit(callable), executionContext);
     }
 
+    public OSSAsyncTask<UploadPartCopyResult> uploadPartCopy(
+            UploadPartCopyRequest request, OSSCompletedCallback<UploadPartCopyRequest, UploadPartCopyResult> completedCallback) {
+
+        RequestMessage requestMessage = new RequestMessage();
+        requestMessage.setIsAuthorizationRequired(request.isAuthorizationRequired());
+        requestMessage.setEndpoint(endpoint);
+        requestMessage.setMethod(HttpMethod.PUT);
+        requestMessage.setBucketName(request.getBucketName());
+        requestMessage.setObjectKey(request.getObjectKey());
+
+        requestMessage.getParameters().put(RequestParameters.UPLOAD_ID, request.getUploadId());
+        requestMessage.getParameters().put(RequestParameters.PART_NUMBER, String.valueOf(request.getPartNumber()));
+
+        OSSUtils.populateUploadPartCopyHeaders(request, requestMessage.getHeaders());
+
+        canonicalizeRequestMessage(requestMessage);
+
+        ExecutionContext<UploadPartCopyRequest> executionContext = new ExecutionContext<UploadPartCopyRequest>(getInnerClient(), request, applicationContext);
+        if (completedCallback != null) {
+            executionContext.setCompletedCallback(completedCallback);
+        }
+        ResponseParser<UploadPartCopyResult> parser = new ResponseParsers.UploadPartCopyResponseParser();
+
+        Callable<UploadPartCopyResult> callable = new OSSRequestTask<UploadPartCopyResult>(requestMessage, parser, executionContext, maxRetryCount);
+
+        return OSSAsyncTask.wrapRequestTask(executorService.submit(callable), executionContext);
+    }
+
     public OSSAsyncTask<CompleteMultipartUploadResult> completeMultipartUpload(
             CompleteMultipartUploadRequest request, OSSCompletedCallback<CompleteMultipartUploadRequest, CompleteMultipartUploadResult> completedCallback) {
 
@@ -477,12 +708,16 @@ public class InternalRequestOperation {
         canonicalizeRequestMessage(requestMessage);
 
         ExecutionContext<CompleteMultipartUploadRequest> executionContext = new ExecutionContext<CompleteMultipartUploadRequest>(getInnerClient(), request, applicationContext);
+        completedCallback = updatingBucketIndexes(completedCallback);
         if (completedCallback != null) {
             executionContext.setCompletedCallback(completedCallback);
         }
         ResponseParser<CompleteMultipartUploadResult> parser = new ResponseParsers.CompleteMultipartUploadResponseParser();
 
         Callable<CompleteMultipartUploadResult> callable = new OSSRequestTask<CompleteMultipartUploadResult>(requestMessage, parser, executionContext, maxRetryCount);
+        if (objectMetadataCache != null) {
+            callable = objectMetadataCache.invalidating(request.getBucketName(), request.getObjectKey(), callable);
+        }
 
         return OSSAsyncTask.wrapRequestTask(executorService.submit(callable), executionContext);
     }
@@ -553,6 +788,144 @@ public class InternalRequestOperation {
         return OSSAsyncTask.wrapRequestTask(executorService.submit(callable), executionContext);
     }
 
+    /**
+     * Uses the platform socket factory backed by the configured session cache, so the TLS sessions
+     * can be resumed across process restarts.
+     */
+    private void configureSSLSessionCache(OkHttpClient.Builder builder, ClientConfiguration conf) {
+        try {
+            TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            trustManagerFactory.init((KeyStore) null);
+            for (TrustManager trustManager : trustManagerFactory.getTrustManagers()) {
+                if (trustManager instanceof X509TrustManager) {
+                    SSLSocketFactory socketFactory = SSLCertificateSocketFactory.getDefault(
+                            conf.getConnectionTimeout(), conf.getSSLSessionCache());
+                    builder.sslSocketFactory(socketFactory, (X509TrustManager) trustManager);
+                    return;
+                }
+            }
+            OSSLog.logWarn("[configureSSLSessionCache] - no X509TrustManager found");
+        } catch (GeneralSecurityException e) {
+            OSSLog.logWarn("[configureSSLSessionCache] - " + e.toString());
+        }
+    }
+
+    /**
+     * Resolves the virtual hosts of the buckets in the background, so the first requests skip the DNS latency.
+     */
+    private void preResolveBuckets(List<String> buckets) {
+        if (buckets.isEmpty()) {
+            return;
+        }
+        final List<String> hosts = new ArrayList<String>();
+        for (String bucket : buckets) {
+            hosts.add(buildBucketHost(bucket));
+        }
+        if (httpDns != null) {
+            httpDns.preResolve(hosts);
+        } else {
+            executorService.execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (String host : hosts) {
+                        try {
+                            InetAddress.getAllByName(host);
+                        } catch (UnknownHostException e) {
+                            OSSLog.logWarn("[preResolveBuckets] - " + e.toString());
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Opens the local index of the objects under the prefix, which is updated by the writes of this client
+     * until it's closed.
+     */
+    public BucketIndex openBucketIndex(String bucketName, String prefix, File indexFile) {
+        BucketIndex index = new BucketIndex(this, bucketName, prefix, indexFile);
+        bucketIndexes.add(index);
+        return index;
+    }
+
+    void closeBucketIndex(BucketIndex index) {
+        bucketIndexes.remove(index);
+    }
+
+    // updates the opened bucket indexes with the writes which succeed, before the callback of the caller
+    private <Request extends OSSRequest, Result extends OSSResult> OSSCompletedCallback<Request, Result> updatingBucketIndexes(
+            final OSSCompletedCallback<Request, Result> completedCallback) {
+        if (bucketIndexes.isEmpty()) {
+            return completedCallback;
+        }
+        return new OSSCompletedCallback<Request, Result>() {
+            @Override
+            public void onSuccess(Request request, Result result) {
+                for (BucketIndex index : bucketIndexes) {
+                    index.onObjectWritten(request, result);
+                }
+                if (completedCallback != null) {
+                    completedCallback.onSuccess(request, result);
+                }
+            }
+
+            @Override
+            public void onFailure(Request request, ClientException clientException, ServiceException serviceException) {
+                if (completedCallback != null) {
+                    completedCallback.onFailure(request, clientException, serviceException);
+                }
+            }
+        };
+    }
+
+    public ConnectionPoolStats getConnectionPoolStats() {
+        ConnectionPool pool = innerClient.connectionPool();
+        Dispatcher dispatcher = innerClient.dispatcher();
+        return new ConnectionPoolStats(pool.idleConnectionCount(), pool.connectionCount(),
+                connectionTracker.getOpenedConnectionCount(),
+                dispatcher.runningCallsCount(), dispatcher.queuedCallsCount());
+    }
+
+    /**
+     * Opens connections to the bucket hosts ahead of time with lightweight HEAD requests on the inner client,
+     * so that they are kept in its connection pool until the idle keep-alive expires.
+     * It returns immediately and the results of the requests are ignored.
+     */
+    public void warmUp(List<String> buckets, int connectionsPerHost) {
+        int connections = Math.min(connectionsPerHost, innerClient.dispatcher().getMaxRequestsPerHost());
+        for (String bucket : buckets) {
+            String url = endpoint.getScheme() + "://" + buildBucketHost(bucket) + "/";
+            for (int i = 0; i < connections; i++) {
+                Request request = new Request.Builder()
+                        .url(url)
+                        .head()
+                        .header(HttpHeaders.USER_AGENT, VersionInfoUtils.getUserAgent(conf.getCustomUserMark()))
+                        .build();
+                innerClient.newCall(request).enqueue(new Callback() {
+                    @Override
+                    public void onFailure(Call call, IOException e) {
+                        OSSLog.logDebug("[warmUp] - " + call.request().url().host() + " failed: " + e.toString());
+                    }
+
+                    @Override
+                    public void onResponse(Call call, Response response) {
+                        response.body().close();
+                    }
+                });
+            }
+        }
+    }
+
+    private String buildBucketHost(String bucket) {
+        String host = endpoint.getHost();
+        if (OSSUtils.isCname(host)) {
+            return host;
+        }
+        String bucketEndpoint = bucketEndpointCache != null ? bucketEndpointCache.get(bucket) : null;
+        return bucket + "." + (bucketEndpoint != null ? bucketEndpoint : host);
+    }
+
     private boolean checkIfHttpDnsAvailable(boolean httpDnsEnable) {
         if(httpDnsEnable) {
             if (applicationContext == null) {
@@ -579,6 +952,14 @@ public class InternalRequestOperation {
         return false;
     }
 
+    public HedgingPolicy getHedgingPolicy() {
+        return hedgingPolicy;
+    }
+
+    public RequestCoalescer getRequestCoalescer() {
+        return requestCoalescer;
+    }
+
     public OkHttpClient getInnerClient() {
         return innerClient;
     }
@@ -597,11 +978,20 @@ public class InternalRequestOperation {
                 header.put(OSSHeaders.CONTENT_TYPE, determineContentType);
             }
         }
-
-        // When the HTTP proxy is set, httpDNS is not enabled.
-        message.setHttpDnsEnable(checkIfHttpDnsAvailable(conf.isHttpDnsEnable()));
         message.setCredentialProvider(credentialProvider);
 
+        message.setHedgingPolicy(hedgingPolicy);
+        message.setRequestCoalescer(requestCoalescer);
+
+        // goes to the region of the bucket directly once it's known
+        if (bucketEndpointCache != null && message.getBucketName() != null) {
+            String bucketEndpoint = bucketEndpointCache.get(message.getBucketName());
+            if (bucketEndpoint != null) {
+                message.setEndpoint(URI.create(endpoint.getScheme() + "://" + bucketEndpoint));
+            }
+            message.setBucketEndpointCache(bucketEndpointCache);
+        }
+
         message.getHeaders().put(HttpHeaders.USER_AGENT, VersionInfoUtils.getUserAgent(conf.getCustomUserMark()));
 
         // Private cloud user could have special endpoint and we need to differentiate it with the CName here.
@@ -610,5 +1000,19 @@ public class InternalRequestOperation {
 
     public void setCredentialProvider(OSSCredentialProvider credentialProvider) {
         this.credentialProvider = credentialProvider;
+        prepareCredentialProvider(credentialProvider);
+    }
+
+    /**
+     * Lets the sts provider share the connections of this client and restore its stored token,
+     * so that the first request does not wait for the auth server.
+     */
+    private void prepareCredentialProvider(OSSCredentialProvider credentialProvider) {
+        if (credentialProvider instanceof OSSAuthCredentialsProvider) {
+            ((OSSAuthCredentialsProvider) credentialProvider).setHttpClient(innerClient);
+        }
+        if (credentialProvider instanceof OSSFederationCredentialProvider) {
+            ((OSSFederationCredentialProvider) credentialProvider).prepareFederationToken();
+        }
     }
 }
@@ -0,0 +1,153 @@
+package com.alibaba.sdk.android.oss.internal;
+
+import com.alibaba.sdk.android.oss.ClientException;
+import com.alibaba.sdk.android.oss.ServiceException;
+import com.alibaba.sdk.android.oss.callback.OSSCompletedCallback;
+import com.alibaba.sdk.android.oss.common.OSSConstants;
+import com.alibaba.sdk.android.oss.common.utils.HttpUtil;
+import com.alibaba.sdk.android.oss.model.ListObjectsRequest;
+import com.alibaba.sdk.android.oss.model.ListObjectsResult;
+
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates the pages of a listing, following the next marker. The following pages are listed in the background
+ * while the current one is consumed, up to the max count of the buffered pages.
+ * <p>
+ * The iterator should be cancelled when it's not read to the end, so the listing in flight is stopped.
+ */
+public class ListObjectsIterator {
+
+    private final InternalRequestOperation operation;
+    private final ListObjectsRequest request;
+    private final int maxBufferedPages;
+
+    // guarded by this
+    private final LinkedList<ListObjectsResult> buffered = new LinkedList<ListObjectsResult>();
+    private OSSAsyncTask<ListObjectsResult> listing;
+    private String nextMarker;
+    private boolean listedAll;
+    private boolean cancelled;
+    private ClientException clientException;
+    private ServiceException serviceException;
+
+    /**
+     * @param request the listing to iterate, its marker is where the listing starts
+     * @param maxBufferedPages the max count of the pages listed ahead and not read yet, at least 1
+     */
+    public ListObjectsIterator(InternalRequestOperation operation, ListObjectsRequest request, int maxBufferedPages) {
+        if (maxBufferedPages < 1) {
+            throw new IllegalArgumentException("At least one page should be buffered");
+        }
+        this.operation = operation;
+        this.request = request;
+        this.maxBufferedPages = maxBufferedPages;
+        this.nextMarker = request.getMarker();
+        synchronized (this) {
+            fetchIfNeeded();
+        }
+    }
+
+    /**
+     * Waits for the next page if it's being listed.
+     * @return false when all the pages have been read or the iterator is cancelled
+     */
+    public synchronized boolean hasNext() throws ClientException, ServiceException {
+        while (buffered.isEmpty() && !listedAll && !cancelled && clientException == null && serviceException == null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ClientException("Interrupted while waiting for the listing", e);
+            }
+        }
+        if (!buffered.isEmpty()) {
+            return true;
+        }
+        if (clientException != null) {
+            throw clientException;
+        }
+        if (serviceException != null) {
+            throw serviceException;
+        }
+        return false;
+    }
+
+    public synchronized ListObjectsResult next() throws ClientException, ServiceException {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ListObjectsResult page = buffered.removeFirst();
+        // there's room for one more page
+        fetchIfNeeded();
+        return page;
+    }
+
+    /**
+     * Stops the listing in flight and drops the buffered pages.
+     */
+    public synchronized void cancel() {
+        cancelled = true;
+        buffered.clear();
+        if (listing != null) {
+            listing.cancel();
+            listing = null;
+        }
+        notifyAll();
+    }
+
+    // called with the lock held, so the callback of the listing can't run before it's recorded
+    private void fetchIfNeeded() {
+        if (listing != null || listedAll || cancelled || clientException != null || serviceException != null
+                || buffered.size() >= maxBufferedPages) {
+            return;
+        }
+        ListObjectsRequest page = new ListObjectsRequest(request.getBucketName(), request.getPrefix(),
+                nextMarker, request.getDelimiter(), request.getMaxKeys());
+        page.setEncodingType(request.getEncodingType());
+        listing = operation.listObjects(page, new OSSCompletedCallback<ListObjectsRequest, ListObjectsResult>() {
+            @Override
+            public void onSuccess(ListObjectsRequest request, ListObjectsResult result) {
+                synchronized (ListObjectsIterator.this) {
+                    if (cancelled) {
+                        return;
+                    }
+                    listing = null;
+                    buffered.add(result);
+                    if (result.isTruncated()) {
+                        nextMarker = decodedNextMarker(result);
+                    } else {
+                        listedAll = true;
+                    }
+                    fetchIfNeeded();
+                    ListObjectsIterator.this.notifyAll();
+                }
+            }
+
+            @Override
+            public void onFailure(ListObjectsRequest request, ClientException clientException, ServiceException serviceException) {
+                synchronized (ListObjectsIterator.this) {
+                    if (cancelled) {
+                        return;
+                    }
+                    listing = null;
+                    ListObjectsIterator.this.clientException = clientException;
+                    ListObjectsIterator.this.serviceException = serviceException;
+                    ListObjectsIterator.this.notifyAll();
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the next marker of the listing, which is url encoded like the keys with the "url" encoding type,
+     * while the marker of the request is sent as it is
+     */
+    static String decodedNextMarker(ListObjectsResult result) {
+        if ("url".equals(result.getEncodingType())) {
+            return HttpUtil.urlDecode(result.getNextMarker(), OSSConstants.DEFAULT_CHARSET_NAME);
+        }
+        return result.getNextMarker();
+    }
+}
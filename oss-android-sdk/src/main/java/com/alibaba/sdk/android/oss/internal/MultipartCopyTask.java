@@ -0,0 +1,141 @@
+package com.alibaba.sdk.android.oss.internal;
+
+import com.alibaba.sdk.android.oss.ClientException;
+import com.alibaba.sdk.android.oss.ServiceException;
+import com.alibaba.sdk.android.oss.callback.OSSCompletedCallback;
+import com.alibaba.sdk.android.oss.model.AbortMultipartUploadRequest;
+import com.alibaba.sdk.android.oss.model.CompleteMultipartUploadResult;
+import com.alibaba.sdk.android.oss.model.HeadObjectRequest;
+import com.alibaba.sdk.android.oss.model.InitiateMultipartUploadRequest;
+import com.alibaba.sdk.android.oss.model.InitiateMultipartUploadResult;
+import com.alibaba.sdk.android.oss.model.MultipartCopyRequest;
+import com.alibaba.sdk.android.oss.model.ObjectMetadata;
+import com.alibaba.sdk.android.oss.model.PartETag;
+import com.alibaba.sdk.android.oss.model.UploadPartCopyRequest;
+import com.alibaba.sdk.android.oss.network.ExecutionContext;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
+/**
+ * Multipart upload whose parts are copied from the ranges of the source object by the UploadPartCopy,
+ * so a large object is copied in the server in parallel without its data passing through the client.
+ * <p>
+ * Every part is copied only if the source object still has the ETag it had at the start, so a source
+ * overwritten during the copy fails the copy instead of mixing the parts of the two objects.
+ */
+public class MultipartCopyTask extends BaseMultipartUploadTask<MultipartCopyRequest,
+        CompleteMultipartUploadResult> implements Callable<CompleteMultipartUploadResult> {
+
+    private String mSourceETag;
+
+    public MultipartCopyTask(InternalRequestOperation operation, MultipartCopyRequest request,
+                             OSSCompletedCallback<MultipartCopyRequest, CompleteMultipartUploadResult> completedCallback,
+                             ExecutionContext context) {
+        super(operation, request, completedCallback, context);
+    }
+
+    @Override
+    protected void initMultipartUploadId() throws ClientException, ServiceException {
+        HeadObjectRequest head = new HeadObjectRequest(mRequest.getSourceBucketName(), mRequest.getSourceKey());
+        ObjectMetadata sourceMetadata = mApiOperation.headObject(head, null).getResult().getMetadata();
+        mFileLength = sourceMetadata.getContentLength();
+        if (mFileLength == 0) {
+            throw new ClientException("source object length must not be 0");
+        }
+        mSourceETag = sourceMetadata.getETag();
+
+        ObjectMetadata metadata = mRequest.getMetadata();
+        if (metadata == null) {
+            // keeps the metadata of the source object like copyObject does
+            metadata = new ObjectMetadata();
+            if (sourceMetadata.getContentType() != null) {
+                metadata.setContentType(sourceMetadata.getContentType());
+            }
+            metadata.setUserMetadata(sourceMetadata.getUserMetadata());
+        }
+        InitiateMultipartUploadRequest init = new InitiateMultipartUploadRequest(
+                mRequest.getBucketName(), mRequest.getObjectKey(), metadata);
+
+        InitiateMultipartUploadResult initResult = mApiOperation.initMultipartUpload(init, null).getResult();
+
+        mUploadId = initResult.getUploadId();
+        mRequest.setUploadId(mUploadId);
+    }
+
+    @Override
+    protected CompleteMultipartUploadResult doMultipartUpload() throws IOException, ServiceException, ClientException, InterruptedException {
+        checkCancel();
+        int[] partAttr = new int[2];
+        checkPartSize(partAttr);
+        final long partSize = partAttr[0];
+        // the count of the parts of the size actually used
+        final int partNumber = (int) ((mFileLength + partSize - 1) / partSize);
+        for (int i = 0; i < partNumber; i++) {
+            checkException();
+            if (mPoolExecutor != null) {
+                final long beginIndex = i * partSize;
+                final int byteCount = (int) Math.min(partSize, mFileLength - beginIndex);
+                final int readIndex = i;
+                mPoolExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        copyPart(readIndex, beginIndex, byteCount, partNumber);
+                    }
+                });
+            }
+        }
+
+        if (checkWaitCondition(partNumber)) {
+            synchronized (mLock) {
+                mLock.wait();
+            }
+        }
+        if (mUploadException != null) {
+            abortThisUpload();
+        }
+        checkException();
+        //complete sort
+        CompleteMultipartUploadResult completeResult = completeMultipartUploadResult();
+
+        releasePool();
+        return completeResult;
+    }
+
+    private void copyPart(int readIndex, long beginIndex, int byteCount, int partNumber) {
+        try {
+            checkCancel();
+            checkException();
+
+            UploadPartCopyRequest copy = new UploadPartCopyRequest(mRequest.getSourceBucketName(),
+                    mRequest.getSourceKey(), mRequest.getBucketName(), mRequest.getObjectKey(), mUploadId, readIndex + 1);
+            copy.setRange(beginIndex, byteCount);
+            copy.setMatchingETag(mSourceETag);
+            String eTag = mApiOperation.uploadPartCopy(copy, null).getResult().getETag();
+
+            onPartCompleted(new PartETag(readIndex + 1, eTag), byteCount, partNumber);
+        } catch (Exception e) {
+            processException(e);
+        }
+    }
+
+    @Override
+    protected void abortThisUpload() {
+        if (mUploadId != null) {
+            AbortMultipartUploadRequest abort = new AbortMultipartUploadRequest(
+                    mRequest.getBucketName(), mRequest.getObjectKey(), mUploadId);
+            mApiOperation.abortMultipartUpload(abort, null).waitUntilFinished();
+        }
+    }
+
+    @Override
+    protected void processException(Exception e) {
+        synchronized (mLock) {
+            mPartExceptionCount++;
+            if (mUploadException == null) {
+                mUploadException = e;
+                mLock.notify();
+            }
+        }
+    }
+}
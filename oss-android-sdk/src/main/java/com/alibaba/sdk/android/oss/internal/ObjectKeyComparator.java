@@ -0,0 +1,27 @@
+package com.alibaba.sdk.android.oss.internal;
+
+import java.util.Comparator;
+
+/**
+ * Orders the object keys the way OSS lists them, by their UTF-8 bytes, which is the order of their code points.
+ * {@link String#compareTo(String)} orders by the UTF-16 chars instead, which differs for the characters
+ * above U+FFFF, e.g. emoji sort before U+E000..U+FFFF there but after them in a listing.
+ */
+class ObjectKeyComparator implements Comparator<String> {
+
+    static final ObjectKeyComparator INSTANCE = new ObjectKeyComparator();
+
+    @Override
+    public int compare(String key1, String key2) {
+        int i = 0;
+        while (i < key1.length() && i < key2.length()) {
+            int codePoint1 = key1.codePointAt(i);
+            int codePoint2 = key2.codePointAt(i);
+            if (codePoint1 != codePoint2) {
+                return codePoint1 < codePoint2 ? -1 : 1;
+            }
+            i += Character.charCount(codePoint1);
+        }
+        return key1.length() - key2.length();
+    }
+}
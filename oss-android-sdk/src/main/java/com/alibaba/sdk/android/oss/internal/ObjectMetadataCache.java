@@ -0,0 +1,256 @@
+package com.alibaba.sdk.android.oss.internal;
+
+import com.alibaba.sdk.android.oss.ServiceException;
+import com.alibaba.sdk.android.oss.model.HeadObjectRequest;
+import com.alibaba.sdk.android.oss.model.HeadObjectResult;
+import com.alibaba.sdk.android.oss.model.ObjectMetadata;
+import com.alibaba.sdk.android.oss.network.ExecutionContext;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * LRU cache of the headObject results, including the 404 errors of the absent objects, each kept for a ttl.
+ * <p>
+ * The writes of this client to an object (put, append, copy, multipart upload and delete) invalidate it
+ * before they're sent and after they complete. A headObject in flight while the same object is written does
+ * not cache its result, as it may be the state before the write.
+ * <p>
+ * Every hit gets its own copy of the result, so a caller changing it doesn't change the cached one.
+ */
+public class ObjectMetadataCache {
+
+    private final int maxSize;
+    private final long ttlInMillis;
+
+    private final LinkedHashMap<String, CachedMetadata> entries;
+
+    // the objects with a headObject in flight, guarded by this
+    private final Map<String, KeyState> inFlight = new HashMap<String, KeyState>();
+
+    private long hitCount;
+    private long missCount;
+
+    /**
+     * @param maxSize the max count of the cached objects
+     * @param ttlInMillis how long a result is cached
+     */
+    public ObjectMetadataCache(int maxSize, long ttlInMillis) {
+        this.maxSize = maxSize;
+        this.ttlInMillis = ttlInMillis;
+        this.entries = new LinkedHashMap<String, CachedMetadata>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedMetadata> eldest) {
+                return size() > ObjectMetadataCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Gets the cached result of the headObject.
+     * @return the callable returning the cached result or throwing the cached 404 error with the callbacks
+     * of the request called, null if it's not cached
+     */
+    public Callable<HeadObjectResult> getCached(HeadObjectRequest request,
+                                                final ExecutionContext<HeadObjectRequest> context) {
+        final CachedMetadata cached;
+        synchronized (this) {
+            String key = buildKey(request.getBucketName(), request.getObjectKey());
+            CachedMetadata entry = entries.get(key);
+            if (entry != null && System.currentTimeMillis() >= entry.expireAt) {
+                entries.remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                missCount++;
+                return null;
+            }
+            hitCount++;
+            cached = entry;
+        }
+        return new Callable<HeadObjectResult>() {
+            @Override
+            public HeadObjectResult call() throws Exception {
+                if (cached.result != null) {
+                    HeadObjectResult result = copy(cached.result);
+                    if (context.getCompletedCallback() != null) {
+                        context.getCompletedCallback().onSuccess(context.getRequest(), result);
+                    }
+                    return result;
+                }
+                if (context.getCompletedCallback() != null) {
+                    context.getCompletedCallback().onFailure(context.getRequest(), null, cached.notFound);
+                }
+                throw cached.notFound;
+            }
+        };
+    }
+
+    /**
+     * Wraps the headObject so that its result or 404 error is cached.
+     */
+    public Callable<HeadObjectResult> caching(String bucketName, String objectKey,
+                                              final Callable<HeadObjectResult> callable) {
+        final String key = buildKey(bucketName, objectKey);
+        return new Callable<HeadObjectResult>() {
+            @Override
+            public HeadObjectResult call() throws Exception {
+                KeyState state = enter(key);
+                long startGeneration;
+                synchronized (ObjectMetadataCache.this) {
+                    startGeneration = state.generation;
+                }
+                CachedMetadata cached = null;
+                try {
+                    HeadObjectResult result = callable.call();
+                    // the caller may change the result it gets
+                    cached = new CachedMetadata(copy(result), null, System.currentTimeMillis() + ttlInMillis);
+                    return result;
+                } catch (ServiceException e) {
+                    if (e.getStatusCode() == 404) {
+                        cached = new CachedMetadata(null, e, System.currentTimeMillis() + ttlInMillis);
+                    }
+                    throw e;
+                } finally {
+                    leave(key, state, cached, startGeneration);
+                }
+            }
+        };
+    }
+
+    /**
+     * Wraps a write to the object so that its cached metadata is invalidated before and after it.
+     */
+    public <T> Callable<T> invalidating(final String bucketName, final String objectKey, final Callable<T> callable) {
+        invalidate(bucketName, objectKey);
+        return new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                try {
+                    return callable.call();
+                } finally {
+                    invalidate(bucketName, objectKey);
+                }
+            }
+        };
+    }
+
+    /**
+     * Wraps a write to many objects, such as a batch delete, so that their cached metadata is invalidated
+     * before and after it.
+     */
+    public <T> Callable<T> invalidating(final String bucketName, final List<String> objectKeys, final Callable<T> callable) {
+        invalidate(bucketName, objectKeys);
+        return new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                try {
+                    return callable.call();
+                } finally {
+                    invalidate(bucketName, objectKeys);
+                }
+            }
+        };
+    }
+
+    public synchronized void invalidate(String bucketName, List<String> objectKeys) {
+        for (String objectKey : objectKeys) {
+            invalidate(buildKey(bucketName, objectKey));
+        }
+    }
+
+    public synchronized void invalidate(String bucketName, String objectKey) {
+        invalidate(buildKey(bucketName, objectKey));
+    }
+
+    public synchronized void clear() {
+        for (KeyState state : inFlight.values()) {
+            state.generation++;
+        }
+        entries.clear();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    // called with the lock held
+    private void invalidate(String key) {
+        KeyState state = inFlight.get(key);
+        if (state != null) {
+            state.generation++;
+        }
+        entries.remove(key);
+    }
+
+    private synchronized KeyState enter(String key) {
+        KeyState state = inFlight.get(key);
+        if (state == null) {
+            state = new KeyState();
+            inFlight.put(key, state);
+        }
+        state.heads++;
+        return state;
+    }
+
+    private synchronized void leave(String key, KeyState state, CachedMetadata metadata, long startGeneration) {
+        if (--state.heads == 0) {
+            inFlight.remove(key);
+        }
+        // the object written meanwhile may have changed after the result was produced
+        if (metadata != null && state.generation == startGeneration) {
+            entries.put(key, metadata);
+        }
+    }
+
+    private static String buildKey(String bucketName, String objectKey) {
+        return bucketName + "/" + objectKey;
+    }
+
+    private static HeadObjectResult copy(HeadObjectResult result) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        for (Map.Entry<String, Object> header : result.getMetadata().getRawMetadata().entrySet()) {
+            Object value = header.getValue();
+            metadata.setHeader(header.getKey(), value instanceof Date ? new Date(((Date) value).getTime()) : value);
+        }
+        metadata.setUserMetadata(result.getMetadata().getUserMetadata());
+
+        HeadObjectResult copy = new HeadObjectResult();
+        copy.setMetadata(metadata);
+        copy.setStatusCode(result.getStatusCode());
+        copy.setRequestId(result.getRequestId());
+        Map<String, String> responseHeader = result.getResponseHeader();
+        if (responseHeader instanceof ResponseHeaderMap) {
+            copy.setResponseHeader(new ResponseHeaderMap(((ResponseHeaderMap) responseHeader).getHeaders()));
+        } else if (responseHeader != null) {
+            copy.setResponseHeader(new HashMap<String, String>(responseHeader));
+        }
+        return copy;
+    }
+
+    // the writes to an object while a headObject of it is in flight
+    private static class KeyState {
+        int heads;
+        long generation;
+    }
+
+    private static class CachedMetadata {
+        final HeadObjectResult result;
+        final ServiceException notFound;
+        final long expireAt;
+
+        CachedMetadata(HeadObjectResult result, ServiceException notFound, long expireAt) {
+            this.result = result;
+            this.notFound = notFound;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -11,6 +11,7 @@ import com.alibaba.sdk.android.oss.common.auth.OSSFederationCredentialProvider;
 import com.alibaba.sdk.android.oss.common.auth.OSSFederationToken;
 import com.alibaba.sdk.android.oss.common.auth.OSSPlainTextAKSKCredentialProvider;
 import com.alibaba.sdk.android.oss.common.auth.OSSStsTokenCredentialProvider;
+import com.alibaba.sdk.android.oss.common.utils.BinaryUtil;
 import com.alibaba.sdk.android.oss.common.utils.DateUtil;
 import com.alibaba.sdk.android.oss.common.utils.HttpHeaders;
 import com.alibaba.sdk.android.oss.common.utils.HttpUtil;
@@ -18,9 +19,15 @@ import com.alibaba.sdk.android.oss.common.utils.OSSUtils;
 import com.alibaba.sdk.android.oss.model.GeneratePresignedUrlRequest;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
 /**
  * Created by zhouzhuo on 11/29/15.
  */
@@ -29,18 +36,79 @@ public class ObjectURLPresigner {
     private URI endpoint;
     private OSSCredentialProvider credentialProvider;
     private ClientConfiguration conf;
+    private PresignedURLCache urlCache;
 
     public ObjectURLPresigner(URI endpoint, OSSCredentialProvider credentialProvider, ClientConfiguration conf) {
+        this(endpoint, credentialProvider, conf, null);
+    }
+
+    public ObjectURLPresigner(URI endpoint, OSSCredentialProvider credentialProvider, ClientConfiguration conf,
+                              PresignedURLCache urlCache) {
         this.endpoint = endpoint;
         this.credentialProvider = credentialProvider;
         this.conf = conf;
+        this.urlCache = urlCache;
     }
 
-    public String presignConstrainedURL(GeneratePresignedUrlRequest request) throws ClientException{
+    public String presignConstrainedURL(GeneratePresignedUrlRequest request) throws ClientException {
+        return presignConstrainedURLs(Collections.singletonList(request)).get(0);
+    }
+
+    public String presignConstrainedURL(String bucketName, String objectKey, long expiredTimeInSeconds)
+            throws ClientException {
+        GeneratePresignedUrlRequest presignedUrlRequest = new GeneratePresignedUrlRequest(bucketName, objectKey);
+        presignedUrlRequest.setExpiration(expiredTimeInSeconds);
+        return presignConstrainedURL(presignedUrlRequest);
+    }
+
+    /**
+     * Presigns all the requests with the same credential, which is only fetched once.
+     * @return the urls in the order of the requests
+     */
+    public List<String> presignConstrainedURLs(List<GeneratePresignedUrlRequest> requests) throws ClientException {
+        List<String> urls = new ArrayList<String>(requests.size());
+        long currentTime = DateUtil.getFixedSkewedTimeMillis() / 1000;
+        Signer signer = null;
+
+        for (GeneratePresignedUrlRequest request : requests) {
+            String cacheKey = null;
+            if (urlCache != null) {
+                cacheKey = PresignedURLCache.buildKey(request);
+                String cachedUrl = urlCache.get(cacheKey, currentTime, request.getExpiration());
+                if (cachedUrl != null) {
+                    urls.add(cachedUrl);
+                    continue;
+                }
+            }
+
+            if (signer == null) {
+                signer = new Signer(credentialProvider);
+            }
+            long expires = currentTime + request.getExpiration();
+            String url = presign(request, String.valueOf(expires), signer);
+            if (urlCache != null) {
+                urlCache.put(cacheKey, url, Math.min(expires, signer.validUntil));
+            }
+            urls.add(url);
+        }
+        return urls;
+    }
+
+    public List<String> presignConstrainedURLs(String bucketName, List<String> objectKeys, long expiredTimeInSeconds)
+            throws ClientException {
+        List<GeneratePresignedUrlRequest> requests = new ArrayList<GeneratePresignedUrlRequest>(objectKeys.size());
+        for (String objectKey : objectKeys) {
+            GeneratePresignedUrlRequest presignedUrlRequest = new GeneratePresignedUrlRequest(bucketName, objectKey);
+            presignedUrlRequest.setExpiration(expiredTimeInSeconds);
+            requests.add(presignedUrlRequest);
+        }
+        return presignConstrainedURLs(requests);
+    }
+
+    private String presign(GeneratePresignedUrlRequest request, String expires, Signer signer) throws ClientException {
 
         String bucketName = request.getBucketName();
         String objectKey = request.getKey();
-        String expires = String.valueOf(DateUtil.getFixedSkewedTimeMillis() / 1000 + request.getExpiration());
         HttpMethod method = request.getMethod() != null ? request.getMethod() : HttpMethod.GET;
 
         RequestMessage requestMessage = new RequestMessage();
@@ -68,69 +136,105 @@ public class ObjectURLPresigner {
             requestMessage.getParameters().put(RequestParameters.X_OSS_PROCESS, request.getProcess());
         }
 
-        OSSFederationToken token = null;
-
-        if (credentialProvider instanceof OSSFederationCredentialProvider) {
-            token = ((OSSFederationCredentialProvider) credentialProvider).getValidFederationToken();
-            requestMessage.getParameters().put(RequestParameters.SECURITY_TOKEN,token.getSecurityToken());
-            if (token == null) {
-                throw new ClientException("Can not get a federation token!");
-            }
-        } else if (credentialProvider instanceof OSSStsTokenCredentialProvider) {
-            token = ((OSSStsTokenCredentialProvider) credentialProvider).getFederationToken();
-            requestMessage.getParameters().put(RequestParameters.SECURITY_TOKEN,token.getSecurityToken());
+        if (signer.securityToken != null) {
+            requestMessage.getParameters().put(RequestParameters.SECURITY_TOKEN, signer.securityToken);
         }
 
         String contentToSign = OSSUtils.buildCanonicalString(requestMessage);
 
-        String signature;
-
-        if (credentialProvider instanceof OSSFederationCredentialProvider
-                || credentialProvider instanceof OSSStsTokenCredentialProvider) {
-            signature = OSSUtils.sign(token.getTempAK(), token.getTempSK(), contentToSign);
-        } else if (credentialProvider instanceof OSSPlainTextAKSKCredentialProvider) {
-            signature = OSSUtils.sign(((OSSPlainTextAKSKCredentialProvider) credentialProvider).getAccessKeyId(),
-                    ((OSSPlainTextAKSKCredentialProvider) credentialProvider).getAccessKeySecret(), contentToSign);
-        } else if (credentialProvider instanceof OSSCustomSignerCredentialProvider) {
-            signature = ((OSSCustomSignerCredentialProvider) credentialProvider).signContent(contentToSign);
-        } else {
-            throw new ClientException("Unknown credentialProvider!");
-        }
-
-        String accessKey = signature.split(":")[0].substring(4);
-        signature = signature.split(":")[1];
-
-        String host = endpoint.getHost();
-        if (!OSSUtils.isCname(host) || OSSUtils.isInCustomCnameExcludeList(host, conf.getCustomCnameExcludeList())) {
-            host = bucketName + "." + host;
-        }
-
         Map<String, String> params = new LinkedHashMap<String, String>();
         params.put(HttpHeaders.EXPIRES, expires);
-        params.put(RequestParameters.OSS_ACCESS_KEY_ID, accessKey);
-        params.put(RequestParameters.SIGNATURE, signature);
+        signer.sign(contentToSign, params);
         params.putAll(requestMessage.getParameters());
 
         String queryString = HttpUtil.paramToQueryString(params, "utf-8");
 
-        String url = endpoint.getScheme() + "://" + host + "/" + HttpUtil.urlEncode(objectKey, OSSConstants.DEFAULT_CHARSET_NAME)
-                + "?" + queryString;
-
-        return url;
+        return endpoint.getScheme() + "://" + buildHost(bucketName) + "/"
+                + HttpUtil.urlEncode(objectKey, OSSConstants.DEFAULT_CHARSET_NAME) + "?" + queryString;
     }
 
-    public String presignConstrainedURL(String bucketName, String objectKey, long expiredTimeInSeconds)
-            throws ClientException {
-        GeneratePresignedUrlRequest presignedUrlRequest = new GeneratePresignedUrlRequest(bucketName, objectKey);
-        presignedUrlRequest.setExpiration(expiredTimeInSeconds);
-        return presignConstrainedURL(presignedUrlRequest);
+    public String presignPublicURL(String bucketName, String objectKey) {
+        return endpoint.getScheme() + "://" + buildHost(bucketName) + "/"
+                + HttpUtil.urlEncode(objectKey, OSSConstants.DEFAULT_CHARSET_NAME);
     }
 
-    public String presignPublicURL(String bucketName, String objectKey) {
+    private String buildHost(String bucketName) {
         String host = endpoint.getHost();
         if (!OSSUtils.isCname(host) || OSSUtils.isInCustomCnameExcludeList(host, conf.getCustomCnameExcludeList())) {
             host = bucketName + "." + host;
         }
-        return endpoint.getScheme() + "://" + host + "/" + HttpUtil.urlEncode(objectKey, OSSConstants.DEFAULT_CHARSET_NAME);
+        return host;
+    }
+
+    /**
+     * A snapshot of the credential, which signs many urls with the same key.
+     */
+    private static class Signer {
+
+        private static final String HMAC_SHA1 = "HmacSHA1";
+
+        private String accessKeyId;
+        private String accessKeySecret;
+        private String securityToken;
+        private OSSCustomSignerCredentialProvider customSigner;
+        // initialized with the secret once for the whole batch
+        private Mac hmac;
+        // the time in seconds after which the signed urls stop working because of the credential
+        private long validUntil = Long.MAX_VALUE;
+
+        Signer(OSSCredentialProvider credentialProvider) throws ClientException {
+            OSSFederationToken token = null;
+            if (credentialProvider instanceof OSSFederationCredentialProvider) {
+                token = ((OSSFederationCredentialProvider) credentialProvider).getValidFederationToken();
+                if (token == null) {
+                    throw new ClientException("Can not get a federation token!");
+                }
+                validUntil = token.getExpiration();
+            } else if (credentialProvider instanceof OSSStsTokenCredentialProvider) {
+                token = ((OSSStsTokenCredentialProvider) credentialProvider).getFederationToken();
+            } else if (credentialProvider instanceof OSSPlainTextAKSKCredentialProvider) {
+                accessKeyId = ((OSSPlainTextAKSKCredentialProvider) credentialProvider).getAccessKeyId();
+                accessKeySecret = ((OSSPlainTextAKSKCredentialProvider) credentialProvider).getAccessKeySecret();
+            } else if (credentialProvider instanceof OSSCustomSignerCredentialProvider) {
+                customSigner = (OSSCustomSignerCredentialProvider) credentialProvider;
+            } else {
+                throw new ClientException("Unknown credentialProvider!");
+            }
+
+            if (token != null) {
+                accessKeyId = token.getTempAK();
+                accessKeySecret = token.getTempSK();
+                securityToken = token.getSecurityToken();
+            }
+        }
+
+        void sign(String contentToSign, Map<String, String> params) throws ClientException {
+            String accessKey;
+            String signature;
+            if (customSigner != null) {
+                // the custom signer returns "OSS " + accessKeyId + ":" + signature
+                String authorization = customSigner.signContent(contentToSign);
+                int colon = authorization == null ? -1 : authorization.indexOf(':');
+                if (colon < 4) {
+                    throw new ClientException("The custom signed content is invalid: " + authorization);
+                }
+                accessKey = authorization.substring(4, colon);
+                signature = authorization.substring(colon + 1);
+            } else {
+                try {
+                    accessKey = accessKeyId;
+                    if (hmac == null) {
+                        hmac = Mac.getInstance(HMAC_SHA1);
+                        hmac.init(new SecretKeySpec(accessKeySecret.getBytes(OSSConstants.DEFAULT_CHARSET_NAME), HMAC_SHA1));
+                    }
+                    signature = BinaryUtil.toBase64String(
+                            hmac.doFinal(contentToSign.getBytes(OSSConstants.DEFAULT_CHARSET_NAME))).trim();
+                } catch (Exception e) {
+                    throw new IllegalStateException("Compute signature failed!", e);
+                }
+            }
+            params.put(RequestParameters.OSS_ACCESS_KEY_ID, accessKey);
+            params.put(RequestParameters.SIGNATURE, signature);
+        }
     }
 }
@@ -0,0 +1,302 @@
+package com.alibaba.sdk.android.oss.internal;
+
+import com.alibaba.sdk.android.oss.ClientException;
+import com.alibaba.sdk.android.oss.ServiceException;
+import com.alibaba.sdk.android.oss.callback.OSSCompletedCallback;
+import com.alibaba.sdk.android.oss.common.OSSConstants;
+import com.alibaba.sdk.android.oss.common.OSSLog;
+import com.alibaba.sdk.android.oss.model.ListObjectsRequest;
+import com.alibaba.sdk.android.oss.model.ListObjectsResult;
+import com.alibaba.sdk.android.oss.model.OSSObjectSummary;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Lists all the objects under a prefix with several listings in parallel, and iterates the pages of the objects.
+ * <p>
+ * The prefix is first listed as one shard. A shard with more objects than a page is split by the "/" delimiter
+ * into its sub-directories, which are listed as shards in parallel, and so on down to a few levels. The first page
+ * of a split shard is listed again, which is a single extra request for a large shard.
+ * <p>
+ * The pages arrive in the order they're listed, or in the key order when it's required. The count of the pages
+ * listed and not read yet is bounded, so the listing waits for a slow reader. The iterator should be cancelled
+ * when it's not read to the end.
+ * <p>
+ * The listings run on the request executor of the client, so the parallelism is at most its
+ * {@link OSSConstants#DEFAULT_BASE_THREAD_POOL_SIZE} threads.
+ */
+public class ParallelListObjectsIterator {
+
+    private static final String DELIMITER = "/";
+    private static final int MAX_KEYS = 1000;
+    private static final int MAX_SPLIT_DEPTH = 4;
+
+    private final InternalRequestOperation operation;
+    private final String bucketName;
+    private final int maxKeys;
+    private final int parallelism;
+    private final int maxBufferedPages;
+    private final boolean ordered;
+
+    // all guarded by this
+    private final List<OSSAsyncTask<ListObjectsResult>> listings = new ArrayList<OSSAsyncTask<ListObjectsResult>>();
+    private final LinkedList<Shard> pausedShards = new LinkedList<Shard>();
+    // the pages in the listed order, when it's not ordered
+    private final LinkedList<List<OSSObjectSummary>> pages = new LinkedList<List<OSSObjectSummary>>();
+    // the shards the reader is in, when it's ordered, the last one is read from
+    private final LinkedList<Shard> readPath = new LinkedList<Shard>();
+    private int bufferedPages;
+    private int unfinishedShards;
+    private boolean cancelled;
+    private ClientException clientException;
+    private ServiceException serviceException;
+
+    /**
+     * @param parallelism the max count of the listings in flight, from 1 to
+     *                    {@link OSSConstants#DEFAULT_BASE_THREAD_POOL_SIZE}
+     * @param ordered true to iterate the pages in the key order, otherwise in the order they're listed
+     */
+    public ParallelListObjectsIterator(InternalRequestOperation operation, String bucketName, String prefix,
+                                       int parallelism, boolean ordered) {
+        this(operation, bucketName, prefix, MAX_KEYS, parallelism, ordered);
+    }
+
+    /**
+     * @param maxKeys the max count of the keys of a listing, a shard with more is split
+     */
+    ParallelListObjectsIterator(InternalRequestOperation operation, String bucketName, String prefix, int maxKeys,
+                                int parallelism, boolean ordered) {
+        if (parallelism < 1 || parallelism > OSSConstants.DEFAULT_BASE_THREAD_POOL_SIZE) {
+            // more listings would only wait in the queue of the request executor
+            throw new IllegalArgumentException("The parallelism should be from 1 to "
+                    + OSSConstants.DEFAULT_BASE_THREAD_POOL_SIZE);
+        }
+        this.operation = operation;
+        this.bucketName = bucketName;
+        this.maxKeys = maxKeys;
+        this.parallelism = parallelism;
+        this.maxBufferedPages = parallelism * 2;
+        this.ordered = ordered;
+        Shard root = new Shard(prefix != null ? prefix : "", 0);
+        synchronized (this) {
+            readPath.add(root);
+            unfinishedShards = 1;
+            schedule(root);
+        }
+    }
+
+    /**
+     * Waits for the next page if it's being listed.
+     * @return false when all the pages have been read or the iterator is cancelled
+     */
+    public synchronized boolean hasNext() throws ClientException, ServiceException {
+        while (true) {
+            if (cancelled) {
+                return false;
+            }
+            if (clientException != null) {
+                throw clientException;
+            }
+            if (serviceException != null) {
+                throw serviceException;
+            }
+            if (ordered ? moveToNextPage() : !pages.isEmpty()) {
+                return true;
+            }
+            if (ordered ? readPath.isEmpty() : unfinishedShards == 0) {
+                return false;
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ClientException("Interrupted while waiting for the listing", e);
+            }
+        }
+    }
+
+    /**
+     * @return the next page of the objects, which is never empty
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized List<OSSObjectSummary> next() throws ClientException, ServiceException {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        List<OSSObjectSummary> page = ordered
+                ? (List<OSSObjectSummary>) readPath.getLast().segments.removeFirst() : pages.removeFirst();
+        bufferedPages--;
+        resumePausedShards();
+        return page;
+    }
+
+    /**
+     * Stops the listings in flight and drops the buffered pages.
+     */
+    public synchronized void cancel() {
+        cancelled = true;
+        for (OSSAsyncTask<ListObjectsResult> listing : listings) {
+            listing.cancel();
+        }
+        listings.clear();
+        pausedShards.clear();
+        pages.clear();
+        readPath.clear();
+        notifyAll();
+    }
+
+    // moves the read path to the shard whose first segment is a page, returns false if it's not listed yet
+    private boolean moveToNextPage() {
+        while (!readPath.isEmpty()) {
+            Shard shard = readPath.getLast();
+            if (!shard.segments.isEmpty()) {
+                Object segment = shard.segments.getFirst();
+                if (!(segment instanceof Shard)) {
+                    return true;
+                }
+                shard.segments.removeFirst();
+                readPath.add((Shard) segment);
+            } else if (shard.listedAll) {
+                readPath.removeLast();
+            } else {
+                // the reader waits for this shard, so it's listed even though the buffer is full
+                if (shard.paused && listings.size() < parallelism) {
+                    pausedShards.remove(shard);
+                    shard.paused = false;
+                    list(shard);
+                }
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private void schedule(Shard shard) {
+        if (listings.size() < parallelism && bufferedPages + listings.size() < maxBufferedPages) {
+            list(shard);
+        } else {
+            shard.paused = true;
+            pausedShards.add(shard);
+        }
+    }
+
+    private void resumePausedShards() {
+        if (ordered) {
+            // the shard the reader waits for goes first
+            moveToNextPage();
+        }
+        while (!pausedShards.isEmpty() && listings.size() < parallelism
+                && bufferedPages + listings.size() < maxBufferedPages) {
+            Shard shard = pausedShards.removeFirst();
+            shard.paused = false;
+            list(shard);
+        }
+    }
+
+    // called with the lock held, so the callback of the listing can't run before it's recorded
+    @SuppressWarnings("unchecked")
+    private void list(final Shard shard) {
+        ListObjectsRequest request = new ListObjectsRequest(bucketName, shard.prefix, shard.marker,
+                shard.split ? DELIMITER : null, maxKeys);
+        final OSSAsyncTask<ListObjectsResult>[] listing = new OSSAsyncTask[1];
+        listing[0] = operation.listObjects(request, new OSSCompletedCallback<ListObjectsRequest, ListObjectsResult>() {
+            @Override
+            public void onSuccess(ListObjectsRequest request, ListObjectsResult result) {
+                synchronized (ParallelListObjectsIterator.this) {
+                    if (listings.remove(listing[0]) && !cancelled) {
+                        onListed(shard, result);
+                        resumePausedShards();
+                    }
+                    ParallelListObjectsIterator.this.notifyAll();
+                }
+            }
+
+            @Override
+            public void onFailure(ListObjectsRequest request, ClientException clientException, ServiceException serviceException) {
+                synchronized (ParallelListObjectsIterator.this) {
+                    if (listings.remove(listing[0]) && !cancelled && ParallelListObjectsIterator.this.clientException == null
+                            && ParallelListObjectsIterator.this.serviceException == null) {
+                        ParallelListObjectsIterator.this.clientException = clientException;
+                        ParallelListObjectsIterator.this.serviceException = serviceException;
+                    }
+                    ParallelListObjectsIterator.this.notifyAll();
+                }
+            }
+        });
+        listings.add(listing[0]);
+    }
+
+    private void onListed(Shard shard, ListObjectsResult result) {
+        if (!shard.split && shard.marker == null && result.isTruncated() && shard.depth < MAX_SPLIT_DEPTH) {
+            // too large for a shard, lists its sub-directories instead
+            OSSLog.logDebug("[ParallelListObjectsIterator] - split " + shard.prefix);
+            shard.split = true;
+            schedule(shard);
+            return;
+        }
+
+        // the objects and the sub-directories are merged in the key order
+        List<OSSObjectSummary> objects = result.getObjectSummaries();
+        List<String> prefixes = shard.split ? result.getCommonPrefixes() : new ArrayList<String>();
+        List<OSSObjectSummary> page = new ArrayList<OSSObjectSummary>();
+        int i = 0;
+        int j = 0;
+        while (i < objects.size() || j < prefixes.size()) {
+            if (j >= prefixes.size() || (i < objects.size()
+                    && ObjectKeyComparator.INSTANCE.compare(objects.get(i).getKey(), prefixes.get(j)) < 0)) {
+                page.add(objects.get(i++));
+            } else {
+                addPage(shard, page);
+                page = new ArrayList<OSSObjectSummary>();
+                Shard child = new Shard(prefixes.get(j++), shard.depth + 1);
+                unfinishedShards++;
+                if (ordered) {
+                    shard.segments.add(child);
+                }
+                schedule(child);
+            }
+        }
+        addPage(shard, page);
+
+        if (result.isTruncated()) {
+            shard.marker = ListObjectsIterator.decodedNextMarker(result);
+            schedule(shard);
+        } else {
+            shard.listedAll = true;
+            unfinishedShards--;
+        }
+    }
+
+    private void addPage(Shard shard, List<OSSObjectSummary> page) {
+        if (page.isEmpty()) {
+            return;
+        }
+        bufferedPages++;
+        if (ordered) {
+            shard.segments.add(page);
+        } else {
+            pages.add(page);
+        }
+    }
+
+    private static class Shard {
+        final String prefix;
+        final int depth;
+
+        String marker;
+        // listed by the delimiter
+        boolean split;
+        boolean paused;
+        boolean listedAll;
+        // the pages and the sub-shards in the key order, when it's ordered
+        final LinkedList<Object> segments = new LinkedList<Object>();
+
+        Shard(String prefix, int depth) {
+            this.prefix = prefix;
+            this.depth = depth;
+        }
+    }
+}
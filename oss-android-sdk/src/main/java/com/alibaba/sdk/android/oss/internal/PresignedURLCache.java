@@ -0,0 +1,87 @@
+package com.alibaba.sdk.android.oss.internal;
+
+import com.alibaba.sdk.android.oss.common.HttpMethod;
+import com.alibaba.sdk.android.oss.model.GeneratePresignedUrlRequest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * LRU cache of presigned urls.
+ * A url is reused for the same request (bucket, key, process, expiration and so on) while more than half of
+ * the requested expiration is left, so a list showing the same objects again does not sign them again.
+ */
+public class PresignedURLCache {
+
+    private final int maxSize;
+
+    private final LinkedHashMap<String, CachedURL> urls;
+
+    public PresignedURLCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.urls = new LinkedHashMap<String, CachedURL>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedURL> eldest) {
+                return size() > PresignedURLCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Gets the cached url if it's still fresh enough
+     * @param cacheKey key built by {@link #buildKey(GeneratePresignedUrlRequest)}
+     * @param currentTime current time in seconds
+     * @param expiration the requested expiration in seconds
+     */
+    public synchronized String get(String cacheKey, long currentTime, long expiration) {
+        CachedURL cached = urls.get(cacheKey);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.validUntil - currentTime <= expiration / 2) {
+            urls.remove(cacheKey);
+            return null;
+        }
+        return cached.url;
+    }
+
+    /**
+     * @param validUntil the time in seconds after which the url no longer works, which is the earlier one of
+     *                   the url expiration and the sts token expiration
+     */
+    public synchronized void put(String cacheKey, String url, long validUntil) {
+        urls.put(cacheKey, new CachedURL(url, validUntil));
+    }
+
+    public synchronized void clear() {
+        urls.clear();
+    }
+
+    public static String buildKey(GeneratePresignedUrlRequest request) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(request.getMethod() != null ? request.getMethod() : HttpMethod.GET).append('\n')
+                .append(request.getBucketName()).append('\n')
+                .append(request.getKey()).append('\n')
+                .append(request.getExpiration()).append('\n')
+                .append(request.getProcess()).append('\n')
+                .append(request.getContentType()).append('\n')
+                .append(request.getContentMD5());
+        if (request.getQueryParameter() != null && request.getQueryParameter().size() > 0) {
+            for (Map.Entry<String, String> entry : new TreeMap<String, String>(request.getQueryParameter()).entrySet()) {
+                builder.append('\n').append(entry.getKey()).append('=').append(entry.getValue());
+            }
+        }
+        return builder.toString();
+    }
+
+    private static class CachedURL {
+        final String url;
+        final long validUntil;
+
+        CachedURL(String url, long validUntil) {
+            this.url = url;
+            this.validUntil = validUntil;
+        }
+    }
+}
@@ -6,8 +6,9 @@ import com.alibaba.sdk.android.oss.common.OSSHeaders;
 import com.alibaba.sdk.android.oss.common.OSSLog;
 import com.alibaba.sdk.android.oss.common.auth.OSSCredentialProvider;
 import com.alibaba.sdk.android.oss.common.utils.HttpUtil;
-import com.alibaba.sdk.android.oss.common.utils.HttpdnsMini;
 import com.alibaba.sdk.android.oss.common.utils.OSSUtils;
+import com.alibaba.sdk.android.oss.network.HedgingPolicy;
+import com.alibaba.sdk.android.oss.network.RequestCoalescer;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
@@ -31,7 +32,12 @@ public class RequestMessage {
     private Map<String, String> parameters = new LinkedHashMap<String, String>();
 
     private OSSCredentialProvider credentialProvider;
-    private boolean httpDnsEnable = false;
+
+    private BucketEndpointCache bucketEndpointCache;
+
+    private HedgingPolicy hedgingPolicy;
+
+    private RequestCoalescer requestCoalescer;
 
     private boolean isInCustomCnameExcludeList = false;
 
@@ -60,16 +66,32 @@ public class RequestMessage {
         this.credentialProvider = credentialProvider;
     }
 
-    public void setEndpoint(URI endpoint) {
-        this.endpoint = endpoint;
+    public BucketEndpointCache getBucketEndpointCache() {
+        return bucketEndpointCache;
+    }
+
+    public void setBucketEndpointCache(BucketEndpointCache bucketEndpointCache) {
+        this.bucketEndpointCache = bucketEndpointCache;
+    }
+
+    public HedgingPolicy getHedgingPolicy() {
+        return hedgingPolicy;
+    }
+
+    public void setHedgingPolicy(HedgingPolicy hedgingPolicy) {
+        this.hedgingPolicy = hedgingPolicy;
+    }
+
+    public RequestCoalescer getRequestCoalescer() {
+        return requestCoalescer;
     }
 
-    public boolean isHttpDnsEnable() {
-        return httpDnsEnable;
+    public void setRequestCoalescer(RequestCoalescer requestCoalescer) {
+        this.requestCoalescer = requestCoalescer;
     }
 
-    public void setHttpDnsEnable(boolean httpDnsEnable) {
-        this.httpDnsEnable = httpDnsEnable;
+    public void setEndpoint(URI endpoint) {
+        this.endpoint = endpoint;
     }
 
     public String getBucketName() {
@@ -173,18 +195,6 @@ public class RequestMessage {
             originHost = bucketName + "." + originHost;
         }
 
-        String urlHost = null;
-        if (isHttpDnsEnable()) {
-            urlHost = HttpdnsMini.getInstance().getIpByHostAsync(originHost);
-        } else {
-            OSSLog.logDebug("[buildCannonicalURL], disable httpdns");
-        }
-
-        // The urlHost is null when the asynchronous DNS resolution API never returns IP.
-        if (urlHost == null) {
-            urlHost = originHost;
-        }
-
         String headerHost = originHost;
         if (OSSUtils.isCname(originHost) && this.isInCustomCnameExcludeList() && bucketName != null) {
             headerHost = bucketName + "." + originHost;
@@ -192,7 +202,8 @@ public class RequestMessage {
 
         headers.put(OSSHeaders.HOST, headerHost);
 
-        baseURL = scheme + "://" + urlHost;
+        // The host is resolved by the okhttp Dns, which is HttpDNS when it's enabled.
+        baseURL = scheme + "://" + originHost;
         if (objectKey != null) {
             baseURL += "/" + HttpUtil.urlEncode(objectKey, OSSConstants.DEFAULT_CHARSET_NAME);
         }
@@ -200,14 +211,16 @@ public class RequestMessage {
         String queryString = OSSUtils.paramToQueryString(this.parameters, OSSConstants.DEFAULT_CHARSET_NAME);
 
         //输入请求信息日志
-        StringBuilder printReq = new StringBuilder();
-        printReq.append("request---------------------\n");
-        printReq.append("request url="+baseURL+"\n");
-        printReq.append("request params="+queryString+"\n");
-        for(String key : headers.keySet()){
-            printReq.append("requestHeader ["+key+"]: ").append(headers.get(key)+"\n");
+        if (OSSLog.isEnableLog()) {
+            StringBuilder printReq = new StringBuilder();
+            printReq.append("request---------------------\n");
+            printReq.append("request url="+baseURL+"\n");
+            printReq.append("request params="+queryString+"\n");
+            for(String key : headers.keySet()){
+                printReq.append("requestHeader ["+key+"]: ").append(headers.get(key)+"\n");
+            }
+            OSSLog.logDebug(printReq.toString());
         }
-        OSSLog.logDebug(printReq.toString());
 
         if (OSSUtils.isEmptyString(queryString)) {
             return baseURL;
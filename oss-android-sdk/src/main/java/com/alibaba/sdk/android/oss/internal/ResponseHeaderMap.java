@@ -0,0 +1,99 @@
+package com.alibaba.sdk.android.oss.internal;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import okhttp3.Headers;
+
+/**
+ * Map view over the okhttp response headers.
+ * Single header lookups go straight to {@link Headers}, the copy is only built when the
+ * caller iterates or modifies the map. The names are case-insensitive either way, like HTTP headers.
+ */
+public class ResponseHeaderMap extends AbstractMap<String, String> {
+
+    private final Headers headers;
+
+    private Map<String, String> copied;
+
+    public ResponseHeaderMap(Headers headers) {
+        this.headers = headers;
+    }
+
+    /**
+     * The underlying okhttp headers (SDK internal only)
+     */
+    public Headers getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public String get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        Map<String, String> map = copiedMap(false);
+        if (map != null) {
+            return map.get(key);
+        }
+        return headers.get((String) key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (!(key instanceof String)) {
+            return false;
+        }
+        Map<String, String> map = copiedMap(false);
+        if (map != null) {
+            return map.containsKey(key);
+        }
+        return get(key) != null;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        Map<String, String> map = copiedMap(false);
+        if (map != null) {
+            return map.isEmpty();
+        }
+        return headers.size() == 0;
+    }
+
+    @Override
+    public int size() {
+        return copiedMap(true).size();
+    }
+
+    @Override
+    public String put(String key, String value) {
+        return copiedMap(true).put(key, value);
+    }
+
+    @Override
+    public String remove(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        return copiedMap(true).remove(key);
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return copiedMap(true).entrySet();
+    }
+
+    private synchronized Map<String, String> copiedMap(boolean create) {
+        if (copied == null && create) {
+            Map<String, String> map = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+            // the last value of a repeated header wins, as it does for Headers.get
+            for (int i = 0; i < headers.size(); i++) {
+                map.put(headers.name(i), headers.value(i));
+            }
+            copied = map;
+        }
+        return copied;
+    }
+}
@@ -9,6 +9,7 @@ import com.alibaba.sdk.android.oss.model.AppendObjectResult;
 import com.alibaba.sdk.android.oss.model.CompleteMultipartUploadResult;
 import com.alibaba.sdk.android.oss.model.CopyObjectResult;
 import com.alibaba.sdk.android.oss.model.DeleteBucketResult;
+import com.alibaba.sdk.android.oss.model.DeleteMultipleObjectResult;
 import com.alibaba.sdk.android.oss.model.DeleteObjectResult;
 import com.alibaba.sdk.android.oss.model.GetBucketACLResult;
 import com.alibaba.sdk.android.oss.model.GetObjectResult;
@@ -21,8 +22,10 @@ import com.alibaba.sdk.android.oss.model.ObjectMetadata;
 import com.alibaba.sdk.android.oss.model.PartSummary;
 import com.alibaba.sdk.android.oss.model.CreateBucketResult;
 import com.alibaba.sdk.android.oss.model.PutObjectResult;
+import com.alibaba.sdk.android.oss.model.UploadPartCopyResult;
 import com.alibaba.sdk.android.oss.model.UploadPartResult;
 
+import okhttp3.Headers;
 import okhttp3.Response;
 
 import org.w3c.dom.Document;
@@ -37,7 +40,6 @@ import java.io.InputStream;
 import java.io.StringReader;
 import java.text.ParseException;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -54,6 +56,11 @@ public final class ResponseParsers {
 
     public static final class PutObjectResponseParser extends AbstractResponseParser<PutObjectResult> {
 
+        @Override
+        PutObjectResult createResult() {
+            return new PutObjectResult();
+        }
+
         @Override
         public PutObjectResult parseData(Response response,PutObjectResult result)
                 throws IOException {
@@ -67,6 +74,11 @@ public final class ResponseParsers {
 
     public static final class AppendObjectResponseParser extends AbstractResponseParser<AppendObjectResult> {
 
+        @Override
+        AppendObjectResult createResult() {
+            return new AppendObjectResult();
+        }
+
         @Override
         public AppendObjectResult parseData(Response response,AppendObjectResult result) throws IOException {
             String nextPosition = response.header(OSSHeaders.OSS_NEXT_APPEND_POSITION);
@@ -80,18 +92,28 @@ public final class ResponseParsers {
 
     public static final class HeadObjectResponseParser extends AbstractResponseParser<HeadObjectResult> {
 
+        @Override
+        HeadObjectResult createResult() {
+            return new HeadObjectResult();
+        }
+
         @Override
         public HeadObjectResult parseData(Response response,HeadObjectResult result) throws IOException {
-            result.setMetadata(parseObjectMetadata(result.getResponseHeader()));
+            result.setMetadata(parseObjectMetadata(response.headers()));
             return result;
         }
     }
 
     public static final class GetObjectResponseParser extends AbstractResponseParser<GetObjectResult> {
 
+        @Override
+        GetObjectResult createResult() {
+            return new GetObjectResult();
+        }
+
         @Override
         public GetObjectResult parseData(Response response,GetObjectResult result) throws IOException {
-            result.setMetadata(parseObjectMetadata(result.getResponseHeader()));
+            result.setMetadata(parseObjectMetadata(response.headers()));
             result.setContentLength(response.body().contentLength());
             result.setObjectContent(response.body().byteStream());
             return result;
@@ -106,6 +128,11 @@ public final class ResponseParsers {
 
     public static final class CopyObjectResponseParser extends AbstractResponseParser<CopyObjectResult> {
 
+        @Override
+        CopyObjectResult createResult() {
+            return new CopyObjectResult();
+        }
+
         @Override
         public CopyObjectResult parseData(Response response,CopyObjectResult result) throws Exception {
             result = parseCopyObjectResponseXML(response.body().byteStream(),result);
@@ -115,10 +142,16 @@ public final class ResponseParsers {
 
     public static final class CreateBucketResponseParser extends AbstractResponseParser<CreateBucketResult> {
 
+        @Override
+        CreateBucketResult createResult() {
+            return new CreateBucketResult();
+        }
+
         @Override
         public CreateBucketResult parseData(Response response,CreateBucketResult result) throws IOException {
-            if(result.getResponseHeader().containsKey("Location")) {
-                result.bucketLocation = result.getResponseHeader().get("Location");
+            String location = response.header("Location");
+            if (location != null) {
+                result.bucketLocation = location;
             }
             return result;
         }
@@ -126,6 +159,11 @@ public final class ResponseParsers {
 
     public static final class DeleteBucketResponseParser extends AbstractResponseParser<DeleteBucketResult> {
 
+        @Override
+        DeleteBucketResult createResult() {
+            return new DeleteBucketResult();
+        }
+
         @Override
         public DeleteBucketResult parseData(Response response,DeleteBucketResult result) throws IOException {
             return result;
@@ -134,6 +172,11 @@ public final class ResponseParsers {
 
     public static final class GetBucketACLResponseParser extends AbstractResponseParser<GetBucketACLResult> {
 
+        @Override
+        GetBucketACLResult createResult() {
+            return new GetBucketACLResult();
+        }
+
         @Override
         public GetBucketACLResult parseData(Response response,GetBucketACLResult result) throws Exception {
             result = parseGetBucketACLResponse(response.body().byteStream(),result);
@@ -144,14 +187,41 @@ public final class ResponseParsers {
 
     public static final class DeleteObjectResponseParser extends AbstractResponseParser<DeleteObjectResult> {
 
+        @Override
+        DeleteObjectResult createResult() {
+            return new DeleteObjectResult();
+        }
+
         @Override
         public DeleteObjectResult parseData(Response response,DeleteObjectResult result) throws IOException {
             return result;
         }
     }
 
+    public static final class DeleteMultipleObjectResponseParser extends AbstractResponseParser<DeleteMultipleObjectResult> {
+
+        @Override
+        DeleteMultipleObjectResult createResult() {
+            return new DeleteMultipleObjectResult();
+        }
+
+        @Override
+        public DeleteMultipleObjectResult parseData(Response response, DeleteMultipleObjectResult result) throws Exception {
+            // the quiet mode may have no body when every object is deleted
+            if (response.body().contentLength() != 0) {
+                result = parseDeleteMultipleObjectResponseXML(response.body().byteStream(), result);
+            }
+            return result;
+        }
+    }
+
     public static final class ListObjectsResponseParser extends AbstractResponseParser<ListObjectsResult> {
 
+        @Override
+        ListObjectsResult createResult() {
+            return new ListObjectsResult();
+        }
+
         @Override
         public ListObjectsResult parseData(Response response,ListObjectsResult result) throws Exception {
             result = parseObjectListResponse(response.body().byteStream(),result);
@@ -161,6 +231,11 @@ public final class ResponseParsers {
 
     public static final class InitMultipartResponseParser extends AbstractResponseParser<InitiateMultipartUploadResult> {
 
+        @Override
+        InitiateMultipartUploadResult createResult() {
+            return new InitiateMultipartUploadResult();
+        }
+
         @Override
         public InitiateMultipartUploadResult parseData(Response response,InitiateMultipartUploadResult result) throws Exception {
                 return parseInitMultipartResponseXML(response.body().byteStream(),result);
@@ -169,6 +244,11 @@ public final class ResponseParsers {
 
     public static final class UploadPartResponseParser extends AbstractResponseParser<UploadPartResult> {
 
+        @Override
+        UploadPartResult createResult() {
+            return new UploadPartResult();
+        }
+
         @Override
         public UploadPartResult parseData(Response response,UploadPartResult result) throws IOException {
             result.setETag(trimQuotes(response.header(OSSHeaders.ETAG)));
@@ -176,8 +256,27 @@ public final class ResponseParsers {
         }
     }
 
+    public static final class UploadPartCopyResponseParser extends AbstractResponseParser<UploadPartCopyResult> {
+
+        @Override
+        UploadPartCopyResult createResult() {
+            return new UploadPartCopyResult();
+        }
+
+        @Override
+        public UploadPartCopyResult parseData(Response response, UploadPartCopyResult result) throws Exception {
+            result = parseUploadPartCopyResponseXML(response.body().byteStream(), result);
+            return result;
+        }
+    }
+
     public static final class AbortMultipartUploadResponseParser extends AbstractResponseParser<AbortMultipartUploadResult> {
 
+        @Override
+        AbortMultipartUploadResult createResult() {
+            return new AbortMultipartUploadResult();
+        }
+
         @Override
         public AbortMultipartUploadResult parseData(Response response,AbortMultipartUploadResult result) throws IOException {
             return result;
@@ -186,6 +285,11 @@ public final class ResponseParsers {
 
     public static final class CompleteMultipartUploadResponseParser extends AbstractResponseParser<CompleteMultipartUploadResult> {
 
+        @Override
+        CompleteMultipartUploadResult createResult() {
+            return new CompleteMultipartUploadResult();
+        }
+
         @Override
         public CompleteMultipartUploadResult parseData(Response response,CompleteMultipartUploadResult result) throws Exception {
             if (response.header(OSSHeaders.CONTENT_TYPE).equals("application/xml")) {
@@ -199,6 +303,11 @@ public final class ResponseParsers {
 
     public static final class ListPartsResponseParser extends AbstractResponseParser<ListPartsResult> {
 
+        @Override
+        ListPartsResult createResult() {
+            return new ListPartsResult();
+        }
+
         @Override
         public ListPartsResult parseData(Response response,ListPartsResult result) throws Exception {
             result = parseListPartsResponseXML(response.body().byteStream(),result);
@@ -229,6 +338,65 @@ public final class ResponseParsers {
         return result;
     }
 
+    private static UploadPartCopyResult parseUploadPartCopyResponseXML(InputStream in, UploadPartCopyResult result)
+            throws ParseException, ParserConfigurationException, IOException, SAXException {
+
+        DocumentBuilder builder = domFactory.newDocumentBuilder();
+        Document dom = builder.parse(in);
+        Element element = dom.getDocumentElement();
+        OSSLog.logDebug("[parseUploadPartCopyResponseXML] - " + element.getNodeName());
+
+        NodeList list = element.getChildNodes();
+        for (int i = 0; i < list.getLength(); i++) {
+            Node item = list.item(i);
+            String name = item.getNodeName();
+            if (name == null) {
+                continue;
+            } else if (name.equals("LastModified")) {
+                result.setLastModified(DateUtil.parseIso8601Date(checkChildNotNullAndGetValue(item)));
+            } else if (name.equals("ETag")) {
+                result.setETag(trimQuotes(checkChildNotNullAndGetValue(item)));
+            }
+        }
+        return result;
+    }
+
+    private static DeleteMultipleObjectResult parseDeleteMultipleObjectResponseXML(InputStream in, DeleteMultipleObjectResult result)
+            throws ParserConfigurationException, IOException, SAXException {
+
+        DocumentBuilder builder = domFactory.newDocumentBuilder();
+        Document dom = builder.parse(in);
+        Element element = dom.getDocumentElement();
+        OSSLog.logDebug("[parseDeleteMultipleObjectResponseXML] - " + element.getNodeName());
+
+        NodeList list = element.getChildNodes();
+        for (int i = 0; i < list.getLength(); i++) {
+            Node item = list.item(i);
+            String name = item.getNodeName();
+            if (name == null) {
+                continue;
+            } else if (name.equals("Deleted") || name.equals("Error")) {
+                String key = null;
+                NodeList objectList = item.getChildNodes();
+                for (int j = 0; j < objectList.getLength(); j++) {
+                    Node objectItem = objectList.item(j);
+                    if ("Key".equals(objectItem.getNodeName())) {
+                        // an escaped key may be split into several text nodes
+                        key = objectItem.getTextContent();
+                    }
+                }
+                if (key == null) {
+                    continue;
+                } else if (name.equals("Deleted")) {
+                    result.addDeletedObject(key);
+                } else {
+                    result.addFailedObject(key);
+                }
+            }
+        }
+        return result;
+    }
+
     private static ListPartsResult parseListPartsResponseXML(InputStream in,ListPartsResult result)
             throws ParserConfigurationException, IOException, SAXException, ParseException {
 
@@ -532,31 +700,42 @@ public final class ResponseParsers {
     public static ObjectMetadata parseObjectMetadata(Map<String, String> headers)
             throws IOException {
 
+        if (headers instanceof ResponseHeaderMap) {
+            return parseObjectMetadata(((ResponseHeaderMap) headers).getHeaders());
+        }
+
+        ObjectMetadata objectMetadata = new ObjectMetadata();
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            putObjectMetadataHeader(objectMetadata, entry.getKey(), entry.getValue());
+        }
+        return objectMetadata;
+    }
+
+    /**
+     * Unmarshall object metadata directly from the okhttp headers, without copying them into a map first.
+     */
+    public static ObjectMetadata parseObjectMetadata(Headers headers) throws IOException {
+        ObjectMetadata objectMetadata = new ObjectMetadata();
+        for (int i = 0; i < headers.size(); i++) {
+            putObjectMetadataHeader(objectMetadata, headers.name(i), headers.value(i));
+        }
+        return objectMetadata;
+    }
+
+    private static void putObjectMetadataHeader(ObjectMetadata objectMetadata, String key, String value)
+            throws IOException {
         try {
-            ObjectMetadata objectMetadata = new ObjectMetadata();
-
-            for (Iterator<String> it = headers.keySet().iterator(); it.hasNext();) {
-                String key = it.next();
-
-                if (key.indexOf(OSSHeaders.OSS_USER_METADATA_PREFIX) >= 0) {
-                    objectMetadata.addUserMetadata(key, headers.get(key));
-                } else if (key.equals(OSSHeaders.LAST_MODIFIED) || key.equals(OSSHeaders.DATE)) {
-                    try {
-                        objectMetadata.setHeader(key, DateUtil.parseRfc822Date(headers.get(key)));
-                    } catch (ParseException pe) {
-                        throw new IOException(pe.getMessage(), pe);
-                    }
-                } else if (key.equals(OSSHeaders.CONTENT_LENGTH)) {
-                    Long value = Long.valueOf(headers.get(key));
-                    objectMetadata.setHeader(key, value);
-                } else if (key.equals(OSSHeaders.ETAG)) {
-                    objectMetadata.setHeader(key, trimQuotes(headers.get(key)));
-                } else {
-                    objectMetadata.setHeader(key, headers.get(key) );
-                }
+            if (key.indexOf(OSSHeaders.OSS_USER_METADATA_PREFIX) >= 0) {
+                objectMetadata.addUserMetadata(key, value);
+            } else if (key.equals(OSSHeaders.LAST_MODIFIED) || key.equals(OSSHeaders.DATE)) {
+                objectMetadata.setHeader(key, DateUtil.parseRfc822Date(value));
+            } else if (key.equals(OSSHeaders.CONTENT_LENGTH)) {
+                objectMetadata.setHeader(key, Long.valueOf(value));
+            } else if (key.equals(OSSHeaders.ETAG)) {
+                objectMetadata.setHeader(key, trimQuotes(value));
+            } else {
+                objectMetadata.setHeader(key, value);
             }
-
-            return objectMetadata;
         } catch (Exception e) {
             throw new IOException(e.getMessage(), e);
         }
@@ -570,6 +749,7 @@ public final class ResponseParsers {
         String code = null;
         String message = null;
         String hostId = null;
+        String endpoint = null;
         String errorMessage = null;
 
         if (!isHeadRequest) {
@@ -598,6 +778,9 @@ public final class ResponseParsers {
                     if (name.equals("HostId")) {
                         hostId = checkChildNotNullAndGetValue(item);
                     }
+                    if (name.equals("Endpoint")) {
+                        endpoint = checkChildNotNullAndGetValue(item);
+                    }
                 }
             } catch (SAXException e) {
                 e.printStackTrace();
@@ -605,7 +788,7 @@ public final class ResponseParsers {
                 e.printStackTrace();
             }
         }
-        return new ServiceException(statusCode, message, code, requestId, hostId, errorMessage);
+        return new ServiceException(statusCode, message, code, requestId, hostId, errorMessage, endpoint);
     }
 
     /**
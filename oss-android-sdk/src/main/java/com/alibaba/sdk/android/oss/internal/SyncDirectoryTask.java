@@ -0,0 +1,369 @@
+package com.alibaba.sdk.android.oss.internal;
+
+import com.alibaba.sdk.android.oss.ClientException;
+import com.alibaba.sdk.android.oss.ServiceException;
+import com.alibaba.sdk.android.oss.callback.OSSCompletedCallback;
+import com.alibaba.sdk.android.oss.callback.OSSProgressCallback;
+import com.alibaba.sdk.android.oss.common.OSSConstants;
+import com.alibaba.sdk.android.oss.common.OSSLog;
+import com.alibaba.sdk.android.oss.common.utils.BinaryUtil;
+import com.alibaba.sdk.android.oss.common.utils.DateUtil;
+import com.alibaba.sdk.android.oss.common.utils.IOUtils;
+import com.alibaba.sdk.android.oss.model.DeleteMultipleObjectRequest;
+import com.alibaba.sdk.android.oss.model.DeleteMultipleObjectResult;
+import com.alibaba.sdk.android.oss.model.OSSObjectSummary;
+import com.alibaba.sdk.android.oss.model.PutObjectRequest;
+import com.alibaba.sdk.android.oss.model.PutObjectResult;
+import com.alibaba.sdk.android.oss.model.SyncDirectoryRequest;
+import com.alibaba.sdk.android.oss.model.SyncDirectoryResult;
+import com.alibaba.sdk.android.oss.network.ExecutionContext;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Uploads the new and changed files of a local directory. The objects under the prefix are listed in parallel,
+ * and a file is uploaded only when there's no object of its size that's newer than the file, or with the same
+ * MD5 when the hash cache is used. So a sync of an unchanged directory only lists the objects.
+ * <p>
+ * The files are uploaded by at most the concurrency of the putObject requests at a time, the next one starts as
+ * soon as any of them completes. A file that fails to upload is recorded in the result and doesn't stop the others.
+ * The orphan objects are optionally deleted by the batch deletes.
+ */
+public class SyncDirectoryTask implements Callable<SyncDirectoryResult> {
+
+    private static final int LIST_PARALLELISM = 4;
+
+    private InternalRequestOperation mApiOperation;
+    private SyncDirectoryRequest mRequest;
+    private OSSCompletedCallback<SyncDirectoryRequest, SyncDirectoryResult> mCompletedCallback;
+    private OSSProgressCallback<SyncDirectoryRequest> mProgressCallback;
+    private ExecutionContext mContext;
+
+    // the sub-requests in flight, guarded by this
+    private ParallelListObjectsIterator mListing;
+    private Map<String, OSSAsyncTask<PutObjectResult>> mUploading = new HashMap<String, OSSAsyncTask<PutObjectResult>>();
+    // the bytes uploaded of the files completed and the ones in flight
+    private long mCompletedBytes;
+    private Map<String, Long> mUploadingBytes = new HashMap<String, Long>();
+    private long mTotalBytes;
+
+    // the path of each file to the "size:lastModified:md5" of it
+    private JSONObject mHashes;
+    private boolean mHashesChanged;
+
+    public SyncDirectoryTask(InternalRequestOperation operation, SyncDirectoryRequest request,
+                             OSSCompletedCallback<SyncDirectoryRequest, SyncDirectoryResult> completedCallback,
+                             ExecutionContext context) {
+        mApiOperation = operation;
+        mRequest = request;
+        mProgressCallback = request.getProgressCallback();
+        mCompletedCallback = completedCallback;
+        mContext = context;
+    }
+
+    @Override
+    public SyncDirectoryResult call() throws Exception {
+        // the sub-requests are cancelled at once rather than after they complete
+        mContext.getCancellationHandler().setCancelAction(new Runnable() {
+            @Override
+            public void run() {
+                cancelInFlight();
+            }
+        });
+        try {
+            SyncDirectoryResult result = doSync();
+            if (mCompletedCallback != null) {
+                mCompletedCallback.onSuccess(mRequest, result);
+            }
+            return result;
+        } catch (ServiceException e) {
+            cancelInFlight();
+            if (mCompletedCallback != null) {
+                mCompletedCallback.onFailure(mRequest, null, e);
+            }
+            throw e;
+        } catch (Exception e) {
+            cancelInFlight();
+            ClientException temp = e instanceof ClientException ? (ClientException) e : new ClientException(e.toString(), e);
+            if (mCompletedCallback != null) {
+                mCompletedCallback.onFailure(mRequest, temp, null);
+            }
+            throw temp;
+        } finally {
+            saveHashes();
+        }
+    }
+
+    private SyncDirectoryResult doSync() throws ClientException, ServiceException, IOException {
+        File directory = new File(mRequest.getLocalDirectory());
+        if (!directory.isDirectory()) {
+            throw new ClientException("The local directory doesn't exist: " + directory.getPath());
+        }
+        String prefix = mRequest.getPrefix() != null ? mRequest.getPrefix() : "";
+        SyncDirectoryResult result = new SyncDirectoryResult();
+
+        Map<String, OSSObjectSummary> remoteObjects = listRemoteObjects(prefix);
+        loadHashes();
+
+        List<File> files = new ArrayList<File>();
+        collectFiles(directory, files);
+        List<File> changedFiles = new ArrayList<File>();
+        List<String> changedKeys = new ArrayList<String>();
+        for (File file : files) {
+            String key = prefix + directory.toURI().relativize(file.toURI()).getPath();
+            if (isChanged(file, remoteObjects.remove(key))) {
+                changedFiles.add(file);
+                changedKeys.add(key);
+                mTotalBytes += file.length();
+            }
+        }
+        result.setUnchangedCount(files.size() - changedFiles.size());
+        OSSLog.logDebug("[SyncDirectoryTask] - " + changedFiles.size() + " of " + files.size() + " files changed");
+
+        uploadFiles(changedFiles, changedKeys, result);
+
+        if (mRequest.isDeleteOrphans()) {
+            deleteOrphans(remoteObjects, result);
+        }
+        return result;
+    }
+
+    private Map<String, OSSObjectSummary> listRemoteObjects(String prefix) throws ClientException, ServiceException {
+        ParallelListObjectsIterator listing = new ParallelListObjectsIterator(mApiOperation, mRequest.getBucketName(),
+                prefix, LIST_PARALLELISM, false);
+        synchronized (this) {
+            mListing = listing;
+        }
+        checkCancel();
+        Map<String, OSSObjectSummary> remoteObjects = new HashMap<String, OSSObjectSummary>();
+        while (listing.hasNext()) {
+            for (OSSObjectSummary summary : listing.next()) {
+                remoteObjects.put(summary.getKey(), summary);
+            }
+        }
+        checkCancel();
+        return remoteObjects;
+    }
+
+    private void collectFiles(File directory, List<File> files) {
+        File[] children = directory.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            if (child.isDirectory()) {
+                collectFiles(child, files);
+            } else if (child.isFile()) {
+                files.add(child);
+            }
+        }
+    }
+
+    private boolean isChanged(File file, OSSObjectSummary remote) throws IOException {
+        if (remote == null || remote.getSize() != file.length()) {
+            return true;
+        }
+        String eTag = ResponseParsers.trimQuotes(remote.getETag());
+        // the ETag of an object uploaded at once is the MD5 of it, but not of a multipart upload
+        if (mHashes != null && eTag != null && eTag.length() == 32 && eTag.indexOf('-') < 0) {
+            return !eTag.equalsIgnoreCase(md5Of(file));
+        }
+        // the modified time of the file in the time of the server, which is listed in seconds
+        long skew = DateUtil.getFixedSkewedTimeMillis() - System.currentTimeMillis();
+        return remote.getLastModified() == null
+                || (file.lastModified() + skew) / 1000 > remote.getLastModified().getTime() / 1000;
+    }
+
+    private void uploadFiles(List<File> files, List<String> keys, final SyncDirectoryResult result)
+            throws ClientException {
+        int concurrency = Math.max(1, mRequest.getConcurrency());
+        for (int i = 0; i < files.size(); i++) {
+            waitForUploads(concurrency - 1);
+            final String key = keys.get(i);
+            PutObjectRequest put = new PutObjectRequest(mRequest.getBucketName(), key, files.get(i).getPath());
+            put.setProgressCallback(new OSSProgressCallback<PutObjectRequest>() {
+                @Override
+                public void onProgress(PutObjectRequest request, long currentSize, long totalSize) {
+                    onUploadProgress(key, currentSize);
+                }
+            });
+            // the lock is held, so the callback of the upload can't run before it's recorded
+            synchronized (this) {
+                mUploading.put(key, mApiOperation.putObject(put, new OSSCompletedCallback<PutObjectRequest, PutObjectResult>() {
+                    @Override
+                    public void onSuccess(PutObjectRequest request, PutObjectResult putResult) {
+                        synchronized (SyncDirectoryTask.this) {
+                            mUploading.remove(key);
+                            result.getUploadedObjects().add(key);
+                            SyncDirectoryTask.this.notifyAll();
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(PutObjectRequest request, ClientException clientException, ServiceException serviceException) {
+                        OSSLog.logWarn("[SyncDirectoryTask] - upload " + key + " failed: "
+                                + (clientException != null ? clientException : serviceException));
+                        synchronized (SyncDirectoryTask.this) {
+                            mUploading.remove(key);
+                            result.getFailedObjects().put(key, clientException != null ? clientException : serviceException);
+                            SyncDirectoryTask.this.notifyAll();
+                        }
+                    }
+                }));
+            }
+        }
+        waitForUploads(0);
+    }
+
+    // waits until at most the count of the uploads are in flight
+    private synchronized void waitForUploads(int count) throws ClientException {
+        while (true) {
+            checkCancel();
+            if (mUploading.size() <= count) {
+                return;
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ClientException("Interrupted while waiting for the uploads", e);
+            }
+        }
+    }
+
+    private void onUploadProgress(String key, long currentSize) {
+        long uploadedBytes;
+        synchronized (this) {
+            Long previous = mUploadingBytes.put(key, currentSize);
+            mCompletedBytes += currentSize - (previous != null ? previous : 0);
+            uploadedBytes = mCompletedBytes;
+        }
+        if (mProgressCallback != null) {
+            mProgressCallback.onProgress(mRequest, uploadedBytes, mTotalBytes);
+        }
+    }
+
+    private void deleteOrphans(Map<String, OSSObjectSummary> remoteObjects, SyncDirectoryResult result)
+            throws ClientException, ServiceException {
+        List<String> orphans = new ArrayList<String>();
+        for (String key : remoteObjects.keySet()) {
+            // the directory markers have no local files to compare with
+            if (!key.endsWith("/")) {
+                orphans.add(key);
+            }
+        }
+        for (int start = 0; start < orphans.size(); start += DeleteMultipleObjectRequest.MAX_OBJECT_COUNT) {
+            checkCancel();
+            List<String> chunk = orphans.subList(start,
+                    Math.min(orphans.size(), start + DeleteMultipleObjectRequest.MAX_OBJECT_COUNT));
+            DeleteMultipleObjectResult deleted = mApiOperation.deleteMultipleObject(new DeleteMultipleObjectRequest(
+                    mRequest.getBucketName(), new ArrayList<String>(chunk), true), null).getResult();
+            for (String key : chunk) {
+                if (!deleted.getFailedObjects().contains(key)) {
+                    result.getDeletedObjects().add(key);
+                }
+            }
+        }
+    }
+
+    private String md5Of(File file) throws IOException {
+        String path = file.getAbsolutePath();
+        String stamp = file.length() + ":" + file.lastModified() + ":";
+        String cached = mHashes.optString(path, null);
+        if (cached != null && cached.startsWith(stamp)) {
+            return cached.substring(stamp.length());
+        }
+        String md5 = BinaryUtil.calculateMd5Str(file.getPath());
+        try {
+            mHashes.put(path, stamp + md5);
+            mHashesChanged = true;
+        } catch (Exception e) {
+            OSSLog.logWarn("[SyncDirectoryTask] - cache hash failed: " + e.toString());
+        }
+        return md5;
+    }
+
+    private void loadHashes() {
+        if (mRequest.getHashCacheFile() == null) {
+            return;
+        }
+        mHashes = new JSONObject();
+        File file = new File(mRequest.getHashCacheFile());
+        if (!file.exists()) {
+            return;
+        }
+        FileInputStream input = null;
+        try {
+            input = new FileInputStream(file);
+            mHashes = new JSONObject(IOUtils.readStreamAsString(input, OSSConstants.DEFAULT_CHARSET_NAME));
+        } catch (Exception e) {
+            OSSLog.logWarn("[SyncDirectoryTask] - load hashes failed: " + e.toString());
+        } finally {
+            IOUtils.safeClose(input);
+        }
+    }
+
+    private void saveHashes() {
+        if (mHashes == null || !mHashesChanged) {
+            return;
+        }
+        // drops the files that no longer exist
+        Iterator<?> paths = mHashes.keys();
+        List<String> removed = new ArrayList<String>();
+        while (paths.hasNext()) {
+            String path = (String) paths.next();
+            if (!new File(path).exists()) {
+                removed.add(path);
+            }
+        }
+        for (String path : removed) {
+            mHashes.remove(path);
+        }
+        File file = new File(mRequest.getHashCacheFile());
+        File tempFile = new File(file.getPath() + ".tmp");
+        FileOutputStream output = null;
+        try {
+            output = new FileOutputStream(tempFile);
+            output.write(mHashes.toString().getBytes(OSSConstants.DEFAULT_CHARSET_NAME));
+            output.close();
+            output = null;
+            if (!tempFile.renameTo(file)) {
+                throw new IOException("rename " + tempFile.getPath() + " failed");
+            }
+        } catch (Exception e) {
+            OSSLog.logWarn("[SyncDirectoryTask] - save hashes failed: " + e.toString());
+            tempFile.delete();
+        } finally {
+            IOUtils.safeClose(output);
+        }
+    }
+
+    private void checkCancel() throws ClientException {
+        if (mContext.getCancellationHandler().isCancelled()) {
+            IOException e = new IOException("sync directory cancel");
+            throw new ClientException("Task is cancelled!", e, true);
+        }
+    }
+
+    private synchronized void cancelInFlight() {
+        if (mListing != null) {
+            mListing.cancel();
+        }
+        for (OSSAsyncTask<PutObjectResult> task : mUploading.values()) {
+            task.cancel();
+        }
+        // wakes the sync waiting for the uploads
+        notifyAll();
+    }
+}
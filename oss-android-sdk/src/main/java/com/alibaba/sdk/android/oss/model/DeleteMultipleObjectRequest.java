@@ -0,0 +1,52 @@
+package com.alibaba.sdk.android.oss.model;
+
+import java.util.List;
+
+/**
+ * Deletes up to 1000 objects of a bucket in one request.
+ */
+public class DeleteMultipleObjectRequest extends OSSRequest {
+
+    public static final int MAX_OBJECT_COUNT = 1000;
+
+    private String bucketName;
+
+    private List<String> objectKeys;
+
+    private boolean quiet;
+
+    /**
+     * @param bucketName
+     * @param objectKeys the keys to delete, 1000 at most
+     * @param quiet true to only get the keys which failed to be deleted in the result
+     */
+    public DeleteMultipleObjectRequest(String bucketName, List<String> objectKeys, boolean quiet) {
+        setBucketName(bucketName);
+        setObjectKeys(objectKeys);
+        setQuiet(quiet);
+    }
+
+    public String getBucketName() {
+        return bucketName;
+    }
+
+    public void setBucketName(String bucketName) {
+        this.bucketName = bucketName;
+    }
+
+    public List<String> getObjectKeys() {
+        return objectKeys;
+    }
+
+    public void setObjectKeys(List<String> objectKeys) {
+        this.objectKeys = objectKeys;
+    }
+
+    public boolean isQuiet() {
+        return quiet;
+    }
+
+    public void setQuiet(boolean quiet) {
+        this.quiet = quiet;
+    }
+}
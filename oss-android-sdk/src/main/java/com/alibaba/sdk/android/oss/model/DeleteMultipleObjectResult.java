@@ -0,0 +1,36 @@
+package com.alibaba.sdk.android.oss.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The result of deleting multiple objects.
+ */
+public class DeleteMultipleObjectResult extends OSSResult {
+
+    private List<String> deletedObjects = new ArrayList<String>();
+
+    private List<String> failedObjects = new ArrayList<String>();
+
+    /**
+     * @return the keys deleted, always empty in the quiet mode
+     */
+    public List<String> getDeletedObjects() {
+        return deletedObjects;
+    }
+
+    public void addDeletedObject(String objectKey) {
+        deletedObjects.add(objectKey);
+    }
+
+    /**
+     * @return the keys which failed to be deleted
+     */
+    public List<String> getFailedObjects() {
+        return failedObjects;
+    }
+
+    public void addFailedObject(String objectKey) {
+        failedObjects.add(objectKey);
+    }
+}
@@ -0,0 +1,54 @@
+package com.alibaba.sdk.android.oss.model;
+
+import com.alibaba.sdk.android.oss.callback.OSSProgressCallback;
+
+/**
+ * Deletes all the objects whose keys start with the prefix.
+ */
+public class DeletePrefixRequest extends OSSRequest {
+
+    private String bucketName;
+
+    private String prefix;
+
+    private OSSProgressCallback<DeletePrefixRequest> progressCallback;
+
+    /**
+     * @param bucketName
+     * @param prefix the prefix of the keys to delete, e.g. "users/1234/". An empty prefix deletes every object
+     *               of the bucket
+     */
+    public DeletePrefixRequest(String bucketName, String prefix) {
+        setBucketName(bucketName);
+        setPrefix(prefix);
+    }
+
+    public String getBucketName() {
+        return bucketName;
+    }
+
+    public void setBucketName(String bucketName) {
+        this.bucketName = bucketName;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public OSSProgressCallback<DeletePrefixRequest> getProgressCallback() {
+        return progressCallback;
+    }
+
+    /**
+     * Sets the callback called after each batch is deleted, with the count of the objects deleted and the count of
+     * the objects listed so far. The listed count grows until the listing completes.
+     * @param progressCallback
+     */
+    public void setProgressCallback(OSSProgressCallback<DeletePrefixRequest> progressCallback) {
+        this.progressCallback = progressCallback;
+    }
+}
@@ -0,0 +1,29 @@
+package com.alibaba.sdk.android.oss.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The result of deleting the objects under a prefix.
+ */
+public class DeletePrefixResult extends OSSResult {
+
+    private long deletedCount;
+
+    private List<String> failedObjects = new ArrayList<String>();
+
+    public long getDeletedCount() {
+        return deletedCount;
+    }
+
+    public void setDeletedCount(long deletedCount) {
+        this.deletedCount = deletedCount;
+    }
+
+    /**
+     * @return the keys which failed to be deleted
+     */
+    public List<String> getFailedObjects() {
+        return failedObjects;
+    }
+}
@@ -0,0 +1,41 @@
+package com.alibaba.sdk.android.oss.model;
+
+import com.alibaba.sdk.android.oss.common.utils.OSSUtils;
+
+import java.io.File;
+
+/**
+ * Uploads a file by the multipart upload, and keeps the hashes of its parts in a manifest. When the file is
+ * uploaded again to the same object, the parts unchanged since the last upload are copied from the object
+ * in the server, and only the changed parts are sent.
+ */
+public class DeltaUploadRequest extends MultipartUploadRequest {
+
+    private String manifestDirectory;
+
+    /**
+     * @param bucketName The target object's bucket name
+     * @param objectKey The target object's key
+     * @param uploadFilePath The local path of the file to upload
+     * @param manifestDirectory The directory of the manifest files, which should be an absolute local path
+     */
+    public DeltaUploadRequest(String bucketName, String objectKey, String uploadFilePath, String manifestDirectory) {
+        super(bucketName, objectKey, uploadFilePath);
+        setManifestDirectory(manifestDirectory);
+    }
+
+    public String getManifestDirectory() {
+        return manifestDirectory;
+    }
+
+    /**
+     * Sets the directory of the manifest files (the directory must exist and is absolute directory path)
+     * @param manifestDirectory the directory of the manifest files
+     */
+    public void setManifestDirectory(String manifestDirectory) {
+        if (OSSUtils.isEmptyString(manifestDirectory) || !new File(manifestDirectory).isDirectory()) {
+            throw new IllegalArgumentException("Manifest directory must exist, and it should be a directory!");
+        }
+        this.manifestDirectory = manifestDirectory;
+    }
+}
@@ -0,0 +1,35 @@
+package com.alibaba.sdk.android.oss.model;
+
+public class DeltaUploadResult extends CompleteMultipartUploadResult {
+
+    private long uploadedLength;
+
+    private long copiedLength;
+
+    public DeltaUploadResult(CompleteMultipartUploadResult completeResult, long uploadedLength, long copiedLength) {
+        this.setBucketName(completeResult.getBucketName());
+        this.setObjectKey(completeResult.getObjectKey());
+        this.setETag(completeResult.getETag());
+        this.setLocation(completeResult.getLocation());
+        this.setRequestId(completeResult.getRequestId());
+        this.setResponseHeader(completeResult.getResponseHeader());
+        this.setStatusCode(completeResult.getStatusCode());
+        this.setServerCallbackReturnBody(completeResult.getServerCallbackReturnBody());
+        this.uploadedLength = uploadedLength;
+        this.copiedLength = copiedLength;
+    }
+
+    /**
+     * @return the bytes of the changed parts, which were sent
+     */
+    public long getUploadedLength() {
+        return uploadedLength;
+    }
+
+    /**
+     * @return the bytes of the unchanged parts, which were copied in the server
+     */
+    public long getCopiedLength() {
+        return copiedLength;
+    }
+}
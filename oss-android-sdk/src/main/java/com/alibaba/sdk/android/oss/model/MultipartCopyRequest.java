@@ -0,0 +1,55 @@
+package com.alibaba.sdk.android.oss.model;
+
+/**
+ * Copies an object of any size by the multipart upload, whose parts are copied from the ranges of the source
+ * object in parallel in the server.
+ */
+public class MultipartCopyRequest extends MultipartUploadRequest<MultipartCopyRequest> {
+
+    private String sourceBucketName;
+
+    private String sourceKey;
+
+    /**
+     * @param sourceBucketName The source object's bucket name
+     * @param sourceKey The source object's key
+     * @param destinationBucketName The target object's bucket name
+     * @param destinationKey The target object's key
+     */
+    public MultipartCopyRequest(String sourceBucketName, String sourceKey,
+                                String destinationBucketName, String destinationKey) {
+        this(sourceBucketName, sourceKey, destinationBucketName, destinationKey, null);
+    }
+
+    /**
+     * @param sourceBucketName The source object's bucket name
+     * @param sourceKey The source object's key
+     * @param destinationBucketName The target object's bucket name
+     * @param destinationKey The target object's key
+     * @param metadata The metadata of the target object, null to keep the source object's
+     */
+    public MultipartCopyRequest(String sourceBucketName, String sourceKey,
+                                String destinationBucketName, String destinationKey, ObjectMetadata metadata) {
+        super(destinationBucketName, destinationKey, null, metadata);
+        setSourceBucketName(sourceBucketName);
+        setSourceKey(sourceKey);
+        // no data passes through the client, so the parts are larger than an upload's
+        this.partSize = 10 * 1024 * 1024;
+    }
+
+    public String getSourceBucketName() {
+        return sourceBucketName;
+    }
+
+    public void setSourceBucketName(String sourceBucketName) {
+        this.sourceBucketName = sourceBucketName;
+    }
+
+    public String getSourceKey() {
+        return sourceKey;
+    }
+
+    public void setSourceKey(String sourceKey) {
+        this.sourceKey = sourceKey;
+    }
+}
@@ -0,0 +1,108 @@
+package com.alibaba.sdk.android.oss.model;
+
+import com.alibaba.sdk.android.oss.callback.OSSProgressCallback;
+
+/**
+ * Uploads the new and changed files of a local directory to the objects under a prefix.
+ */
+public class SyncDirectoryRequest extends OSSRequest {
+
+    private String localDirectory;
+
+    private String bucketName;
+
+    private String prefix;
+
+    private boolean deleteOrphans;
+
+    private int concurrency = 3;
+
+    private String hashCacheFile;
+
+    private OSSProgressCallback<SyncDirectoryRequest> progressCallback;
+
+    /**
+     * @param localDirectory the local directory to upload, with its sub-directories
+     * @param bucketName
+     * @param prefix the prefix of the objects, e.g. "backup/photos/". The file "a/b.jpg" of the directory
+     *               is uploaded to the object "backup/photos/a/b.jpg"
+     */
+    public SyncDirectoryRequest(String localDirectory, String bucketName, String prefix) {
+        setLocalDirectory(localDirectory);
+        setBucketName(bucketName);
+        setPrefix(prefix);
+    }
+
+    public String getLocalDirectory() {
+        return localDirectory;
+    }
+
+    public void setLocalDirectory(String localDirectory) {
+        this.localDirectory = localDirectory;
+    }
+
+    public String getBucketName() {
+        return bucketName;
+    }
+
+    public void setBucketName(String bucketName) {
+        this.bucketName = bucketName;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public boolean isDeleteOrphans() {
+        return deleteOrphans;
+    }
+
+    /**
+     * Sets whether the objects under the prefix without a local file are deleted. False by default.
+     * @param deleteOrphans
+     */
+    public void setDeleteOrphans(boolean deleteOrphans) {
+        this.deleteOrphans = deleteOrphans;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Sets the max count of the files uploaded at the same time, 3 by default.
+     * @param concurrency
+     */
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public String getHashCacheFile() {
+        return hashCacheFile;
+    }
+
+    /**
+     * Sets the file keeping the MD5 of the local files, to compare the content of a file with the ETag of its object
+     * instead of the modified times. A file is only hashed again when its size or modified time changes.
+     * @param hashCacheFile
+     */
+    public void setHashCacheFile(String hashCacheFile) {
+        this.hashCacheFile = hashCacheFile;
+    }
+
+    public OSSProgressCallback<SyncDirectoryRequest> getProgressCallback() {
+        return progressCallback;
+    }
+
+    /**
+     * Sets the callback of the bytes uploaded, out of the total bytes of the files to upload.
+     * @param progressCallback
+     */
+    public void setProgressCallback(OSSProgressCallback<SyncDirectoryRequest> progressCallback) {
+        this.progressCallback = progressCallback;
+    }
+}
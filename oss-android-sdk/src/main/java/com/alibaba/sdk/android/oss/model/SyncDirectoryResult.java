@@ -0,0 +1,50 @@
+package com.alibaba.sdk.android.oss.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The result of syncing a local directory.
+ */
+public class SyncDirectoryResult extends OSSResult {
+
+    private List<String> uploadedObjects = new ArrayList<String>();
+
+    private Map<String, Exception> failedObjects = new HashMap<String, Exception>();
+
+    private List<String> deletedObjects = new ArrayList<String>();
+
+    private int unchangedCount;
+
+    public List<String> getUploadedObjects() {
+        return uploadedObjects;
+    }
+
+    /**
+     * @return the objects whose files failed to upload, with the {@link com.alibaba.sdk.android.oss.ClientException}
+     * or the {@link com.alibaba.sdk.android.oss.ServiceException} of each
+     */
+    public Map<String, Exception> getFailedObjects() {
+        return failedObjects;
+    }
+
+    /**
+     * @return the orphan objects deleted
+     */
+    public List<String> getDeletedObjects() {
+        return deletedObjects;
+    }
+
+    /**
+     * @return the count of the files which were not uploaded as they had not changed
+     */
+    public int getUnchangedCount() {
+        return unchangedCount;
+    }
+
+    public void setUnchangedCount(int unchangedCount) {
+        this.unchangedCount = unchangedCount;
+    }
+}
@@ -0,0 +1,126 @@
+package com.alibaba.sdk.android.oss.model;
+
+/**
+ * Copies a range of an existing object as a part of a multipart upload, without the data passing through the client.
+ */
+public class UploadPartCopyRequest extends OSSRequest {
+
+    private String sourceBucketName;
+
+    private String sourceKey;
+
+    private String bucketName;
+
+    private String objectKey;
+
+    private String uploadId;
+
+    private int partNumber;
+
+    // the first byte of the range to copy, -1 to copy the whole source object
+    private long beginIndex = -1;
+
+    private long partSize;
+
+    // the ETag the source object should have, otherwise the copy fails with 412 (precondition failed)
+    private String matchingETag;
+
+    /**
+     * @param sourceBucketName
+     * @param sourceKey
+     * @param bucketName the bucket of the multipart upload
+     * @param objectKey the key of the multipart upload
+     * @param uploadId
+     * @param partNumber
+     */
+    public UploadPartCopyRequest(String sourceBucketName, String sourceKey, String bucketName, String objectKey,
+                                 String uploadId, int partNumber) {
+        setSourceBucketName(sourceBucketName);
+        setSourceKey(sourceKey);
+        setBucketName(bucketName);
+        setObjectKey(objectKey);
+        setUploadId(uploadId);
+        setPartNumber(partNumber);
+    }
+
+    public String getSourceBucketName() {
+        return sourceBucketName;
+    }
+
+    public void setSourceBucketName(String sourceBucketName) {
+        this.sourceBucketName = sourceBucketName;
+    }
+
+    public String getSourceKey() {
+        return sourceKey;
+    }
+
+    public void setSourceKey(String sourceKey) {
+        this.sourceKey = sourceKey;
+    }
+
+    public String getBucketName() {
+        return bucketName;
+    }
+
+    public void setBucketName(String bucketName) {
+        this.bucketName = bucketName;
+    }
+
+    public String getObjectKey() {
+        return objectKey;
+    }
+
+    public void setObjectKey(String objectKey) {
+        this.objectKey = objectKey;
+    }
+
+    public String getUploadId() {
+        return uploadId;
+    }
+
+    public void setUploadId(String uploadId) {
+        this.uploadId = uploadId;
+    }
+
+    public int getPartNumber() {
+        return partNumber;
+    }
+
+    public void setPartNumber(int partNumber) {
+        this.partNumber = partNumber;
+    }
+
+    public long getBeginIndex() {
+        return beginIndex;
+    }
+
+    public long getPartSize() {
+        return partSize;
+    }
+
+    /**
+     * Sets the range of the source object to copy
+     * @param beginIndex the first byte of the range
+     * @param partSize the length of the range
+     */
+    public void setRange(long beginIndex, long partSize) {
+        if (beginIndex < 0 || partSize <= 0) {
+            throw new IllegalArgumentException("The range to copy should be not empty and start at 0 or later");
+        }
+        this.beginIndex = beginIndex;
+        this.partSize = partSize;
+    }
+
+    public String getMatchingETag() {
+        return matchingETag;
+    }
+
+    /**
+     * Sets the ETag the source object should have, so a part of a changed object isn't copied.
+     * It's quoted in the request, whether it's quoted here or not
+     */
+    public void setMatchingETag(String matchingETag) {
+        this.matchingETag = matchingETag;
+    }
+}
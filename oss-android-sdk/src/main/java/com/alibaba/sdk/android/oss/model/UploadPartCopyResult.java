@@ -0,0 +1,29 @@
+package com.alibaba.sdk.android.oss.model;
+
+import java.util.Date;
+
+/**
+ * The result of copying a part, whose ETag is used to complete the multipart upload like an uploaded part's.
+ */
+public class UploadPartCopyResult extends OSSResult {
+
+    private String eTag;
+
+    private Date lastModified;
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public void setETag(String eTag) {
+        this.eTag = eTag;
+    }
+
+    public Date getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Date lastModified) {
+        this.lastModified = lastModified;
+    }
+}
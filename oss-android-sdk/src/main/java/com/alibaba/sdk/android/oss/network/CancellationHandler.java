@@ -11,11 +11,21 @@ public class CancellationHandler {
 
     private volatile Call call;
 
+    private volatile Call hedgeCall;
+
+    private volatile Runnable cancelAction;
+
     public void cancel() {
         if (call != null) {
-            call.cancel();
+            RequestTag.cancel(call);
+        }
+        if (hedgeCall != null) {
+            RequestTag.cancel(hedgeCall);
         }
         isCancelled = true;
+        if (cancelAction != null) {
+            cancelAction.run();
+        }
     }
 
     public boolean isCancelled() {
@@ -25,4 +35,19 @@ public class CancellationHandler {
     public void setCall(Call call) {
         this.call = call;
     }
+
+    /**
+     * Sets the second call sent for the same request, see {@link HedgedCall}.
+     */
+    public void setHedgeCall(Call hedgeCall) {
+        this.hedgeCall = hedgeCall;
+    }
+
+    /**
+     * Sets the action run on cancellation, e.g. for a request waiting for a shared call, see {@link RequestCoalescer},
+     * or for a task made of several requests to cancel the ones in flight.
+     */
+    public void setCancelAction(Runnable cancelAction) {
+        this.cancelAction = cancelAction;
+    }
 }
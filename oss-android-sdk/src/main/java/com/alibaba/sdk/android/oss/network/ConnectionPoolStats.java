@@ -0,0 +1,79 @@
+package com.alibaba.sdk.android.oss.network;
+
+/**
+ * A snapshot of the connection pool and dispatcher of a client, for tuning the pool and concurrency settings.
+ */
+public class ConnectionPoolStats {
+
+    private int idleConnectionCount;
+    private int connectionCount;
+    private long openedConnectionCount;
+    private int runningCallCount;
+    private int queuedCallCount;
+
+    public ConnectionPoolStats(int idleConnectionCount, int connectionCount, long openedConnectionCount,
+                               int runningCallCount, int queuedCallCount) {
+        this.idleConnectionCount = idleConnectionCount;
+        this.connectionCount = connectionCount;
+        this.openedConnectionCount = openedConnectionCount;
+        this.runningCallCount = runningCallCount;
+        this.queuedCallCount = queuedCallCount;
+    }
+
+    /**
+     * The pooled connections not used by any request
+     */
+    public int getIdleConnectionCount() {
+        return idleConnectionCount;
+    }
+
+    /**
+     * The pooled connections used by requests
+     */
+    public int getActiveConnectionCount() {
+        return Math.max(connectionCount - idleConnectionCount, 0);
+    }
+
+    /**
+     * All the pooled connections
+     */
+    public int getConnectionCount() {
+        return connectionCount;
+    }
+
+    /**
+     * The connections opened since the client was created
+     */
+    public long getOpenedConnectionCount() {
+        return openedConnectionCount;
+    }
+
+    /**
+     * The opened connections which are no longer pooled, because they were evicted after being idle too long,
+     * exceeded the max idle count or broke.
+     */
+    public long getEvictedConnectionCount() {
+        return Math.max(openedConnectionCount - connectionCount, 0);
+    }
+
+    /**
+     * The requests being executed
+     */
+    public int getRunningCallCount() {
+        return runningCallCount;
+    }
+
+    /**
+     * The asynchronous requests waiting for the concurrency limits
+     */
+    public int getQueuedCallCount() {
+        return queuedCallCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPoolStats [idle=" + idleConnectionCount + ", active=" + getActiveConnectionCount()
+                + ", opened=" + openedConnectionCount + ", evicted=" + getEvictedConnectionCount()
+                + ", running=" + runningCallCount + ", queued=" + queuedCallCount + "]";
+    }
+}
@@ -0,0 +1,37 @@
+package com.alibaba.sdk.android.oss.network;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import okhttp3.Connection;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Network interceptor counting the distinct connections used by the client.
+ * okhttp does not report evictions, so they are derived from the opened and the pooled connections.
+ */
+public class ConnectionTracker implements Interceptor {
+
+    private final Map<Connection, Boolean> seenConnections = new WeakHashMap<Connection, Boolean>();
+
+    private long openedConnectionCount;
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Connection connection = chain.connection();
+        if (connection != null) {
+            synchronized (this) {
+                if (seenConnections.put(connection, Boolean.TRUE) == null) {
+                    openedConnectionCount++;
+                }
+            }
+        }
+        return chain.proceed(chain.request());
+    }
+
+    public synchronized long getOpenedConnectionCount() {
+        return openedConnectionCount;
+    }
+}
@@ -0,0 +1,271 @@
+package com.alibaba.sdk.android.oss.network;
+
+import com.alibaba.sdk.android.oss.common.OSSHeaders;
+import com.alibaba.sdk.android.oss.common.OSSLog;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Routes the requests of the primary endpoint to the healthiest one of several equivalent endpoints,
+ * e.g. the regional, the accelerate and the internal endpoint of the same region.
+ * <p>
+ * Every endpoint is scored by the moving average of its latency weighted by its error rate. After
+ * {@link #FAILURE_THRESHOLD} consecutive failures its circuit opens and no request is routed to it, until a
+ * background probe finds it reachable again. Endpoints not measured yet are probed in the background before
+ * any request is routed to them, and the endpoints not used for {@link #REPROBE_INTERVAL_MS} are probed again,
+ * so an endpoint which got faster since it lost is found.
+ * <p>
+ * The latency is the time to the response headers of the requests without a body, the uploads only count
+ * for the error rate. The calls cancelled by the caller or by the hedging count for neither.
+ * <p>
+ * Only virtual-hosted requests (bucket.endpoint) and requests to the endpoint itself are routed, by replacing
+ * the endpoint part of the url host and the Host header. The signature does not cover the host, so it stays valid.
+ */
+public class EndpointRouter implements Interceptor {
+
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final long OPEN_DURATION_MS = 30 * 1000;
+    private static final long REPROBE_INTERVAL_MS = 5 * 60 * 1000;
+    private static final double SMOOTHING = 0.3;
+    // prefers the endpoints in the configured order when their latencies are close
+    private static final long ORDER_BIAS_MS = 50;
+
+    private static final Object PROBE_TAG = new Object();
+
+    private static ExecutorService probeExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            return new Thread(r, "oss-android-endpoint-probe-thread");
+        }
+    });
+
+    private final String primaryHost;
+    private final List<EndpointState> endpoints = new ArrayList<EndpointState>();
+    private volatile OkHttpClient probeClient;
+
+    /**
+     * @param primary the endpoint the requests are built for
+     * @param alternatives the equivalent endpoints the requests may be routed to
+     */
+    public EndpointRouter(URI primary, List<URI> alternatives) {
+        this.primaryHost = primary.getHost();
+        EndpointState primaryState = new EndpointState(primary, 0);
+        // the primary endpoint is trusted until it fails
+        primaryState.measured = true;
+        endpoints.add(primaryState);
+        for (URI alternative : alternatives) {
+            if (!alternative.getHost().equals(primaryHost)) {
+                endpoints.add(new EndpointState(alternative, endpoints.size()));
+            }
+        }
+    }
+
+    /**
+     * Sets the client used by the background probes and probes the endpoints not measured yet.
+     */
+    public void setProbeClient(OkHttpClient client) {
+        this.probeClient = client;
+        for (EndpointState endpoint : endpoints) {
+            if (!endpoint.measured) {
+                probe(endpoint);
+            }
+        }
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String host = request.url().host();
+        if (request.tag() == PROBE_TAG || !isRoutable(host)) {
+            return chain.proceed(request);
+        }
+
+        EndpointState endpoint = select();
+        if (endpoint.index != 0) {
+            String routedHost = host.substring(0, host.length() - primaryHost.length()) + endpoint.uri.getHost();
+            HttpUrl url = request.url().newBuilder().host(routedHost).build();
+            Request.Builder builder = request.newBuilder().url(url);
+            if (request.header(OSSHeaders.HOST) != null) {
+                builder.header(OSSHeaders.HOST, routedHost);
+            }
+            request = builder.build();
+            OSSLog.logDebug("[EndpointRouter] - route " + host + " to " + routedHost);
+        }
+
+        // the time of a request with a body depends on its size, not only on the endpoint
+        boolean timed = request.body() == null || request.body().contentLength() == 0;
+        long start = System.currentTimeMillis();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            if (!RequestTag.isCancelled(request)) {
+                endpoint.record(timed ? System.currentTimeMillis() - start : -1, false);
+            }
+            throw e;
+        }
+        endpoint.record(timed ? System.currentTimeMillis() - start : -1, response.code() < 500);
+        return response;
+    }
+
+    private boolean isRoutable(String host) {
+        return host.equals(primaryHost) || host.endsWith("." + primaryHost);
+    }
+
+    /**
+     * Picks the measured endpoint with the best score whose circuit is closed, the primary one if there's none.
+     * The other endpoints whose score is older than {@link #REPROBE_INTERVAL_MS} are probed again.
+     */
+    EndpointState select() {
+        EndpointState best = null;
+        double bestScore = Double.MAX_VALUE;
+        long now = System.currentTimeMillis();
+        for (EndpointState endpoint : endpoints) {
+            synchronized (endpoint) {
+                if (endpoint.isOpen()) {
+                    if (now >= endpoint.openUntil) {
+                        probe(endpoint);
+                    }
+                    continue;
+                }
+                if (!endpoint.measured) {
+                    continue;
+                }
+                double score = endpoint.score();
+                if (score < bestScore) {
+                    bestScore = score;
+                    best = endpoint;
+                }
+            }
+        }
+        if (best == null) {
+            best = endpoints.get(0);
+        }
+        for (EndpointState endpoint : endpoints) {
+            if (endpoint != best) {
+                boolean stale;
+                synchronized (endpoint) {
+                    stale = endpoint.measured && !endpoint.isOpen() && now - endpoint.updatedAt >= REPROBE_INTERVAL_MS;
+                }
+                if (stale) {
+                    probe(endpoint);
+                }
+            }
+        }
+        return best;
+    }
+
+    private void probe(final EndpointState endpoint) {
+        final OkHttpClient client = probeClient;
+        synchronized (endpoint) {
+            if (client == null || endpoint.probing) {
+                return;
+            }
+            endpoint.probing = true;
+        }
+        probeExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                boolean success = false;
+                long start = System.currentTimeMillis();
+                try {
+                    Request request = new Request.Builder()
+                            .url(endpoint.uri.getScheme() + "://" + endpoint.uri.getHost() + "/")
+                            .head()
+                            .tag(PROBE_TAG)
+                            .build();
+                    Response response = client.newCall(request).execute();
+                    response.body().close();
+                    // any answer from the server means the endpoint is reachable
+                    success = response.code() < 500;
+                } catch (IOException e) {
+                    OSSLog.logDebug("[EndpointRouter] - probe " + endpoint.uri.getHost() + " failed: " + e.toString());
+                }
+                synchronized (endpoint) {
+                    endpoint.probing = false;
+                    endpoint.onProbed(System.currentTimeMillis() - start, success);
+                }
+            }
+        });
+    }
+
+    static class EndpointState {
+
+        final URI uri;
+        final int index;
+        boolean measured;
+        boolean probing;
+        double latency;
+        double errorRate;
+        int consecutiveFailures;
+        // the circuit is open while it's not 0
+        long openUntil;
+        // when the score was last updated
+        long updatedAt;
+
+        EndpointState(URI uri, int index) {
+            this.uri = uri;
+            this.index = index;
+        }
+
+        boolean isOpen() {
+            return openUntil != 0;
+        }
+
+        double score() {
+            return latency * (1 + 4 * errorRate) + index * ORDER_BIAS_MS;
+        }
+
+        /**
+         * @param elapsed the latency, or -1 if the request doesn't measure it
+         */
+        synchronized void record(long elapsed, boolean success) {
+            if (measured) {
+                if (elapsed >= 0) {
+                    latency = latency + SMOOTHING * (elapsed - latency);
+                }
+                errorRate = errorRate + SMOOTHING * ((success ? 0 : 1) - errorRate);
+            } else if (elapsed >= 0) {
+                latency = elapsed;
+                errorRate = success ? 0 : 1;
+                measured = true;
+            }
+            updatedAt = System.currentTimeMillis();
+            if (success) {
+                consecutiveFailures = 0;
+            } else if (++consecutiveFailures >= FAILURE_THRESHOLD && !isOpen()) {
+                openUntil = System.currentTimeMillis() + OPEN_DURATION_MS;
+                OSSLog.logWarn("[EndpointRouter] - circuit opened for " + uri.getHost());
+            }
+        }
+
+        void onProbed(long elapsed, boolean success) {
+            if (success) {
+                if (isOpen()) {
+                    OSSLog.logInfo("[EndpointRouter] - circuit closed for " + uri.getHost());
+                }
+                openUntil = 0;
+                consecutiveFailures = 0;
+                latency = measured ? latency + SMOOTHING * (elapsed - latency) : elapsed;
+                errorRate = measured ? errorRate * (1 - SMOOTHING) : 0;
+                measured = true;
+                updatedAt = System.currentTimeMillis();
+            } else {
+                // an unreachable endpoint is probed again later
+                openUntil = System.currentTimeMillis() + OPEN_DURATION_MS;
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.alibaba.sdk.android.oss.network;
+
+import com.alibaba.sdk.android.oss.common.OSSLog;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+
+/**
+ * Executes an idempotent read, and when there's no response after the delay of the {@link HedgingPolicy}
+ * sends it again on another connection. The first response wins and the other call is cancelled.
+ * <p>
+ * The original call runs on the caller's thread. The hedge is enqueued to the client's dispatcher,
+ * so it's still bounded by the concurrency settings of the client.
+ */
+class HedgedCall {
+
+    private static ScheduledExecutorService hedgeTimer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "oss-android-hedge-timer-thread");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final OkHttpClient client;
+    private final Call primary;
+    private final HedgingPolicy policy;
+    private final CancellationHandler cancellationHandler;
+
+    // guarded by this
+    private boolean primaryDone;
+    private Call hedge;
+    private boolean hedgeDone;
+    private Call winner;
+    private Response hedgeResponse;
+
+    HedgedCall(OkHttpClient client, Call primary, HedgingPolicy policy, CancellationHandler cancellationHandler) {
+        this.client = client;
+        this.primary = primary;
+        this.policy = policy;
+        this.cancellationHandler = cancellationHandler;
+    }
+
+    Response execute() throws IOException {
+        long start = System.currentTimeMillis();
+        ScheduledFuture<?> timer = hedgeTimer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                startHedge();
+            }
+        }, policy.getDelay(), TimeUnit.MILLISECONDS);
+
+        Response response = null;
+        IOException failure = null;
+        try {
+            response = primary.execute();
+        } catch (IOException e) {
+            failure = e;
+        }
+        timer.cancel(false);
+
+        Call loser = null;
+        try {
+            synchronized (this) {
+                primaryDone = true;
+                if (response != null) {
+                    if (winner == null) {
+                        winner = primary;
+                        loser = hedge;
+                        return response;
+                    }
+                    // the hedge responded first, the late response is dropped
+                    response.body().close();
+                    return hedgeResponse;
+                }
+                while (hedge != null && !hedgeDone) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        loser = hedge;
+                        break;
+                    }
+                }
+                if (winner != null) {
+                    return hedgeResponse;
+                }
+                throw failure;
+            }
+        } finally {
+            if (loser != null) {
+                RequestTag.cancel(loser);
+            }
+            if (winner != null) {
+                policy.record(System.currentTimeMillis() - start);
+            }
+        }
+    }
+
+    /**
+     * @return the call whose response is returned, null if both failed
+     */
+    synchronized Call getWinner() {
+        return winner;
+    }
+
+    private void startHedge() {
+        final Call call;
+        synchronized (this) {
+            if (primaryDone || cancellationHandler.isCancelled() || !policy.tryAcquire()) {
+                return;
+            }
+            // the hedge gets its own tag, so cancelling it doesn't mark the primary call cancelled
+            call = client.newCall(primary.request().newBuilder().tag(new RequestTag()).build());
+            hedge = call;
+        }
+        OSSLog.logDebug("[HedgedCall] - hedge " + primary.request().url().host());
+        cancellationHandler.setHedgeCall(call);
+        if (cancellationHandler.isCancelled()) {
+            RequestTag.cancel(call);
+        }
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                synchronized (HedgedCall.this) {
+                    hedgeDone = true;
+                    HedgedCall.this.notifyAll();
+                }
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                boolean won = false;
+                synchronized (HedgedCall.this) {
+                    hedgeDone = true;
+                    if (winner == null) {
+                        winner = call;
+                        hedgeResponse = response;
+                        won = true;
+                    }
+                    HedgedCall.this.notifyAll();
+                }
+                if (won) {
+                    policy.onHedgeWon();
+                    RequestTag.cancel(primary);
+                } else {
+                    response.body().close();
+                }
+            }
+        });
+    }
+}
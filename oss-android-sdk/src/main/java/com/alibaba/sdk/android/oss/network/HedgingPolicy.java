@@ -0,0 +1,105 @@
+package com.alibaba.sdk.android.oss.network;
+
+import java.util.Arrays;
+
+/**
+ * Decides when an idempotent read is sent again on another connection, see {@link HedgedCall}.
+ * <p>
+ * The hedging delay is the configured percentile of the recent response latencies, so only the requests slower
+ * than most of the others are hedged. The hedges are bounded by a budget: every request earns a fraction of a
+ * hedge, e.g. 10% of the requests at most are hedged, and a small burst is allowed.
+ */
+public class HedgingPolicy {
+
+    private static final int SAMPLE_SIZE = 100;
+    private static final int MIN_SAMPLE_SIZE = 20;
+    // used until there are enough samples
+    private static final long DEFAULT_DELAY_MS = 1000;
+    private static final long MIN_DELAY_MS = 20;
+    private static final double MAX_BUDGET = 10;
+    // recomputes the delay every few samples instead of sorting them on every request
+    private static final int RECOMPUTE_INTERVAL = 10;
+
+    private final int percentile;
+    private final double budgetPerRequest;
+
+    private final long[] samples = new long[SAMPLE_SIZE];
+    private int sampleCount;
+    private int nextSample;
+    private int staleSamples;
+    private boolean computed;
+    private long delay = DEFAULT_DELAY_MS;
+
+    private double budget = MAX_BUDGET;
+    private long hedgedCount;
+    private long hedgeWonCount;
+
+    /**
+     * @param percentile the percentile of the latencies used as the hedging delay, in (0, 100)
+     * @param budgetPercent the max percentage of the requests which are hedged
+     */
+    public HedgingPolicy(int percentile, int budgetPercent) {
+        if (percentile <= 0 || percentile >= 100) {
+            throw new IllegalArgumentException("The hedging percentile should be in (0, 100)");
+        }
+        this.percentile = percentile;
+        this.budgetPerRequest = budgetPercent / 100.0;
+    }
+
+    /**
+     * @return how long the request waits for the response before it's hedged, in milliseconds
+     */
+    public synchronized long getDelay() {
+        if (sampleCount >= MIN_SAMPLE_SIZE && (!computed || staleSamples >= RECOMPUTE_INTERVAL)) {
+            long[] sorted = Arrays.copyOf(samples, sampleCount);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(sampleCount * percentile / 100.0) - 1;
+            delay = Math.max(MIN_DELAY_MS, sorted[Math.max(0, index)]);
+            staleSamples = 0;
+            computed = true;
+        }
+        return delay;
+    }
+
+    /**
+     * Records the latency until the response headers of a read, and earns the budget of the request.
+     */
+    public synchronized void record(long latency) {
+        samples[nextSample] = latency;
+        nextSample = (nextSample + 1) % SAMPLE_SIZE;
+        sampleCount = Math.min(sampleCount + 1, SAMPLE_SIZE);
+        staleSamples++;
+        budget = Math.min(MAX_BUDGET, budget + budgetPerRequest);
+    }
+
+    /**
+     * Spends the budget of a hedge.
+     * @return false when the budget is exhausted and the request should not be hedged
+     */
+    public synchronized boolean tryAcquire() {
+        if (budget < 1) {
+            return false;
+        }
+        budget -= 1;
+        hedgedCount++;
+        return true;
+    }
+
+    synchronized void onHedgeWon() {
+        hedgeWonCount++;
+    }
+
+    /**
+     * @return the count of the requests sent again
+     */
+    public synchronized long getHedgedCount() {
+        return hedgedCount;
+    }
+
+    /**
+     * @return the count of the hedges which responded before the original requests
+     */
+    public synchronized long getHedgeWonCount() {
+        return hedgeWonCount;
+    }
+}
@@ -2,15 +2,20 @@ package com.alibaba.sdk.android.oss.network;
 
 import com.alibaba.sdk.android.oss.ClientException;
 import com.alibaba.sdk.android.oss.ServiceException;
+import com.alibaba.sdk.android.oss.common.HttpMethod;
 import com.alibaba.sdk.android.oss.common.OSSHeaders;
 import com.alibaba.sdk.android.oss.common.OSSLog;
 import com.alibaba.sdk.android.oss.common.utils.DateUtil;
+import com.alibaba.sdk.android.oss.common.utils.HttpHeaders;
 import com.alibaba.sdk.android.oss.common.utils.OSSUtils;
+import com.alibaba.sdk.android.oss.internal.BucketEndpointCache;
 import com.alibaba.sdk.android.oss.internal.OSSRetryHandler;
 import com.alibaba.sdk.android.oss.internal.OSSRetryType;
 import com.alibaba.sdk.android.oss.internal.RequestMessage;
 import com.alibaba.sdk.android.oss.internal.ResponseParser;
 import com.alibaba.sdk.android.oss.internal.ResponseParsers;
+import com.alibaba.sdk.android.oss.model.GetBucketACLRequest;
+import com.alibaba.sdk.android.oss.model.GetBucketACLResult;
 import com.alibaba.sdk.android.oss.model.GetObjectRequest;
 import com.alibaba.sdk.android.oss.model.OSSRequest;
 import com.alibaba.sdk.android.oss.model.OSSResult;
@@ -26,6 +31,9 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
@@ -47,6 +55,8 @@ public class OSSRequestTask<T extends OSSResult> implements Callable<T> {
 
     private int currentRetryCount = 0;
 
+    private boolean redirected = false;
+
     public OSSRequestTask(RequestMessage message, ResponseParser parser, ExecutionContext context, int maxRetry) {
         this.responseParser = parser;
         this.message = message;
@@ -81,7 +91,8 @@ public class OSSRequestTask<T extends OSSResult> implements Callable<T> {
                 throw new InterruptedIOException("This task is cancelled!");
             }
 
-            Request.Builder requestBuilder = new Request.Builder();
+            // tells the interceptors whether the call is cancelled
+            Request.Builder requestBuilder = new Request.Builder().tag(new RequestTag());
 
             // build request url
             String url = message.buildCanonicalURL();
@@ -142,21 +153,43 @@ public class OSSRequestTask<T extends OSSResult> implements Callable<T> {
 
             call = client.newCall(request);
 
-            context.getCancellationHandler().setCall(call);
+            // the identical reads in flight share one call, unless the caller tracks the download progress
+            RequestCoalescer coalescer = message.getRequestCoalescer();
+            if (coalescer != null && isIdempotentRead() && context.getProgressCallback() == null) {
+                response = coalescer.execute(call, context.getCancellationHandler());
+                if (response == null) {
+                    // the shared response was streamed to another request
+                    call = client.newCall(request);
+                }
+            }
 
-            // send sync request
-            response = call.execute();
+            if (response == null) {
+                context.getCancellationHandler().setCall(call);
+
+                // send sync request
+                HedgingPolicy hedgingPolicy = message.getHedgingPolicy();
+                if (hedgingPolicy != null && isIdempotentRead()) {
+                    HedgedCall hedgedCall = new HedgedCall(client, call, hedgingPolicy, context.getCancellationHandler());
+                    response = hedgedCall.execute();
+                    // the original call is cancelled when the hedge wins
+                    call = hedgedCall.getWinner();
+                } else {
+                    response = call.execute();
+                }
+            }
 
-            // response log
-            Map<String, List<String>> headerMap = response.headers().toMultimap();
-            StringBuilder printRsp = new StringBuilder();
-            printRsp.append("response:---------------------\n");
-            printRsp.append("response code: " + response.code() + " for url: " + request.url()+"\n");
-            printRsp.append("response msg: "+ response.message()+"\n");
-            for(String key : headerMap.keySet()){
-                printRsp.append("responseHeader ["+key+"]: ").append(headerMap.get(key).get(0)+"\n");
+            // response log, skip building it when logging is off
+            if (OSSLog.isEnableLog()) {
+                Map<String, List<String>> headerMap = response.headers().toMultimap();
+                StringBuilder printRsp = new StringBuilder();
+                printRsp.append("response:---------------------\n");
+                printRsp.append("response code: " + response.code() + " for url: " + request.url()+"\n");
+                printRsp.append("response msg: "+ response.message()+"\n");
+                for(String key : headerMap.keySet()){
+                    printRsp.append("responseHeader ["+key+"]: ").append(headerMap.get(key).get(0)+"\n");
+                }
+                OSSLog.logDebug(printRsp.toString());
             }
-            OSSLog.logDebug(printRsp.toString());
 
         } catch (Exception e) {
             OSSLog.logError("Encounter local execpiton: " + e.toString());
@@ -205,6 +238,10 @@ public class OSSRequestTask<T extends OSSResult> implements Callable<T> {
             exception = new ClientException("Task is cancelled!", exception.getCause(), true);
         }
 
+        if (exception instanceof ServiceException && redirectToBucketEndpoint((ServiceException) exception)) {
+            return call();
+        }
+
         OSSRetryType retryType = retryHandler.shouldRetry(exception, currentRetryCount);
         OSSLog.logError("[run] - retry, retry type: " + retryType);
         if (retryType == OSSRetryType.OSSRetryTypeShouldRetry) {
@@ -236,4 +273,84 @@ public class OSSRequestTask<T extends OSSResult> implements Callable<T> {
             throw exception;
         }
     }
+
+    /**
+     * Only the object reads are hedged, sending them twice has no side effect.
+     */
+    private boolean isIdempotentRead() {
+        return (message.getMethod() == HttpMethod.GET || message.getMethod() == HttpMethod.HEAD)
+                && message.getObjectKey() != null;
+    }
+
+    /**
+     * Follows the redirect error of a bucket accessed through the endpoint of another region once, and
+     * remembers the bucket's endpoint so that the later requests go there directly.
+     */
+    private boolean redirectToBucketEndpoint(ServiceException exception) {
+        BucketEndpointCache cache = message.getBucketEndpointCache();
+        String bucketName = message.getBucketName();
+        if (cache == null || bucketName == null) {
+            return false;
+        }
+        if ("NoSuchBucket".equals(exception.getErrorCode())) {
+            // the bucket may be created in another region later
+            cache.remove(bucketName);
+            return false;
+        }
+        if (redirected) {
+            return false;
+        }
+        String endpointHost = exception.getEndpoint();
+        if (endpointHost == null && exception.getStatusCode() == 301 && message.getMethod() == HttpMethod.HEAD) {
+            // the error of a HEAD request has no body to tell the endpoint, a GetBucketACL is redirected with it
+            endpointHost = probeBucketEndpoint();
+        }
+        URI endpoint = message.getEndpoint();
+        if (endpointHost == null || endpointHost.equals(endpoint.getHost())) {
+            return false;
+        }
+        if (endpointHost.contains("://")) {
+            endpointHost = endpointHost.substring(endpointHost.indexOf("://") + 3);
+        }
+        try {
+            message.setEndpoint(new URI(endpoint.getScheme(), endpointHost, null, null));
+        } catch (URISyntaxException e) {
+            return false;
+        }
+        OSSLog.logDebug("[redirect] - " + bucketName + " to " + endpointHost);
+        cache.put(bucketName, endpointHost);
+        redirected = true;
+        return true;
+    }
+
+    /**
+     * @return the endpoint of the bucket told by the redirect error of a GetBucketACL, null if there's none
+     */
+    private String probeBucketEndpoint() {
+        RequestMessage probe = new RequestMessage();
+        Map<String, String> query = new LinkedHashMap<String, String>();
+        query.put("acl", "");
+        probe.setIsAuthorizationRequired(message.isAuthorizationRequired());
+        probe.setEndpoint(message.getEndpoint());
+        probe.setMethod(HttpMethod.GET);
+        probe.setBucketName(message.getBucketName());
+        probe.setParameters(query);
+        probe.setCredentialProvider(message.getCredentialProvider());
+        probe.setIsInCustomCnameExcludeList(message.isInCustomCnameExcludeList());
+        probe.getHeaders().put(OSSHeaders.DATE, DateUtil.currentFixedSkewedTimeInRFC822Format());
+        probe.getHeaders().put(HttpHeaders.USER_AGENT, message.getHeaders().get(HttpHeaders.USER_AGENT));
+
+        ExecutionContext<GetBucketACLRequest> probeContext = new ExecutionContext<GetBucketACLRequest>(
+                client, new GetBucketACLRequest(message.getBucketName()));
+        try {
+            // without the bucket endpoint cache, the probe isn't redirected itself
+            new OSSRequestTask<GetBucketACLResult>(probe, new ResponseParsers.GetBucketACLResponseParser(),
+                    probeContext, 0).call();
+        } catch (ServiceException e) {
+            return e.getEndpoint();
+        } catch (Exception e) {
+            OSSLog.logDebug("[redirect] - probe the endpoint of " + message.getBucketName() + " failed: " + e.toString());
+        }
+        return null;
+    }
 }
@@ -0,0 +1,467 @@
+package com.alibaba.sdk.android.oss.network;
+
+import com.alibaba.sdk.android.oss.common.OSSConstants;
+import com.alibaba.sdk.android.oss.common.OSSHeaders;
+import com.alibaba.sdk.android.oss.common.OSSLog;
+import com.alibaba.sdk.android.oss.common.RequestParameters;
+import com.alibaba.sdk.android.oss.common.utils.BinaryUtil;
+import com.alibaba.sdk.android.oss.common.utils.IOUtils;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import okhttp3.HttpUrl;
+import okhttp3.Headers;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * Size bounded disk cache of the getObject responses, keyed by the bucket, object key, range and x-oss-process.
+ * <p>
+ * A cached object is always revalidated with If-None-Match and If-Modified-Since, and when the server answers
+ * 304 Not Modified the body is served from the disk instead of downloaded again. A body is cached while the
+ * caller reads it, and only when it's read to the end. The least recently used objects are evicted when the
+ * total size exceeds the max size.
+ * <p>
+ * The cache is set with {@link com.alibaba.sdk.android.oss.ClientConfiguration#setObjectCache(ObjectCache)},
+ * and the same instance shouldn't be used by several clients.
+ */
+public class ObjectCache implements Interceptor {
+
+    private static final String META_SUFFIX = ".meta";
+    private static final String BODY_SUFFIX = ".body";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File directory;
+    private final long maxSize;
+
+    // access ordered, the eldest entry is evicted first. Guarded by this.
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    private long size;
+    private boolean initialized;
+
+    private long hitCount;
+    private long missCount;
+
+    /**
+     * @param directory the directory of the cache, e.g. new File(context.getCacheDir(), "oss_object_cache")
+     * @param maxSize the max total size of the cached objects in bytes
+     */
+    public ObjectCache(File directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!isObjectRead(request)) {
+            return chain.proceed(request);
+        }
+
+        String key = buildKey(request);
+        Entry entry = get(key);
+        BufferedSource cachedBody = null;
+        if (entry != null) {
+            try {
+                cachedBody = Okio.buffer(Okio.source(entry.bodyFile()));
+                Request.Builder builder = request.newBuilder();
+                if (entry.etag != null) {
+                    builder.header(OSSHeaders.GET_OBJECT_IF_NONE_MATCH, entry.etag);
+                }
+                if (entry.lastModified != null) {
+                    builder.header(OSSHeaders.GET_OBJECT_IF_MODIFIED_SINCE, entry.lastModified);
+                }
+                request = builder.build();
+            } catch (IOException e) {
+                // the body file is gone
+                remove(key);
+                entry = null;
+            }
+        }
+
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            closeQuietly(cachedBody);
+            throw e;
+        }
+
+        if (entry != null && response.code() == 304) {
+            onHit();
+            response.body().close();
+            OSSLog.logDebug("[ObjectCache] - not modified: " + key);
+            Headers.Builder headers = entry.headers.newBuilder();
+            String date = response.header(OSSHeaders.DATE);
+            if (date != null) {
+                // the server time is updated from it
+                headers.set(OSSHeaders.DATE, date);
+            }
+            String contentType = entry.headers.get(OSSHeaders.CONTENT_TYPE);
+            return response.newBuilder()
+                    .code(entry.code)
+                    .message(entry.message)
+                    .headers(headers.build())
+                    .body(ResponseBody.create(contentType != null ? MediaType.parse(contentType) : null,
+                            entry.length, cachedBody))
+                    .build();
+        }
+
+        onMiss();
+        closeQuietly(cachedBody);
+        boolean downloaded = response.code() == 200 || response.code() == 206;
+        if (entry != null && (downloaded || response.code() == 404)) {
+            // the object is modified or deleted
+            remove(key);
+        }
+        long length = response.body().contentLength();
+        if (!downloaded || length < 0 || length > maxSize / 4) {
+            return response;
+        }
+        Entry newEntry = new Entry(directory, key, response.code(), response.message(), response.headers(), length);
+        CachingSource source = new CachingSource(response.body().source(), newEntry);
+        return response.newBuilder()
+                .body(ResponseBody.create(response.body().contentType(), length, Okio.buffer(source)))
+                .build();
+    }
+
+    /**
+     * The count of the requests answered from the cache after revalidation
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * The count of the requests whose body was downloaded
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * The total size of the cached objects in bytes
+     */
+    public synchronized long getSize() {
+        initialize();
+        return size;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Removes all the cached objects.
+     */
+    public synchronized void clear() {
+        initialize();
+        for (Entry entry : new ArrayList<Entry>(entries.values())) {
+            remove(entry.key);
+        }
+    }
+
+    /**
+     * Only the plain object downloads are cached, not the reads of a sub resource like ?acl or ?uploadId.
+     */
+    private static boolean isObjectRead(Request request) {
+        HttpUrl url = request.url();
+        // only the requests of the OSS operations are tagged, not e.g. the token fetch of an auth server
+        if (!(request.tag() instanceof RequestTag)) {
+            return false;
+        }
+        if (!request.method().equals("GET") || url.encodedPath().length() <= 1) {
+            return false;
+        }
+        for (String name : url.queryParameterNames()) {
+            if (!name.equals(RequestParameters.X_OSS_PROCESS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String buildKey(Request request) {
+        String range = request.header(OSSHeaders.RANGE);
+        return request.url() + (range != null ? " " + range : "");
+    }
+
+    private static void closeQuietly(Source source) {
+        if (source != null) {
+            try {
+                source.close();
+            } catch (IOException ignore) {
+                // nothing to do
+            }
+        }
+    }
+
+    private synchronized void onHit() {
+        hitCount++;
+    }
+
+    private synchronized void onMiss() {
+        missCount++;
+    }
+
+    private synchronized Entry get(String key) {
+        initialize();
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            // keeps the lru order across process restarts
+            entry.metaFile().setLastModified(System.currentTimeMillis());
+        }
+        return entry;
+    }
+
+    private synchronized void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            size -= entry.length;
+            entry.metaFile().delete();
+            entry.bodyFile().delete();
+        }
+    }
+
+    private synchronized void commit(Entry entry, File tempFile) {
+        initialize();
+        remove(entry.key);
+        FileOutputStream output = null;
+        try {
+            output = new FileOutputStream(entry.metaFile());
+            output.write(entry.toJson().toString().getBytes(OSSConstants.DEFAULT_CHARSET_NAME));
+            output.close();
+            output = null;
+            if (!tempFile.renameTo(entry.bodyFile())) {
+                throw new IOException("rename " + tempFile.getPath() + " failed");
+            }
+            entries.put(entry.key, entry);
+            size += entry.length;
+            trimToSize();
+        } catch (Exception e) {
+            OSSLog.logWarn("[ObjectCache] - cache " + entry.key + " failed: " + e.toString());
+            entry.metaFile().delete();
+            tempFile.delete();
+        } finally {
+            IOUtils.safeClose(output);
+        }
+    }
+
+    private void trimToSize() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            size -= eldest.length;
+            eldest.metaFile().delete();
+            eldest.bodyFile().delete();
+        }
+    }
+
+    /**
+     * Loads the entries kept in the directory, in the order they were last used.
+     */
+    private void initialize() {
+        if (initialized) {
+            return;
+        }
+        initialized = true;
+        directory.mkdirs();
+        File[] metaFiles = directory.listFiles();
+        if (metaFiles == null) {
+            return;
+        }
+        Arrays.sort(metaFiles, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                long diff = lhs.lastModified() - rhs.lastModified();
+                return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+            }
+        });
+        for (File file : metaFiles) {
+            String name = file.getName();
+            if (name.endsWith(TEMP_SUFFIX)) {
+                // left by a body not read to the end
+                file.delete();
+                continue;
+            }
+            if (!name.endsWith(META_SUFFIX)) {
+                continue;
+            }
+            FileInputStream input = null;
+            try {
+                input = new FileInputStream(file);
+                Entry entry = Entry.fromJson(directory, new JSONObject(
+                        IOUtils.readStreamAsString(input, OSSConstants.DEFAULT_CHARSET_NAME)));
+                if (entry.bodyFile().length() != entry.length) {
+                    throw new IOException("incomplete body");
+                }
+                entries.put(entry.key, entry);
+                size += entry.length;
+            } catch (Exception e) {
+                OSSLog.logWarn("[ObjectCache] - load " + name + " failed: " + e.toString());
+                file.delete();
+                new File(directory, name.substring(0, name.length() - META_SUFFIX.length()) + BODY_SUFFIX).delete();
+            } finally {
+                IOUtils.safeClose(input);
+            }
+        }
+        trimToSize();
+        OSSLog.logDebug("[ObjectCache] - loaded " + entries.size() + " objects, size: " + size);
+    }
+
+    private static class Entry {
+
+        final File directory;
+        final String key;
+        final String fileName;
+        final int code;
+        final String message;
+        final Headers headers;
+        final String etag;
+        final String lastModified;
+        final long length;
+
+        Entry(File directory, String key, int code, String message, Headers headers, long length) {
+            this.directory = directory;
+            this.key = key;
+            this.fileName = BinaryUtil.calculateMd5Str(key.getBytes());
+            this.code = code;
+            this.message = message;
+            this.headers = headers;
+            this.etag = headers.get(OSSHeaders.ETAG);
+            this.lastModified = headers.get(OSSHeaders.LAST_MODIFIED);
+            this.length = length;
+        }
+
+        File metaFile() {
+            return new File(directory, fileName + META_SUFFIX);
+        }
+
+        File bodyFile() {
+            return new File(directory, fileName + BODY_SUFFIX);
+        }
+
+        JSONObject toJson() throws Exception {
+            JSONArray headerArray = new JSONArray();
+            for (int i = 0; i < headers.size(); i++) {
+                headerArray.put(headers.name(i));
+                headerArray.put(headers.value(i));
+            }
+            JSONObject json = new JSONObject();
+            json.put("key", key);
+            json.put("code", code);
+            json.put("message", message);
+            json.put("headers", headerArray);
+            json.put("length", length);
+            return json;
+        }
+
+        static Entry fromJson(File directory, JSONObject json) throws Exception {
+            JSONArray headerArray = json.getJSONArray("headers");
+            Headers.Builder headers = new Headers.Builder();
+            for (int i = 0; i + 1 < headerArray.length(); i += 2) {
+                headers.add(headerArray.getString(i), headerArray.getString(i + 1));
+            }
+            return new Entry(directory, json.getString("key"), json.getInt("code"), json.getString("message"),
+                    headers.build(), json.getLong("length"));
+        }
+    }
+
+    /**
+     * Writes the body to a temp file while the caller reads it, and commits it to the cache at the end.
+     */
+    private class CachingSource extends ForwardingSource {
+
+        private final Entry entry;
+        private final File tempFile;
+        private BufferedSink cacheSink;
+        private boolean done;
+
+        CachingSource(Source delegate, Entry entry) {
+            super(delegate);
+            this.entry = entry;
+            this.tempFile = new File(directory, entry.fileName + "." + System.nanoTime() + TEMP_SUFFIX);
+            try {
+                directory.mkdirs();
+                cacheSink = Okio.buffer(Okio.sink(tempFile));
+            } catch (IOException e) {
+                OSSLog.logWarn("[ObjectCache] - " + e.toString());
+                done = true;
+            }
+        }
+
+        @Override
+        public long read(Buffer sink, long byteCount) throws IOException {
+            long read;
+            try {
+                read = super.read(sink, byteCount);
+            } catch (IOException e) {
+                abort();
+                throw e;
+            }
+            if (done) {
+                return read;
+            }
+            if (read == -1) {
+                done = true;
+                try {
+                    cacheSink.close();
+                    commit(entry, tempFile);
+                } catch (IOException e) {
+                    OSSLog.logWarn("[ObjectCache] - " + e.toString());
+                    tempFile.delete();
+                }
+                return read;
+            }
+            try {
+                sink.copyTo(cacheSink.buffer(), sink.size() - read, read);
+                cacheSink.emitCompleteSegments();
+            } catch (IOException e) {
+                OSSLog.logWarn("[ObjectCache] - " + e.toString());
+                abort();
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // a body not read to the end is not cached
+            abort();
+            super.close();
+        }
+
+        private void abort() {
+            if (done) {
+                return;
+            }
+            done = true;
+            try {
+                cacheSink.close();
+            } catch (IOException ignore) {
+                // the temp file is deleted anyway
+            }
+            tempFile.delete();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.alibaba.sdk.android.oss.network;
+
+import com.alibaba.sdk.android.oss.common.OSSHeaders;
+import com.alibaba.sdk.android.oss.common.OSSLog;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Lets the identical reads in flight at the same time share one network call. The reads are identical when
+ * they have the same method, url (bucket, object key and query such as x-oss-process) and range.
+ * <p>
+ * A response body up to {@link #MAX_SHARED_BODY_SIZE} is buffered once and every waiter gets its own copy.
+ * A larger or chunked body can only be streamed to one waiter, the others send their own requests.
+ * A waiter that is cancelled just leaves the call, which is only cancelled once no waiter is left, or once
+ * the waiter which got the streamed body is cancelled.
+ */
+public class RequestCoalescer {
+
+    private static final long MAX_SHARED_BODY_SIZE = 2 * 1024 * 1024;
+
+    private final Map<String, Flight> flights = new HashMap<String, Flight>();
+
+    private long coalescedCount;
+
+    /**
+     * Executes the call, or joins the identical one in flight.
+     * @return the response, or null when the response can't be shared and the caller should send its own request
+     */
+    public Response execute(Call call, CancellationHandler cancellationHandler) throws IOException {
+        String key = buildKey(call.request());
+        Flight flight;
+        boolean leader = false;
+        synchronized (flights) {
+            flight = flights.get(key);
+            if (flight == null) {
+                flight = new Flight(key, call);
+                flights.put(key, flight);
+                leader = true;
+            } else {
+                coalescedCount++;
+                OSSLog.logDebug("[RequestCoalescer] - join " + key);
+            }
+            synchronized (flight) {
+                flight.waiters++;
+            }
+        }
+        if (leader) {
+            call.enqueue(flight);
+        }
+        return flight.await(cancellationHandler);
+    }
+
+    /**
+     * @return the count of the requests that joined a call in flight instead of sending their own
+     */
+    public long getCoalescedCount() {
+        synchronized (flights) {
+            return coalescedCount;
+        }
+    }
+
+    private static String buildKey(Request request) {
+        String range = request.header(OSSHeaders.RANGE);
+        return request.method() + " " + request.url() + (range != null ? " " + range : "");
+    }
+
+    private void remove(Flight flight) {
+        synchronized (flights) {
+            if (flights.get(flight.key) == flight) {
+                flights.remove(flight.key);
+            }
+        }
+    }
+
+    private class Flight implements Callback {
+
+        final String key;
+        final Call call;
+
+        // guarded by this
+        int waiters;
+        boolean done;
+        Response response;
+        byte[] body;
+        IOException failure;
+
+        Flight(String key, Call call) {
+            this.key = key;
+            this.call = call;
+        }
+
+        @Override
+        public void onFailure(Call call, IOException e) {
+            finish(null, null, e);
+        }
+
+        @Override
+        public void onResponse(Call call, Response response) {
+            ResponseBody responseBody = response.body();
+            long length = responseBody.contentLength();
+            if (call.request().method().equals("HEAD") || (length >= 0 && length <= MAX_SHARED_BODY_SIZE)) {
+                try {
+                    finish(response, responseBody.bytes(), null);
+                } catch (IOException e) {
+                    finish(null, null, e);
+                } finally {
+                    responseBody.close();
+                }
+            } else {
+                finish(response, null, null);
+            }
+        }
+
+        private void finish(Response response, byte[] body, IOException failure) {
+            // the later identical requests start a new call
+            remove(this);
+            synchronized (this) {
+                this.response = response;
+                this.body = body;
+                this.failure = failure;
+                done = true;
+                notifyAll();
+                if (response != null && body == null && waiters == 0) {
+                    // nobody is waiting for the streamed body
+                    response.body().close();
+                    this.response = null;
+                }
+            }
+        }
+
+        Response await(CancellationHandler cancellationHandler) throws IOException {
+            final Runnable leaveAction = new Runnable() {
+                private boolean left;
+
+                @Override
+                public void run() {
+                    synchronized (Flight.this) {
+                        if (left) {
+                            return;
+                        }
+                        left = true;
+                    }
+                    leave();
+                }
+            };
+            cancellationHandler.setCancelAction(leaveAction);
+            boolean interrupted = false;
+            synchronized (this) {
+                while (!done && !cancellationHandler.isCancelled()) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        interrupted = true;
+                        break;
+                    }
+                }
+                if (done) {
+                    return takeResponse(cancellationHandler);
+                }
+            }
+            leaveAction.run();
+            throw new InterruptedIOException(interrupted ? "Interrupted while waiting for the response" : "This task is cancelled!");
+        }
+
+        // called with the lock of this flight held
+        private Response takeResponse(CancellationHandler cancellationHandler) throws IOException {
+            if (failure != null) {
+                throw failure;
+            }
+            if (body != null) {
+                return response.newBuilder()
+                        .body(ResponseBody.create(response.body().contentType(), body))
+                        .build();
+            }
+            // the streamed body goes to the first waiter only, and its cancellation stops the call reading it
+            Response streamed = response;
+            response = null;
+            cancellationHandler.setCall(call);
+            if (cancellationHandler.isCancelled()) {
+                RequestTag.cancel(call);
+            }
+            return streamed;
+        }
+
+        private void leave() {
+            boolean abandoned;
+            synchronized (flights) {
+                synchronized (this) {
+                    waiters--;
+                    abandoned = waiters == 0 && !done;
+                    notifyAll();
+                }
+                // removed along with the check, so no request joins the call being cancelled
+                if (abandoned && flights.get(key) == this) {
+                    flights.remove(key);
+                }
+            }
+            if (abandoned) {
+                RequestTag.cancel(call);
+            }
+        }
+    }
+}
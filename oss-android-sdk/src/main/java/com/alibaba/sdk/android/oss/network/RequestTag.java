@@ -0,0 +1,32 @@
+package com.alibaba.sdk.android.oss.network;
+
+import okhttp3.Call;
+import okhttp3.Request;
+
+/**
+ * The tag of the request of one call, telling the interceptors whether the call was cancelled on purpose,
+ * as the call itself isn't exposed to them. Every call of a request gets its own tag.
+ */
+class RequestTag {
+
+    private volatile boolean cancelled;
+
+    /**
+     * Cancels the call, marking its request as cancelled first.
+     */
+    static void cancel(Call call) {
+        Object tag = call.request().tag();
+        if (tag instanceof RequestTag) {
+            ((RequestTag) tag).cancelled = true;
+        }
+        call.cancel();
+    }
+
+    /**
+     * @return true if the call of the request was cancelled by {@link #cancel(Call)}
+     */
+    static boolean isCancelled(Request request) {
+        Object tag = request.tag();
+        return tag instanceof RequestTag && ((RequestTag) tag).cancelled;
+    }
+}